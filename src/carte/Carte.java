@@ -9,7 +9,8 @@ import robot.Direction;
 public class Carte {
     
     private int TailleCases;
-    private static Case[][] cases;
+    private final Case[][] cases;
+    private long version; // Incrémentée à chaque modification du terrain ou de la taille des cases
 
     /**
      * Constructeur de la classe Carte.
@@ -19,7 +20,7 @@ public class Carte {
      * @param NbColonnes Le nombre de colonnes de la carte.
      */
     public Carte(int NbLignes, int NbColonnes){
-        Carte.cases = new Case[NbLignes][NbColonnes];
+        this.cases = new Case[NbLignes][NbColonnes];
     }
 
     /**
@@ -56,6 +57,31 @@ public class Carte {
      */
     public void setTailleCases(int taille){
         this.TailleCases = taille;
+        version++;
+    }
+
+    /**
+     * Récupère la version du terrain de la carte. Elle change à chaque ajout de case, changement de terrain
+     * par {@link #setNature} ou changement de la taille des cases : les résultats calculés sur la carte
+     * (chemins, temps de trajet) ne sont plus valables lorsqu'elle a changé.
+     *
+     * @return La version du terrain.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Change le type de terrain d'une case de la carte et met à jour la version du terrain.
+     * Les changements de terrain faits directement sur une case ne sont pas vus par {@link #getVersion}.
+     *
+     * @param Ligne La ligne de la case.
+     * @param Colonne La colonne de la case.
+     * @param terrain Le nouveau type de terrain.
+     */
+    public void setNature(int Ligne, int Colonne, NatureTerrain terrain){
+        cases[Ligne][Colonne].setNature(terrain);
+        version++;
     }
 
     /**
@@ -78,6 +104,7 @@ public class Carte {
         int i = nouvellecase.getLigne();
         int j = nouvellecase.getColonne();
         cases[i][j] = nouvellecase;
+        version++;
     }
 
     /**
@@ -0,0 +1,237 @@
+package robot;
+import carte.*;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Mémoire des coûts calculés pendant une planification : chemins optimaux entre deux cases, eau la plus proche
+ * d'une case et trajets entre deux cases avec un remplissage en chemin, pour un type de robot et une vitesse de base donnés. Les robots de même type et de même vitesse
+ * partagent donc leurs résultats.
+ *
+ * <p>La taille de la mémoire est bornée : au-delà, les entrées les moins récemment utilisées sont oubliées.
+ * Le contenu est effacé dès que la version du terrain de la carte ({@link Carte#getVersion}) change.
+ * Les accès sont synchronisés, mais les calculs manquants sont faits hors du verrou : la mémoire peut être
+ * partagée par des évaluations faites en parallèle.</p>
+ */
+public final class CacheCouts {
+
+    /**
+     * Nombre d'entrées conservées par défaut.
+     */
+    public static final int CAPACITE_PAR_DEFAUT = 10_000;
+
+    private static final int EAU_LA_PLUS_PROCHE = -1; // Cible d'une entrée « eau la plus proche »
+    private static final int PAR_L_EAU = -2;          // Les cibles PAR_L_EAU - indice désignent un trajet par l'eau
+
+    private final Carte carte;
+    private final LinkedHashMap<Cle, Object> entrees;
+    private long version;
+
+    // Statistiques
+    private long nbSucces;
+    private long nbEchecs;
+    private long nbEvictions;
+    private long nbInvalidations;
+
+    /**
+     * Constructeur.
+     *
+     * @param carte    La carte sur laquelle les coûts sont calculés.
+     * @param capacite Le nombre maximal d'entrées conservées.
+     */
+    public CacheCouts(Carte carte, int capacite) {
+        this.carte = carte;
+        this.version = carte.getVersion();
+        this.entrees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Cle, Object> eldest) {
+                if (size() > capacite) {
+                    nbEvictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Clé d'une entrée : type et vitesse de base du robot, case d'origine et case cible
+     * (ou {@link #EAU_LA_PLUS_PROCHE}, ou {@link #PAR_L_EAU} moins la case de destination), les cases étant
+     * désignées par ligne * nbColonnes + colonne.
+     */
+    private static final class Cle {
+        final String type;
+        final double vitesseBase;
+        final int origine;
+        final int cible;
+
+        Cle(Robot robot, int origine, int cible) {
+            this.type = robot.getType();
+            this.vitesseBase = robot.getVitesseBase();
+            this.origine = origine;
+            this.cible = cible;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Cle)) {
+                return false;
+            }
+            Cle autre = (Cle) o;
+            return origine == autre.origine && cible == autre.cible
+                && vitesseBase == autre.vitesseBase && type.equals(autre.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, vitesseBase, origine, cible);
+        }
+    }
+
+    /**
+     * @return La carte sur laquelle les coûts sont calculés.
+     */
+    public Carte getCarte() {
+        return carte;
+    }
+
+    /**
+     * Retourne le chemin optimal d'un robot entre deux cases, calculé au premier appel. Seuls les chemins entre
+     * cases de la carte sont mémorisés : une case construite à part (position d'un incendie, case par défaut)
+     * peut porter un autre terrain que la case de la carte de mêmes coordonnées.
+     *
+     * @param recherche   La recherche de chemin sur la carte.
+     * @param robot       Le robot qui se déplace.
+     * @param depart      La case de départ.
+     * @param destination La case de destination.
+     * @return Le chemin optimal et son temps.
+     */
+    public ResultatChemin chemin(RechercheChemin recherche, Robot robot, Case depart, Case destination) {
+        if (!estCaseDeLaCarte(depart) || !estCaseDeLaCarte(destination)) {
+            return recherche.calculerCheminOptimal(depart, destination, robot);
+        }
+        Cle cle = new Cle(robot, indice(depart), indice(destination));
+        return (ResultatChemin) obtenir(cle, () -> recherche.calculerCheminOptimal(depart, destination, robot));
+    }
+
+    /**
+     * Retourne l'eau la plus proche d'une case pour un robot, calculée au premier appel.
+     * Comme pour les chemins, seules les cases de la carte sont mémorisées.
+     *
+     * @param robot  Le robot qui cherche de l'eau.
+     * @param depart La case de départ.
+     * @param calcul Le calcul de l'eau la plus proche depuis cette case.
+     * @return La case où le robot se remplit et le temps pour s'y rendre.
+     */
+    @SuppressWarnings("unchecked")
+    SimpleEntry<Case, Double> eauLaPlusProche(Robot robot, Case depart, Supplier<SimpleEntry<Case, Double>> calcul) {
+        if (!estCaseDeLaCarte(depart)) {
+            return calcul.get();
+        }
+        return (SimpleEntry<Case, Double>) obtenir(new Cle(robot, indice(depart), EAU_LA_PLUS_PROCHE), calcul);
+    }
+
+    /**
+     * Retourne le trajet d'un robot entre deux cases avec un remplissage en chemin, calculé au premier appel.
+     * Le choix de l'eau ne dépend pas du temps de remplissage, qui est le même quelle que soit la source :
+     * le trajet est partagé par les robots de même type quel que soit leur réservoir.
+     *
+     * @param robot       Le robot qui se déplace.
+     * @param depart      La case de départ.
+     * @param destination La case de destination.
+     * @param calcul      Le calcul du trajet, par {@link RechercheRemplissage}.
+     * @return Le trajet, ou null si le robot ne peut pas atteindre la destination en passant par l'eau.
+     */
+    RechercheRemplissage.Trajet trajetParEau(Robot robot, Case depart, Case destination,
+                                             Supplier<RechercheRemplissage.Trajet> calcul) {
+        if (!estCaseDeLaCarte(depart) || !estCaseDeLaCarte(destination)) {
+            return calcul.get();
+        }
+        return (RechercheRemplissage.Trajet) obtenir(new Cle(robot, indice(depart), PAR_L_EAU - indice(destination)), calcul);
+    }
+
+    private boolean estCaseDeLaCarte(Case c) {
+        return c.getLigne() >= 0 && c.getLigne() < carte.getNbLignes()
+            && c.getColonne() >= 0 && c.getColonne() < carte.getNbColonnes()
+            && carte.getCase(c.getLigne(), c.getColonne()) == c;
+    }
+
+    private int indice(Case c) {
+        return c.getLigne() * carte.getNbColonnes() + c.getColonne();
+    }
+
+    private Object obtenir(Cle cle, Supplier<?> calcul) {
+        synchronized (this) {
+            if (version != carte.getVersion()) {
+                entrees.clear();
+                version = carte.getVersion();
+                nbInvalidations++;
+            }
+            Object valeur = entrees.get(cle);
+            if (valeur != null) {
+                nbSucces++;
+                return valeur;
+            }
+            nbEchecs++;
+        }
+        Object valeur = calcul.get();
+        synchronized (this) {
+            if (version == carte.getVersion()) {
+                entrees.put(cle, valeur);
+            }
+        }
+        return valeur;
+    }
+
+    /**
+     * Vide la mémoire, sans toucher aux statistiques.
+     */
+    public synchronized void vider() {
+        entrees.clear();
+    }
+
+    /**
+     * @return Le nombre d'entrées conservées.
+     */
+    public synchronized int getTaille() {
+        return entrees.size();
+    }
+
+    /**
+     * @return Le nombre de coûts trouvés dans la mémoire.
+     */
+    public synchronized long getNbSucces() {
+        return nbSucces;
+    }
+
+    /**
+     * @return Le nombre de coûts absents de la mémoire, donc calculés.
+     */
+    public synchronized long getNbEchecs() {
+        return nbEchecs;
+    }
+
+    /**
+     * @return Le nombre d'entrées oubliées faute de place.
+     */
+    public synchronized long getNbEvictions() {
+        return nbEvictions;
+    }
+
+    /**
+     * @return Le nombre de fois où la mémoire a été vidée après un changement du terrain.
+     */
+    public synchronized long getNbInvalidations() {
+        return nbInvalidations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long total = nbSucces + nbEchecs;
+        return "CacheCouts [entrées: " + entrees.size() + ", succès: " + nbSucces + "/" + total
+             + ", évictions: " + nbEvictions + ", invalidations: " + nbInvalidations + "]";
+    }
+}
@@ -0,0 +1,174 @@
+package robot;
+import carte.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Champ des temps de trajet d'un type de robot depuis une case de départ vers toutes les cases de la carte.
+ * Le champ est calculé en une seule recherche de Dijkstra, avec le même modèle de coût que
+ * {@link RechercheChemin} : le temps pour quitter une case dépend de la vitesse du robot sur le terrain de
+ * cette case, et un robot ne peut pas quitter une case sur laquelle sa vitesse est nulle.
+ * Une fois calculé, le champ n'est plus modifié et peut être lu depuis plusieurs fils.
+ */
+public final class ChampDistance {
+
+    private final Carte carte;
+    private final Robot robot;
+    private final double[] temps; // Temps de trajet vers chaque case, indexé par ligne * nbColonnes + colonne
+
+    /**
+     * Calcule le champ des temps de trajet d'un robot depuis une case.
+     * Comme pour {@link RechercheChemin}, la vitesse du robot est modifiée pendant le calcul (puis restaurée) :
+     * un même robot ne doit pas servir à plusieurs calculs en parallèle.
+     *
+     * @param carte  La carte.
+     * @param robot  Le robot dont le type détermine les vitesses sur chaque terrain.
+     * @param depart La case de départ.
+     */
+    public ChampDistance(Carte carte, Robot robot, Case depart) {
+        this(carte, robot, tempsDeSortie(carte, robot), depart);
+    }
+
+    /**
+     * Calcule le champ des temps de trajet d'un robot depuis une case tels que le simulateur les compte : le temps
+     * pour quitter chaque case est arrondi à la seconde inférieure, comme dans {@link Robot#deplacerSelonChemin}.
+     * Ces temps minorent donc les dates des déplacements planifiés à partir de la case de départ.
+     * Comme pour le constructeur public, la vitesse du robot est modifiée pendant le calcul.
+     *
+     * @param carte  La carte.
+     * @param robot  Le robot dont le type détermine les vitesses sur chaque terrain.
+     * @param depart La case de départ.
+     * @return Le champ des temps de trajet.
+     */
+    public static ChampDistance enSecondesEntieres(Carte carte, Robot robot, Case depart) {
+        double[] sortie = tempsDeSortie(carte, robot);
+        for (int i = 0; i < sortie.length; i++) {
+            sortie[i] = Math.floor(sortie[i]);
+        }
+        return new ChampDistance(carte, robot, sortie, depart);
+    }
+
+    /**
+     * Calcule le champ des temps de trajet à partir des temps de sortie de chaque terrain déjà calculés par
+     * {@link #tempsDeSortie}. Ce constructeur ne modifie pas le robot : plusieurs champs d'un même robot
+     * peuvent être calculés en parallèle.
+     *
+     * @param carte       La carte.
+     * @param robot       Le robot, dont seuls les terrains accessibles sont consultés.
+     * @param tempsSortie Le temps pour quitter une case de chaque type de terrain.
+     * @param depart      La case de départ.
+     */
+    ChampDistance(Carte carte, Robot robot, double[] tempsSortie, Case depart) {
+        this.carte = carte;
+        this.robot = robot;
+        int nbColonnes = carte.getNbColonnes();
+        this.temps = new double[carte.getNbLignes() * nbColonnes];
+        Arrays.fill(temps, Double.POSITIVE_INFINITY);
+
+        TasDistances tas = new TasDistances(temps.length);
+        int source = depart.getLigne() * nbColonnes + depart.getColonne();
+        temps[source] = 0;
+        tas.inserer(source, 0);
+        while (!tas.estVide()) {
+            // Les entrées périmées (distance supérieure à celle du champ) sont écartées au passage
+            double distance = tas.distanceSommet();
+            int courant = tas.retirer();
+            if (distance > temps[courant]) {
+                continue;
+            }
+            double sortie = tempsSortie[carte.getCase(courant / nbColonnes, courant % nbColonnes).getNature().ordinal()];
+            if (Double.isInfinite(sortie)) {
+                continue;
+            }
+            int l = courant / nbColonnes;
+            int c = courant % nbColonnes;
+            double nouveau = temps[courant] + sortie;
+            if (l > 0) relacher(tas, courant - nbColonnes, nouveau);
+            if (l < carte.getNbLignes() - 1) relacher(tas, courant + nbColonnes, nouveau);
+            if (c > 0) relacher(tas, courant - 1, nouveau);
+            if (c < nbColonnes - 1) relacher(tas, courant + 1, nouveau);
+        }
+    }
+
+    private void relacher(TasDistances tas, int voisin, double nouveau) {
+        if (nouveau < temps[voisin]) {
+            temps[voisin] = nouveau;
+            tas.inserer(voisin, nouveau);
+        }
+    }
+
+    /**
+     * Calcule le temps nécessaire au robot pour quitter une case de chaque type de terrain, indexé par
+     * l'ordinal du terrain (infini si sa vitesse y est nulle). La vitesse du robot est restaurée ensuite.
+     */
+    static double[] tempsDeSortie(Carte carte, Robot robot) {
+        double[] sortie = new double[NatureTerrain.values().length];
+        double vitesse = robot.getVitesse();
+        for (NatureTerrain nature : NatureTerrain.values()) {
+            robot.setVitesseSur(nature);
+            sortie[nature.ordinal()] = robot.getVitesse() == 0 ? Double.POSITIVE_INFINITY
+                    : carte.getTailleCases() / (1000 * robot.getVitesse()) * 3600;
+        }
+        robot.setVitesse(vitesse);
+        return sortie;
+    }
+
+    /**
+     * Retourne le temps de trajet vers une case.
+     *
+     * @param destination La case de destination.
+     * @return Le temps de trajet, ou {@link Double#MAX_VALUE} si le robot ne peut pas s'y rendre.
+     */
+    public double getTemps(Case destination) {
+        if (!robot.peutSeDeplacerSur(destination.getNature())) {
+            return Double.MAX_VALUE;
+        }
+        double t = temps[destination.getLigne() * carte.getNbColonnes() + destination.getColonne()];
+        return Double.isInfinite(t) ? Double.MAX_VALUE : t;
+    }
+
+    /**
+     * Retourne la case où le robot se remplit à la source d'eau la plus proche : la case d'eau elle-même pour
+     * les robots qui se remplissent dessus (drones et robots à pattes), une case voisine accessible pour les
+     * autres. À temps égal, la première case rencontrée est retenue, comme dans le choix de l'eau de la stratégie.
+     *
+     * @param casesEau Les cases d'eau de la carte.
+     * @return La case de la carte, ou null si aucune eau n'est accessible.
+     */
+    public Case getCaseEau(List<Case> casesEau) {
+        boolean surEau = robot.getType().equals("Drone") || robot.getType().equals("RobotAPattes");
+        double min = Double.MAX_VALUE;
+        Case plusProche = null;
+        for (Case eau : casesEau) {
+            Case caseEau = carte.getCase(eau.getLigne(), eau.getColonne());
+            if (surEau) {
+                if (getTemps(caseEau) < min) {
+                    min = getTemps(caseEau);
+                    plusProche = caseEau;
+                }
+            } else {
+                for (Direction direction : Direction.values()) {
+                    if (carte.voisinExiste(caseEau, direction)) {
+                        Case voisin = carte.getVoisin(caseEau, direction);
+                        if (getTemps(voisin) < min) {
+                            min = getTemps(voisin);
+                            plusProche = voisin;
+                        }
+                    }
+                }
+            }
+        }
+        return plusProche;
+    }
+
+    /**
+     * Retourne le temps de trajet vers la source d'eau la plus proche, choisie par {@link #getCaseEau}.
+     *
+     * @param casesEau Les cases d'eau de la carte.
+     * @return Le temps de trajet, ou {@link Double#MAX_VALUE} si aucune eau n'est accessible.
+     */
+    public double getTempsEau(List<Case> casesEau) {
+        Case eau = getCaseEau(casesEau);
+        return eau == null ? Double.MAX_VALUE : getTemps(eau);
+    }
+}
@@ -0,0 +1,580 @@
+package robot;
+import carte.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Chronologie des tâches planifiées d'un robot : remplissages et interventions, chacune occupant le robot sur
+ * une case pendant un intervalle de dates. Entre deux tâches, le robot est libre ; il doit seulement avoir
+ * le temps d'aller du lieu de l'une au lieu de la suivante. Les tâches ne sont donc plus seulement ajoutées
+ * à la fin du plan : une tâche courte peut occuper un temps mort entre deux tâches déjà planifiées.
+ *
+ * <p>Les tâches sont rangées par date de début dans un arbre (à date égale, ce qui n'arrive qu'après des tâches
+ * de durée nulle, par ordre d'ajout) ; les temps morts entre deux tâches consécutives sont en outre rangés
+ * par date de début dans des seaux selon leur durée (de 2^(k-1) à 2^k - 1 pour le seau k).
+ * La recherche du premier temps mort assez long après une date consulte ainsi chaque seau en O(log n), au lieu
+ * de parcourir toute la chronologie ; seul le seau de la durée demandée, dont les temps morts ne sont pas tous
+ * assez longs, est parcouru jusqu'au meilleur candidat des seaux supérieurs.</p>
+ *
+ * <p>Les temps de trajet entre deux cases sont fournis par l'appelant (par exemple lus dans un
+ * {@link CacheCouts}), en secondes entières comme dans le simulateur, {@link Long#MAX_VALUE} désignant un
+ * trajet impossible. Le niveau du réservoir est suivi le long de la chronologie : une intervention n'est
+ * acceptée que si le robot a alors assez d'eau, et une insertion ne doit pas en priver les tâches suivantes.</p>
+ */
+public final class ChronologieRobot {
+
+    private static final int NB_SEAUX = 65;
+
+    private static final Comparator<Tache> PAR_DEBUT =
+        Comparator.<Tache>comparingLong(t -> t.debut).thenComparingLong(t -> t.rang);
+    // À fin égale, l'ordre reste celui de la chronologie (tâches de durée nulle)
+    private static final Comparator<Tache> PAR_FIN =
+        Comparator.<Tache>comparingLong(Tache::getFin).thenComparing(PAR_DEBUT);
+
+    private final Robot robot;
+    private final Tache origine;                                   // Position et réservoir au début de la chronologie
+    private final TreeSet<Tache> taches = new TreeSet<>(PAR_DEBUT);
+    private final List<TreeSet<Tache>> seaux = new ArrayList<>();  // Tâches suivies d'un temps mort, par fin
+    private long nbAjouts;
+
+    /**
+     * Tâche d'un robot : remplissage ou intervention sur une case.
+     */
+    public static final class Tache {
+        private final Case lieu;
+        private final long duree;
+        private final int volume;
+        private final boolean remplissage;
+        private final Incendie incendie;
+        private long debut;
+        private long rang;   // Ordre d'ajout, qui départage les tâches commençant à la même date
+        private int reservoirApres;
+
+        /**
+         * Constructeur d'une tâche de remplissage.
+         *
+         * @param lieu   La case où le robot se remplit.
+         * @param duree  La durée du remplissage.
+         * @param volume Le volume demandé, comme pour {@link Remplissage}.
+         */
+        public Tache(Case lieu, long duree, int volume) {
+            this(lieu, duree, volume, true, null);
+        }
+
+        /**
+         * Constructeur d'une tâche d'intervention.
+         *
+         * @param incendie L'incendie.
+         * @param lieu     La case de l'incendie.
+         * @param duree    La durée de l'intervention.
+         * @param volume   Le volume d'eau déversé.
+         */
+        public Tache(Incendie incendie, Case lieu, long duree, int volume) {
+            this(lieu, duree, volume, false, incendie);
+        }
+
+        private Tache(Case lieu, long duree, int volume, boolean remplissage, Incendie incendie) {
+            if (duree < 0 || volume < 0) {
+                throw new IllegalArgumentException("La durée et le volume d'une tâche doivent être positifs.");
+            }
+            this.lieu = lieu;
+            this.duree = duree;
+            this.volume = volume;
+            this.remplissage = remplissage;
+            this.incendie = incendie;
+        }
+
+        /**
+         * @return La case où la tâche a lieu.
+         */
+        public Case getLieu() {
+            return lieu;
+        }
+
+        /**
+         * @return La date de début de la tâche, une fois planifiée.
+         */
+        public long getDebut() {
+            return debut;
+        }
+
+        /**
+         * @return La date de fin de la tâche, une fois planifiée.
+         */
+        public long getFin() {
+            return debut + duree;
+        }
+
+        /**
+         * @return La durée de la tâche.
+         */
+        public long getDuree() {
+            return duree;
+        }
+
+        /**
+         * @return Le volume rempli ou déversé.
+         */
+        public int getVolume() {
+            return volume;
+        }
+
+        /**
+         * @return Vrai pour un remplissage, faux pour une intervention.
+         */
+        public boolean estRemplissage() {
+            return remplissage;
+        }
+
+        /**
+         * @return L'incendie d'une intervention, ou null pour un remplissage.
+         */
+        public Incendie getIncendie() {
+            return incendie;
+        }
+
+        /**
+         * @return Le niveau du réservoir à la fin de la tâche.
+         */
+        public int getReservoirApres() {
+            return reservoirApres;
+        }
+
+        private int reservoirApres(Robot robot, int reservoirAvant) {
+            return remplissage ? (int) Math.min(robot.getCapaciteMaxReservoir(), (long) reservoirAvant + volume)
+                               : reservoirAvant - volume;
+        }
+    }
+
+    /**
+     * Constructeur d'une chronologie vide.
+     *
+     * @param robot     Le robot.
+     * @param position  La position du robot au début de la chronologie.
+     * @param date      La date du début de la chronologie.
+     * @param reservoir Le niveau du réservoir au début de la chronologie.
+     */
+    public ChronologieRobot(Robot robot, Case position, long date, int reservoir) {
+        this.robot = robot;
+        this.origine = new Tache(position, 0, 0, true, null);
+        this.origine.debut = date;
+        this.origine.reservoirApres = reservoir;
+        for (int k = 0; k < NB_SEAUX; k++) {
+            seaux.add(new TreeSet<>(PAR_FIN));
+        }
+    }
+
+    /**
+     * @return Le robot de la chronologie.
+     */
+    public Robot getRobot() {
+        return robot;
+    }
+
+    /**
+     * @return Les tâches planifiées, par date de début.
+     */
+    public List<Tache> getTaches() {
+        return Collections.unmodifiableList(new ArrayList<>(taches));
+    }
+
+    /**
+     * @return Le nombre de tâches planifiées.
+     */
+    public int getNbTaches() {
+        return taches.size();
+    }
+
+    /**
+     * @return La date à laquelle le robot a terminé toutes ses tâches.
+     */
+    public long getFin() {
+        return derniere().getFin();
+    }
+
+    /**
+     * @return La case où se trouve le robot à la fin de toutes ses tâches.
+     */
+    public Case getPositionFinale() {
+        return derniere().lieu;
+    }
+
+    /**
+     * @return Le niveau du réservoir à la fin de toutes les tâches.
+     */
+    public int getReservoirFinal() {
+        return derniere().reservoirApres;
+    }
+
+    /**
+     * Retourne la tâche en cours ou la dernière tâche terminée à une date.
+     *
+     * @param date La date.
+     * @return La tâche commencée au plus tard à cette date, ou null s'il n'y en a pas.
+     */
+    public Tache tacheA(long date) {
+        return taches.floor(sonde(date, Long.MAX_VALUE));
+    }
+
+    /**
+     * Ajoute une tâche à la fin de la chronologie, à une date déjà calculée par l'appelant (trajet compris).
+     *
+     * @param tache La tâche, qui ne doit pas déjà être planifiée.
+     * @param debut La date de début, au plus tôt à la fin de la dernière tâche.
+     */
+    public void ajouter(Tache tache, long debut) {
+        Tache derniere = derniere();
+        if (debut < derniere.getFin()) {
+            throw new IllegalArgumentException("La tâche commence avant la fin de la dernière tâche du robot.");
+        }
+        tache.debut = debut;
+        tache.rang = nbAjouts++;
+        tache.reservoirApres = tache.reservoirApres(robot, derniere.reservoirApres);
+        if (derniere != origine) {
+            ajouterTempsMort(derniere, debut);
+        }
+        taches.add(tache);
+    }
+
+    /**
+     * Cherche la date au plus tôt à laquelle le robot peut commencer une tâche sans déplacer les autres :
+     * dans le premier temps mort où le trajet depuis la tâche précédente, la tâche et le trajet vers la suivante
+     * tiennent, et où l'eau suffit à la tâche et à celles qui suivent ; à défaut, après la dernière tâche.
+     *
+     * @param tache    La tâche à placer.
+     * @param auPlusTot La date avant laquelle la tâche ne peut pas commencer.
+     * @param trajet   Le temps de trajet entre deux cases.
+     * @return La date de début, ou -1 si le robot ne peut pas faire la tâche.
+     */
+    public long premierCreneau(Tache tache, long auPlusTot, ToLongBiFunction<Case, Case> trajet) {
+        // Les tâches commencées avant la date au plus tôt ne laissent de place qu'après elles
+        Tache precedente = tacheA(auPlusTot);
+        Tache depuis = precedente == null ? origine : precedente;
+        boolean inclusif = true;
+        while (true) {
+            Tache avant = premierTempsMort(depuis, inclusif, tache.duree);
+            if (avant == null) {
+                break;
+            }
+            long debut = debutDansTempsMort(tache, avant, suivante(avant), auPlusTot, trajet);
+            if (debut >= 0) {
+                return debut;
+            }
+            depuis = avant;
+            inclusif = false;
+        }
+        // Après la dernière tâche, seul le trajet depuis celle-ci compte
+        Tache derniere = derniere();
+        long acces = trajet.applyAsLong(derniere.lieu, tache.lieu);
+        if (acces == Long.MAX_VALUE || !eauSuffisante(tache, derniere)) {
+            return -1;
+        }
+        return Math.max(auPlusTot, derniere.getFin() + acces);
+    }
+
+    /**
+     * Insère une tâche à une date, après avoir vérifié qu'elle tient entre la tâche précédente et la suivante
+     * (trajets compris) et que l'eau suffit encore aux tâches suivantes.
+     *
+     * @param tache  La tâche, qui ne doit pas déjà être planifiée.
+     * @param debut  La date de début, par exemple donnée par {@link #premierCreneau}.
+     * @param trajet Le temps de trajet entre deux cases.
+     * @return Vrai si la tâche a été insérée, faux si elle ne tient pas à cette date.
+     */
+    public boolean inserer(Tache tache, long debut, ToLongBiFunction<Case, Case> trajet) {
+        // La tâche se place après toutes celles qui commencent au plus tard à sa date
+        Tache avant = tacheA(debut);
+        if (avant == null) {
+            avant = origine;
+        }
+        Tache apres = suivante(avant);
+        if (debut < avant.getFin() || !eauSuffisante(tache, avant)) {
+            return false;
+        }
+        long acces = trajet.applyAsLong(avant.lieu, tache.lieu);
+        if (acces == Long.MAX_VALUE || avant.getFin() + acces > debut) {
+            return false;
+        }
+        if (apres != null) {
+            long depart = trajet.applyAsLong(tache.lieu, apres.lieu);
+            if (depart == Long.MAX_VALUE || debut + tache.duree + depart > apres.debut) {
+                return false;
+            }
+        }
+
+        tache.debut = debut;
+        tache.rang = nbAjouts++;
+        tache.reservoirApres = tache.reservoirApres(robot, avant.reservoirApres);
+        if (avant != origine && apres != null) {
+            retirerTempsMort(avant, apres.debut);
+        }
+        if (avant != origine) {
+            ajouterTempsMort(avant, debut);
+        }
+        if (apres != null) {
+            ajouterTempsMort(tache, apres.debut);
+        }
+        taches.add(tache);
+        propagerReservoir(tache);
+        return true;
+    }
+
+    /**
+     * Retire une tâche de la chronologie. Les tâches suivantes gardent leurs dates ; le niveau du réservoir
+     * est recalculé, et peut rendre insuffisante l'eau d'interventions suivantes si la tâche était un remplissage.
+     *
+     * @param tache La tâche à retirer.
+     * @return Vrai si la tâche faisait partie de la chronologie.
+     */
+    public boolean retirer(Tache tache) {
+        if (taches.ceiling(tache) != tache) {
+            return false;
+        }
+        Tache avant = taches.lower(tache);
+        if (avant == null) {
+            avant = origine;
+        }
+        Tache apres = suivante(tache);
+        taches.remove(tache);
+        if (avant != origine) {
+            retirerTempsMort(avant, tache.debut);
+        }
+        if (apres != null) {
+            retirerTempsMort(tache, apres.debut);
+            if (avant != origine) {
+                ajouterTempsMort(avant, apres.debut);
+            }
+            propagerReservoir(avant);
+        }
+        return true;
+    }
+
+    /**
+     * Retarde une tâche et toutes celles qui la suivent, par exemple pour faire place à une tâche insérée avant
+     * elle. Les temps morts entre ces tâches ne changent pas ; celui qui précède la tâche s'allonge.
+     *
+     * @param depuis La première tâche retardée.
+     * @param retard Le retard, positif.
+     */
+    public void decaler(Tache depuis, long retard) {
+        if (retard < 0) {
+            throw new IllegalArgumentException("Le retard doit être positif.");
+        }
+        if (retard == 0) {
+            return;
+        }
+        Tache avant = precedente(depuis);
+        List<Tache> decalees = new ArrayList<>(taches.tailSet(depuis, true));
+        if (avant != origine) {
+            retirerTempsMort(avant, depuis.debut);
+        }
+        for (int i = 0; i + 1 < decalees.size(); i++) {
+            retirerTempsMort(decalees.get(i), decalees.get(i + 1).debut);
+        }
+        taches.removeAll(decalees);
+        for (Tache tache : decalees) {
+            tache.debut += retard;
+            taches.add(tache);
+        }
+        if (avant != origine) {
+            ajouterTempsMort(avant, depuis.debut);
+        }
+        for (int i = 0; i + 1 < decalees.size(); i++) {
+            ajouterTempsMort(decalees.get(i), decalees.get(i + 1).debut);
+        }
+    }
+
+    /**
+     * Retire toutes les tâches commencées à partir d'une date, par exemple avant une nouvelle planification.
+     *
+     * @param date La date.
+     * @return Les tâches retirées, par date de début.
+     */
+    public List<Tache> retirerApres(long date) {
+        List<Tache> retirees = new ArrayList<>(taches.tailSet(sonde(date, Long.MIN_VALUE), true));
+        for (int i = retirees.size() - 1; i >= 0; i--) {
+            retirer(retirees.get(i));
+        }
+        return retirees;
+    }
+
+    /**
+     * Calcule la date au plus tôt d'une tâche dans le temps mort entre deux tâches, ou -1 si elle n'y tient pas.
+     */
+    private long debutDansTempsMort(Tache tache, Tache avant, Tache apres, long auPlusTot,
+                                    ToLongBiFunction<Case, Case> trajet) {
+        if (!eauSuffisante(tache, avant)) {
+            return -1;
+        }
+        long acces = trajet.applyAsLong(avant.lieu, tache.lieu);
+        long depart = trajet.applyAsLong(tache.lieu, apres.lieu);
+        if (acces == Long.MAX_VALUE || depart == Long.MAX_VALUE) {
+            return -1;
+        }
+        long debut = Math.max(auPlusTot, avant.getFin() + acces);
+        // Une tâche insérée à la date de début de la suivante se placerait après elle
+        return debut < apres.debut && debut + tache.duree + depart <= apres.debut ? debut : -1;
+    }
+
+    /**
+     * Vérifie que l'eau suffit à une tâche placée après une autre, puis aux tâches qui suivent celle-ci,
+     * jusqu'à ce que le niveau du réservoir redevienne celui d'avant l'insertion.
+     *
+     * @param tache La tâche à placer.
+     * @param avant La tâche après laquelle elle serait placée (ou la tâche fictive de {@link #precedente}).
+     * @return Vrai si le robot a assez d'eau pour la tâche et pour toutes les suivantes.
+     */
+    public boolean eauSuffisante(Tache tache, Tache avant) {
+        int niveau = tache.reservoirApres(robot, avant.reservoirApres);
+        if (niveau < 0) {
+            return false;
+        }
+        Tache suivante = suivante(avant);
+        while (suivante != null) {
+            int prevu = suivante.reservoirApres;
+            niveau = suivante.reservoirApres(robot, niveau);
+            if (niveau < 0) {
+                return false;
+            }
+            if (niveau == prevu) {
+                return true;
+            }
+            suivante = suivante(suivante);
+        }
+        return true;
+    }
+
+    /**
+     * Recalcule le niveau du réservoir des tâches qui suivent une tâche, tant qu'il change.
+     */
+    private void propagerReservoir(Tache depuis) {
+        int niveau = depuis.reservoirApres;
+        Tache suivante = suivante(depuis);
+        while (suivante != null) {
+            int nouveau = suivante.reservoirApres(robot, niveau);
+            if (nouveau == suivante.reservoirApres) {
+                return;
+            }
+            suivante.reservoirApres = nouveau;
+            niveau = nouveau;
+            suivante = suivante(suivante);
+        }
+    }
+
+    /**
+     * Retourne la première tâche dont le robot peut encore quitter le lieu après une date : la première qui finit
+     * au plus tôt à cette date, ou la tâche fictive de {@link #precedente} si la chronologie commence à partir
+     * de cette date. Si la date est celle de la simulation, les déplacements prévus après cette tâche n'ont
+     * pas commencé.
+     *
+     * @param date La date.
+     * @return La tâche, ou null si toutes les tâches finissent avant la date.
+     */
+    public Tache premiereTacheFinissantApres(long date) {
+        if (origine.getFin() >= date) {
+            return origine;
+        }
+        // Les tâches commencées avant la date ne se chevauchent pas : seule la dernière peut finir après
+        Tache enCours = tacheA(date);
+        if (enCours != null && enCours.getFin() >= date) {
+            return enCours;
+        }
+        return suivante(enCours == null ? origine : enCours);
+    }
+
+    /**
+     * Retourne la tâche qui précède une tâche planifiée. Avant la première tâche, le résultat est une tâche
+     * fictive de durée nulle, à la position, à la date et au réservoir du début de la chronologie.
+     *
+     * @param tache La tâche.
+     * @return La tâche précédente.
+     */
+    public Tache precedente(Tache tache) {
+        Tache avant = taches.lower(tache);
+        return avant == null ? origine : avant;
+    }
+
+    /**
+     * Retourne la tâche qui suit une tâche planifiée (ou la tâche fictive de {@link #precedente}).
+     *
+     * @param tache La tâche.
+     * @return La tâche suivante, ou null si c'est la dernière.
+     */
+    public Tache suivante(Tache tache) {
+        if (tache == origine) {
+            return taches.isEmpty() ? null : taches.first();
+        }
+        return taches.higher(tache);
+    }
+
+    private Tache derniere() {
+        return taches.isEmpty() ? origine : taches.last();
+    }
+
+    /**
+     * Crée une tâche fictive, qui ne sert qu'à chercher dans les arbres.
+     */
+    private static Tache sonde(long date, long rang) {
+        Tache sonde = new Tache(null, 0, 0, true, null);
+        sonde.debut = date;
+        sonde.rang = rang;
+        return sonde;
+    }
+
+    /**
+     * Retourne la tâche suivie du premier temps mort d'au moins une durée, parmi les tâches qui finissent
+     * après une tâche donnée (ou avec elle si {@code inclusif}), ou null s'il n'y en a pas. Le temps mort avant
+     * la première tâche n'est pas rangé dans les seaux : il est examiné à part.
+     */
+    private Tache premierTempsMort(Tache depuis, boolean inclusif, long duree) {
+        if (depuis == origine) {
+            if (inclusif && !taches.isEmpty() && taches.first().debut - origine.getFin() >= duree) {
+                return origine;
+            }
+            depuis = sonde(origine.getFin(), Long.MIN_VALUE);
+            inclusif = true;
+        }
+        Tache meilleur = null;
+        int seauLimite = seau(duree);
+        // Les seaux supérieurs ne contiennent que des temps morts assez longs : le premier de chacun suffit
+        for (int k = seauLimite + 1; k < NB_SEAUX; k++) {
+            Tache candidat = inclusif ? seaux.get(k).ceiling(depuis) : seaux.get(k).higher(depuis);
+            if (candidat != null && (meilleur == null || PAR_FIN.compare(candidat, meilleur) < 0)) {
+                meilleur = candidat;
+            }
+        }
+        // Dans le seau de la durée demandée, seuls les temps morts antérieurs au meilleur candidat sont examinés
+        for (Tache candidat : seaux.get(seauLimite).tailSet(depuis, inclusif)) {
+            if (meilleur != null && PAR_FIN.compare(candidat, meilleur) >= 0) {
+                break;
+            }
+            if (tempsMort(candidat) >= duree) {
+                return candidat;
+            }
+        }
+        return meilleur;
+    }
+
+    private long tempsMort(Tache avant) {
+        return taches.higher(avant).debut - avant.getFin();
+    }
+
+    private void ajouterTempsMort(Tache avant, long debutSuivante) {
+        seaux.get(seau(debutSuivante - avant.getFin())).add(avant);
+    }
+
+    private void retirerTempsMort(Tache avant, long debutSuivante) {
+        seaux.get(seau(debutSuivante - avant.getFin())).remove(avant);
+    }
+
+    /**
+     * Retourne le seau d'une durée : 0 pour une durée nulle, k pour une durée de 2^(k-1) à 2^k - 1.
+     */
+    private static int seau(long duree) {
+        return 64 - Long.numberOfLeadingZeros(duree);
+    }
+}
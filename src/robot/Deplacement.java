@@ -36,6 +36,24 @@ public class Deplacement extends Evenement
         robot.deplacer(direction, carte);
     }
 
+    /**
+     * Récupère le robot qui se déplace.
+     *
+     * @return Le robot concerné par le déplacement
+     */
+    public Robot getRobot() {
+        return robot;
+    }
+
+    /**
+     * Récupère la direction du déplacement.
+     *
+     * @return La direction du déplacement
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
     /**
      * Redéfinition de la méthode toString pour une description textuelle de l'événement.
      * 
@@ -38,14 +38,15 @@ public class Drone extends Robot {
         else this.vitesse=vitesse;
     }
     /**
-     * Méthode pour définir la vitesse du drone en fonction du terrain.
+     * Méthode pour obtenir la vitesse du drone en fonction du terrain.
      * Ici, le drone n'est pas affecté par le type de terrain, donc il conserve sa vitesse de base.
      * 
      * @param terrain Le type de terrain (pas d'impact pour le drone).
+     * @return La vitesse de base du drone en km/h.
      */
     @Override
-    public void setVitesseSur(NatureTerrain terrain){
-        vitesse= vitesseBase;
+    public double getVitesseSur(NatureTerrain terrain){
+        return vitesseBase;
     }
     /**
      * Méthode pour définir la vitesse de base du drone.
@@ -53,6 +54,7 @@ public class Drone extends Robot {
      * 
      * @param vitesse La vitesse de base en km/h.
      */
+    @Override
     public void setVitesseBase(double vitesse){
         if (vitesse>150) throw new IllegalArgumentException("la vitesse du drone est superieure a 150km");
         else {this.vitesseBase=vitesse;
@@ -88,4 +90,14 @@ public class Drone extends Robot {
     public String getType(){
         return "Drone";
     }
+
+    /**
+     * Crée une copie indépendante du robot, à la même position.
+     * 
+     * @return La copie du robot.
+     */
+    @Override
+    public Robot copie() {
+        return copierEtat(new Drone(getPosition()));
+    }
 }
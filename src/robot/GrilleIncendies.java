@@ -0,0 +1,156 @@
+package robot;
+import carte.*;
+import java.util.List;
+
+/**
+ * Grille uniforme des positions des incendies, pour la recherche du plus proche voisin avec suppression.
+ * Les incendies sont rangés par cellule de la grille ; une recherche parcourt les cellules en anneaux
+ * concentriques autour de la position de départ et s'arrête dès qu'aucune cellule plus éloignée ne peut
+ * contenir d'incendie plus proche. La distance est le carré de la distance euclidienne entre cases ;
+ * à distance égale, l'incendie de plus petit indice est retenu.
+ */
+final class GrilleIncendies {
+
+    private final int[] ligne;
+    private final int[] colonne;
+    private final boolean[] supprime;
+    private int nbRestants;
+
+    private final int ligneMin;
+    private final int colonneMin;
+    private final int taille;        // Côté d'une cellule, en cases
+    private final int nbLignes;      // Nombre de cellules par colonne de la grille
+    private final int nbColonnes;    // Nombre de cellules par ligne de la grille
+    private final int[] debut;       // Début des incendies de chaque cellule dans contenu
+    private final int[] contenu;     // Indices des incendies, regroupés par cellule et croissants dans chaque cellule
+    private final int[] restants;    // Nombre d'incendies non supprimés par cellule
+
+    /**
+     * Construit la grille des incendies donnés, en moyenne deux incendies par cellule.
+     *
+     * @param incendies Les incendies, désignés ensuite par leur indice dans cette liste.
+     */
+    GrilleIncendies(List<Incendie> incendies) {
+        int n = incendies.size();
+        this.ligne = new int[n];
+        this.colonne = new int[n];
+        this.supprime = new boolean[n];
+        this.nbRestants = n;
+        int lMin = Integer.MAX_VALUE, lMax = Integer.MIN_VALUE, cMin = Integer.MAX_VALUE, cMax = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            ligne[i] = incendies.get(i).getPosition().getLigne();
+            colonne[i] = incendies.get(i).getPosition().getColonne();
+            lMin = Math.min(lMin, ligne[i]);
+            lMax = Math.max(lMax, ligne[i]);
+            cMin = Math.min(cMin, colonne[i]);
+            cMax = Math.max(cMax, colonne[i]);
+        }
+        if (n == 0) {
+            lMin = lMax = cMin = cMax = 0;
+        }
+        this.ligneMin = lMin;
+        this.colonneMin = cMin;
+        long surface = (long) (lMax - lMin + 1) * (cMax - cMin + 1);
+        this.taille = Math.max(1, (int) Math.ceil(Math.sqrt(2.0 * surface / Math.max(1, n))));
+        this.nbLignes = (lMax - lMin) / taille + 1;
+        this.nbColonnes = (cMax - cMin) / taille + 1;
+
+        // Rangement des incendies par cellule (tri par dénombrement, qui conserve l'ordre des indices)
+        int nbCellules = nbLignes * nbColonnes;
+        this.debut = new int[nbCellules + 1];
+        this.restants = new int[nbCellules];
+        for (int i = 0; i < n; i++) {
+            restants[cellule(ligne[i], colonne[i])]++;
+        }
+        for (int c = 0; c < nbCellules; c++) {
+            debut[c + 1] = debut[c] + restants[c];
+        }
+        this.contenu = new int[n];
+        int[] position = debut.clone();
+        for (int i = 0; i < n; i++) {
+            contenu[position[cellule(ligne[i], colonne[i])]++] = i;
+        }
+    }
+
+    private int cellule(int l, int c) {
+        return ((l - ligneMin) / taille) * nbColonnes + (c - colonneMin) / taille;
+    }
+
+    /**
+     * @return Le nombre d'incendies non supprimés.
+     */
+    int getNbRestants() {
+        return nbRestants;
+    }
+
+    /**
+     * Supprime un incendie de la grille.
+     *
+     * @param i L'indice de l'incendie.
+     */
+    void supprimer(int i) {
+        if (!supprime[i]) {
+            supprime[i] = true;
+            restants[cellule(ligne[i], colonne[i])]--;
+            nbRestants--;
+        }
+    }
+
+    /**
+     * Cherche l'incendie non supprimé le plus proche d'une case.
+     *
+     * @param l La ligne de la case.
+     * @param c La colonne de la case.
+     * @return L'indice de l'incendie le plus proche, ou -1 s'il n'en reste aucun.
+     */
+    int plusProche(int l, int c) {
+        if (nbRestants == 0) {
+            return -1;
+        }
+        // Cellule de départ, éventuellement hors de la grille
+        int cl = Math.floorDiv(l - ligneMin, taille);
+        int cc = Math.floorDiv(c - colonneMin, taille);
+        int meilleur = -1;
+        long meilleureDistance = Long.MAX_VALUE;
+        int rayonMax = Math.max(Math.max(cl, nbLignes - 1 - cl), Math.max(cc, nbColonnes - 1 - cc));
+        for (int k = 0; k <= rayonMax; k++) {
+            // Distance minimale, sur un axe, d'une case de l'anneau k à la case de départ
+            if (k > 0) {
+                long borne = (long) (k - 1) * taille + 1;
+                if (borne * borne > meilleureDistance) {
+                    break;
+                }
+            }
+            for (int gl = cl - k; gl <= cl + k; gl++) {
+                if (gl < 0 || gl >= nbLignes) {
+                    continue;
+                }
+                boolean bord = gl == cl - k || gl == cl + k;
+                int pas = bord ? 1 : Math.max(1, 2 * k);
+                for (int gc = cc - k; gc <= cc + k; gc += pas) {
+                    if (gc < 0 || gc >= nbColonnes) {
+                        continue;
+                    }
+                    int cellule = gl * nbColonnes + gc;
+                    if (restants[cellule] == 0) {
+                        continue;
+                    }
+                    for (int p = debut[cellule]; p < debut[cellule + 1]; p++) {
+                        int i = contenu[p];
+                        if (supprime[i]) {
+                            continue;
+                        }
+                        long dl = ligne[i] - l;
+                        long dc = colonne[i] - c;
+                        long d = dl * dl + dc * dc;
+                        if (d < meilleureDistance || (d == meilleureDistance && i < meilleur)) {
+                            meilleureDistance = d;
+                            meilleur = i;
+                        }
+                    }
+                }
+            }
+        }
+        return meilleur;
+    }
+}
@@ -0,0 +1,104 @@
+package robot;
+import java.util.Arrays;
+
+/**
+ * Algorithme hongrois : affectation de coût total minimal entre les lignes et les colonnes
+ * d'une matrice de coûts rectangulaire, en O(n² m) pour n lignes et m colonnes (n ≤ m).
+ * Si la matrice a plus de lignes que de colonnes, elle est transposée : certaines lignes restent alors
+ * sans affectation.
+ */
+final class Hongrois {
+
+    private Hongrois() {
+    }
+
+    /**
+     * Calcule une affectation de coût total minimal.
+     *
+     * @param couts La matrice des coûts, rectangulaire et à valeurs finies.
+     * @return Pour chaque ligne, l'indice de la colonne affectée, ou -1 si la ligne n'est pas affectée.
+     */
+    static int[] affecter(double[][] couts) {
+        int n = couts.length;
+        int m = n == 0 ? 0 : couts[0].length;
+        if (n == 0 || m == 0) {
+            int[] vide = new int[n];
+            Arrays.fill(vide, -1);
+            return vide;
+        }
+        if (n <= m) {
+            return resoudre(couts, n, m, false);
+        }
+        // Plus de lignes que de colonnes : on affecte les colonnes aux lignes
+        int[] colonnes = resoudre(couts, m, n, true);
+        int[] lignes = new int[n];
+        Arrays.fill(lignes, -1);
+        for (int j = 0; j < m; j++) {
+            lignes[colonnes[j]] = j;
+        }
+        return lignes;
+    }
+
+    /**
+     * Résout le problème pour n ≤ m par la méthode des potentiels. Les indices internes commencent à 1,
+     * l'indice 0 servant de sommet fictif.
+     */
+    private static int[] resoudre(double[][] couts, int n, int m, boolean transpose) {
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] ligneDeColonne = new int[m + 1]; // Ligne affectée à chaque colonne (0 si aucune)
+        int[] precedent = new int[m + 1];
+        double[] minimum = new double[m + 1];
+        boolean[] visitee = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            ligneDeColonne[0] = i;
+            int j0 = 0;
+            Arrays.fill(minimum, Double.POSITIVE_INFINITY);
+            Arrays.fill(visitee, false);
+            // Recherche d'un chemin augmentant depuis la ligne i
+            do {
+                visitee[j0] = true;
+                int i0 = ligneDeColonne[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= m; j++) {
+                    if (!visitee[j]) {
+                        double c = (transpose ? couts[j - 1][i0 - 1] : couts[i0 - 1][j - 1]) - u[i0] - v[j];
+                        if (c < minimum[j]) {
+                            minimum[j] = c;
+                            precedent[j] = j0;
+                        }
+                        if (minimum[j] < delta) {
+                            delta = minimum[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (visitee[j]) {
+                        u[ligneDeColonne[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minimum[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (ligneDeColonne[j0] != 0);
+            // Inversion du chemin augmentant
+            do {
+                int j1 = precedent[j0];
+                ligneDeColonne[j0] = ligneDeColonne[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] affectation = new int[n];
+        for (int j = 1; j <= m; j++) {
+            if (ligneDeColonne[j] != 0) {
+                affectation[ligneDeColonne[j] - 1] = j - 1;
+            }
+        }
+        return affectation;
+    }
+}
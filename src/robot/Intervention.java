@@ -34,4 +34,22 @@ public class Intervention extends Evenement
         robot.deverserEau(vol);
         incendie.eteindre(Math.min(reservoirEau,vol));
     }
-}
\ No newline at end of file
+
+    /**
+     * Récupère le robot qui effectue l'intervention.
+     *
+     * @return Le robot concerné.
+     */
+    public Robot getRobot() {
+        return robot;
+    }
+
+    /**
+     * Récupère l'incendie visé par l'intervention.
+     *
+     * @return L'incendie concerné.
+     */
+    public Incendie getIncendie() {
+        return incendie;
+    }
+}
@@ -0,0 +1,175 @@
+package robot;
+import carte.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import simulateur.*;
+
+/**
+ * Temps de trajet précalculés entre les robots, une liste d'incendies et l'eau, pour évaluer des plans sans
+ * recherche de chemin. Tous les temps sont lus sur des champs de distances : un champ par modèle de robot et
+ * par incendie, un par robot depuis sa position de départ, et un par case d'eau retenue comme eau la plus
+ * proche d'une de ces positions. Un modèle regroupe les robots de même type et de même vitesse de base, qui
+ * ont les mêmes temps de trajet, comme les clés de {@link CacheCouts}.
+ *
+ * <p>Les positions d'origine sont désignées par l'indice d'un incendie, ou par -1 pour la position de départ
+ * du robot. L'eau la plus proche d'une origine est la case choisie par {@link ChampDistance#getCaseEau},
+ * c'est-à-dire celle que {@link Strategie#plusProche} retiendrait.</p>
+ */
+final class ModeleTrajets {
+
+    private final int[] modeleRobot;              // Indice du modèle de chaque robot
+    private final double[][][] trajet;             // trajet[modèle][i][j] : temps de l'incendie i à l'incendie j
+    private final double[][] eauFeu;              // eauFeu[modèle][i] : temps de l'incendie i à son eau la plus proche
+    private final Case[][] caseEauFeu;            // caseEauFeu[modèle][i] : eau la plus proche de l'incendie i
+    private final double[][][] eauVersFeu;         // eauVersFeu[modèle][i][j] : temps de l'eau la plus proche de i à j
+    private final double[][] trajetDepart;        // trajetDepart[robot][j] : temps du départ du robot à l'incendie j
+    private final double[] eauDepart;             // eauDepart[robot] : temps du départ du robot à son eau la plus proche
+    private final Case[] caseEauDepart;           // caseEauDepart[robot] : eau la plus proche du départ du robot
+    private final double[][] eauDepartVersFeu;    // eauDepartVersFeu[robot][j] : temps de cette eau à l'incendie j
+
+    /**
+     * Calcule tous les temps de trajet. Les temps de sortie de chaque terrain sont calculés sur le fil appelant,
+     * car ils modifient la vitesse des robots ; les champs de distances sont ensuite calculés en parallèle.
+     *
+     * @param donnes Les données de la simulation (carte et cases d'eau).
+     * @param robots Les robots, désignés ensuite par leur indice dans cette liste.
+     * @param feux   Les incendies, désignés ensuite par leur indice dans cette liste.
+     */
+    ModeleTrajets(DonneeSimulation donnes, List<Robot> robots, List<Incendie> feux) {
+        Carte carte = donnes.getCarte();
+        List<Case> casesEau = donnes.getCasesEau();
+        Map<List<Object>, Integer> indicesModeles = new HashMap<>();
+        List<Robot> modeles = new ArrayList<>();
+        modeleRobot = new int[robots.size()];
+        for (int r = 0; r < robots.size(); r++) {
+            Robot robot = robots.get(r);
+            List<Object> cle = List.of(robot.getType(), robot.getVitesseBase());
+            Integer modele = indicesModeles.get(cle);
+            if (modele == null) {
+                modele = modeles.size();
+                indicesModeles.put(cle, modele);
+                modeles.add(robot);
+            }
+            modeleRobot[r] = modele;
+        }
+        double[][] sortieModele = new double[modeles.size()][];
+        for (int t = 0; t < modeles.size(); t++) {
+            sortieModele[t] = ChampDistance.tempsDeSortie(carte, modeles.get(t));
+        }
+        Case[] positions = new Case[feux.size()];
+        for (int j = 0; j < feux.size(); j++) {
+            positions[j] = carte.getCase(feux.get(j).getPosition().getLigne(), feux.get(j).getPosition().getColonne());
+        }
+
+        // Champs depuis chaque incendie et depuis le départ de chaque robot, qui donnent aussi l'eau où
+        // le robot irait se remplir
+        int nbModeles = modeles.size();
+        int nbFeux = feux.size();
+        trajet = new double[nbModeles][nbFeux][nbFeux];
+        eauFeu = new double[nbModeles][nbFeux];
+        caseEauFeu = new Case[nbModeles][nbFeux];
+        IntStream.range(0, nbModeles * nbFeux).parallel().forEach(k -> {
+            int t = k / nbFeux;
+            int i = k % nbFeux;
+            ChampDistance champ = new ChampDistance(carte, modeles.get(t), sortieModele[t], positions[i]);
+            for (int j = 0; j < nbFeux; j++) {
+                trajet[t][i][j] = champ.getTemps(positions[j]);
+            }
+            caseEauFeu[t][i] = champ.getCaseEau(casesEau);
+            eauFeu[t][i] = caseEauFeu[t][i] == null ? Double.MAX_VALUE : champ.getTemps(caseEauFeu[t][i]);
+        });
+
+        trajetDepart = new double[robots.size()][nbFeux];
+        eauDepart = new double[robots.size()];
+        caseEauDepart = new Case[robots.size()];
+        IntStream.range(0, robots.size()).parallel().forEach(r -> {
+            int t = modeleRobot[r];
+            ChampDistance champ = new ChampDistance(carte, robots.get(r), sortieModele[t], robots.get(r).getPosition());
+            for (int j = 0; j < nbFeux; j++) {
+                trajetDepart[r][j] = champ.getTemps(positions[j]);
+            }
+            caseEauDepart[r] = champ.getCaseEau(casesEau);
+            eauDepart[r] = caseEauDepart[r] == null ? Double.MAX_VALUE : champ.getTemps(caseEauDepart[r]);
+        });
+
+        // Champs depuis chaque case d'eau retenue, pour le trajet de l'eau vers l'incendie suivant
+        List<Map<Case, double[]>> depuisEau = new ArrayList<>();
+        for (int t = 0; t < nbModeles; t++) {
+            depuisEau.add(new HashMap<>());
+            for (Case eau : caseEauFeu[t]) {
+                if (eau != null) {
+                    depuisEau.get(t).put(eau, null);
+                }
+            }
+        }
+        for (int r = 0; r < robots.size(); r++) {
+            if (caseEauDepart[r] != null) {
+                depuisEau.get(modeleRobot[r]).put(caseEauDepart[r], null);
+            }
+        }
+        List<Map.Entry<Case, double[]>> aCalculer = new ArrayList<>();
+        List<Integer> modeleACalculer = new ArrayList<>();
+        for (int t = 0; t < nbModeles; t++) {
+            for (Map.Entry<Case, double[]> entree : depuisEau.get(t).entrySet()) {
+                aCalculer.add(entree);
+                modeleACalculer.add(t);
+            }
+        }
+        IntStream.range(0, aCalculer.size()).parallel().forEach(k -> {
+            int t = modeleACalculer.get(k);
+            ChampDistance champ = new ChampDistance(carte, modeles.get(t), sortieModele[t], aCalculer.get(k).getKey());
+            double[] temps = new double[nbFeux];
+            for (int j = 0; j < nbFeux; j++) {
+                temps[j] = champ.getTemps(positions[j]);
+            }
+            aCalculer.get(k).setValue(temps);
+        });
+
+        double[] inaccessible = new double[nbFeux];
+        Arrays.fill(inaccessible, Double.MAX_VALUE);
+        eauVersFeu = new double[nbModeles][nbFeux][];
+        for (int t = 0; t < nbModeles; t++) {
+            for (int i = 0; i < nbFeux; i++) {
+                eauVersFeu[t][i] = caseEauFeu[t][i] == null ? inaccessible : depuisEau.get(t).get(caseEauFeu[t][i]);
+            }
+        }
+        eauDepartVersFeu = new double[robots.size()][];
+        for (int r = 0; r < robots.size(); r++) {
+            eauDepartVersFeu[r] = caseEauDepart[r] == null ? inaccessible : depuisEau.get(modeleRobot[r]).get(caseEauDepart[r]);
+        }
+    }
+
+    /**
+     * @return Le temps de trajet du robot r depuis une origine jusqu'à l'incendie j, ou {@link Double#MAX_VALUE}.
+     */
+    double trajet(int r, int depuis, int j) {
+        return depuis < 0 ? trajetDepart[r][j] : trajet[modeleRobot[r]][depuis][j];
+    }
+
+    /**
+     * @return Le temps de trajet du robot r depuis une origine jusqu'à son eau la plus proche,
+     *         ou {@link Double#MAX_VALUE}.
+     */
+    double eau(int r, int depuis) {
+        return depuis < 0 ? eauDepart[r] : eauFeu[modeleRobot[r]][depuis];
+    }
+
+    /**
+     * @return La case où le robot r se remplit en partant d'une origine, ou null si aucune eau n'est accessible.
+     */
+    Case caseEau(int r, int depuis) {
+        return depuis < 0 ? caseEauDepart[r] : caseEauFeu[modeleRobot[r]][depuis];
+    }
+
+    /**
+     * @return Le temps de trajet du robot r depuis l'eau la plus proche d'une origine jusqu'à l'incendie j,
+     *         ou {@link Double#MAX_VALUE}.
+     */
+    double eauVersFeu(int r, int depuis, int j) {
+        return depuis < 0 ? eauDepartVersFeu[r][j] : eauVersFeu[modeleRobot[r]][depuis][j];
+    }
+}
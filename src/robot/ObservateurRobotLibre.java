@@ -0,0 +1,31 @@
+package robot;
+
+/**
+ * Interface des objets prévenus lorsqu'un robot n'a plus d'événement en attente dans la simulation,
+ * c'est-à-dire lorsque son dernier événement vient d'être exécuté.
+ * Elle permet à une stratégie de confier au robot sa tâche suivante au fil de la simulation.
+ * L'observateur est aussi prévenu lorsque la simulation revient à un état antérieur (redémarrage,
+ * restauration d'un instantané ou reprise), afin de reconstruire son propre état à partir de celui du simulateur.
+ */
+public interface ObservateurRobotLibre {
+
+    /**
+     * Appelée, sur le fil de simulation, lorsque le dernier événement en attente d'un robot a été exécuté.
+     * L'observateur peut ajouter de nouveaux événements au simulateur pendant cet appel.
+     *
+     * @param robot Le robot devenu libre.
+     * @param date  La date de simulation courante.
+     */
+    void robotLibre(Robot robot, long date);
+
+    /**
+     * Appelée après la restauration d'un état de la simulation (voir {@link simulateur.Simulateur#restaurerEtat}),
+     * une fois la date, les robots, les incendies et les événements en attente rétablis.
+     * L'observateur peut ajouter de nouveaux événements au simulateur pendant cet appel.
+     * Par défaut, ne fait rien.
+     *
+     * @param date La date de simulation restaurée.
+     */
+    default void etatRestaure(long date) {
+    }
+}
@@ -0,0 +1,15 @@
+package robot;
+
+/**
+ * Interface représentant une cible à laquelle on peut confier des événements à exécuter :
+ * le simulateur lui-même, une bifurcation de la simulation, ou une simple liste d'événements.
+ */
+public interface Ordonnanceur {
+
+    /**
+     * Ajoute un événement à exécuter.
+     *
+     * @param e L'événement à ajouter.
+     */
+    void ajouteEvenement(Evenement e);
+}
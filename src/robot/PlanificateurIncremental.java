@@ -0,0 +1,404 @@
+package robot;
+import carte.*;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongBiFunction;
+import simulateur.DonneeSimulation;
+import simulateur.Simulateur;
+
+/**
+ * Ajout d'incendies et de robots à une simulation en cours, planifiée par {@link Strategie#chefPompier}.
+ * Un nouvel incendie est inséré dans le plan existant par l'heuristique d'insertion la moins chère. Le coût d'un
+ * plan est la date à laquelle tous les robots ont fini ; pour chaque robot, on évalue l'insertion de
+ * l'intervention entre deux tâches futures de sa chronologie ({@link ChronologieRobot}), en retardant au besoin
+ * toutes les tâches suivantes du temps du détour, et son ajout à la fin de son plan. L'insertion qui augmente
+ * le moins le coût est retenue, puis, à coût égal, celle qui éteint l'incendie au plus tôt. Seuls les événements
+ * futurs du robot choisi sont touchés : les déplacements entre les deux tâches sont remplacés par le détour et
+ * les événements suivants sont décalés, ou l'intervention est planifiée après ses événements déjà prévus.
+ * Une intervention n'est insérée entre deux tâches que si le robot a alors assez d'eau pour éteindre l'incendie
+ * d'un coup sans en priver les tâches suivantes.
+ *
+ * <p>L'insertion est comparée à une estimation optimiste : la fin du plan actuel, ou l'extinction du nouvel
+ * incendie par le meilleur robot s'il était libre à la date courante. Si elle retarde la fin de plus d'une fraction
+ * du temps restant selon cette estimation (voir {@link #setSeuilReplanification}), toute l'intervention est
+ * replanifiée par {@link Strategie#replanifier}.</p>
+ *
+ * <p>Pour que l'insertion reste rapide sur les grandes cartes, l'eau la plus proche de l'incendie, nécessaire aux
+ * allers-retours, est cherchée pour chaque robot dans un seul champ de distances ({@link ChampDistance}) plutôt
+ * que par une recherche de chemin vers chaque case d'eau.</p>
+ *
+ * <p>Les méthodes modifient les événements en attente du simulateur : si la simulation tourne, elles doivent être
+ * appelées après {@link Simulateur#attendre()}.</p>
+ */
+public final class PlanificateurIncremental {
+
+    private final Strategie strategie;
+    private final DonneeSimulation donnes;
+    private final Simulateur simulateur;
+    private double seuilReplanification = 0.5;
+    private int nbInsertionsEntreTaches;
+    private int nbAjoutsFin;
+    private int nbReplanifications;
+
+    /**
+     * Insertion envisagée pour le nouvel incendie.
+     */
+    private static final class Candidat {
+        final Robot robot;
+        final long cout;                      // Date de fin du plan avec l'insertion
+        final long fin;                       // Date d'extinction de l'incendie
+        final EtatDetails etat;               // État du robot pour un ajout à la fin de son plan, sinon null
+        final ChronologieRobot.Tache avant;   // Tâches entre lesquelles l'intervention est insérée
+        final ChronologieRobot.Tache apres;
+        final long retard;                    // Retard des tâches suivantes
+
+        Candidat(Robot robot, long cout, long fin, EtatDetails etat,
+                 ChronologieRobot.Tache avant, ChronologieRobot.Tache apres, long retard) {
+            this.robot = robot;
+            this.cout = cout;
+            this.fin = fin;
+            this.etat = etat;
+            this.avant = avant;
+            this.apres = apres;
+            this.retard = retard;
+        }
+
+        boolean meilleurQue(Candidat autre) {
+            return autre == null || cout < autre.cout || (cout == autre.cout && fin < autre.fin);
+        }
+    }
+
+    /**
+     * Résultat de l'ajout d'un incendie.
+     */
+    public static final class Insertion {
+        private final Robot robot;
+        private final long dateFin;
+        private final boolean entreTaches;
+        private final boolean replanification;
+
+        Insertion(Robot robot, long dateFin, boolean entreTaches, boolean replanification) {
+            this.robot = robot;
+            this.dateFin = dateFin;
+            this.entreTaches = entreTaches;
+            this.replanification = replanification;
+        }
+
+        /**
+         * @return Le robot chargé de l'incendie, ou null si aucun robot ne peut l'atteindre ou si toute
+         *         l'intervention a été replanifiée.
+         */
+        public Robot getRobot() {
+            return robot;
+        }
+
+        /**
+         * @return La date estimée de l'extinction de l'incendie, ou -1 si elle n'est pas connue.
+         */
+        public long getDateFin() {
+            return dateFin;
+        }
+
+        /**
+         * @return Vrai si l'intervention est insérée entre deux tâches du robot.
+         */
+        public boolean estEntreTaches() {
+            return entreTaches;
+        }
+
+        /**
+         * @return Vrai si toute l'intervention a été replanifiée.
+         */
+        public boolean estReplanification() {
+            return replanification;
+        }
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param strategie  La stratégie qui a planifié la simulation, dont les chronologies sont reprises.
+     * @param donnes     Les données de la simulation.
+     * @param simulateur Le simulateur en cours.
+     */
+    public PlanificateurIncremental(Strategie strategie, DonneeSimulation donnes, Simulateur simulateur) {
+        this.strategie = strategie;
+        this.donnes = donnes;
+        this.simulateur = simulateur;
+    }
+
+    /**
+     * Fixe le seuil de replanification : l'intervention est replanifiée si l'insertion retarde la fin du plan,
+     * par rapport à l'estimation optimiste, de plus de cette fraction du temps restant.
+     *
+     * @param seuil Le seuil, positif ; 0.5 par défaut.
+     */
+    public void setSeuilReplanification(double seuil) {
+        if (seuil < 0) {
+            throw new IllegalArgumentException("Le seuil de replanification doit être positif.");
+        }
+        this.seuilReplanification = seuil;
+    }
+
+    /**
+     * @return Le nombre d'incendies insérés entre deux tâches d'un robot.
+     */
+    public int getNbInsertionsEntreTaches() {
+        return nbInsertionsEntreTaches;
+    }
+
+    /**
+     * @return Le nombre d'incendies ajoutés à la fin du plan d'un robot.
+     */
+    public int getNbAjoutsFin() {
+        return nbAjoutsFin;
+    }
+
+    /**
+     * @return Le nombre de replanifications complètes.
+     */
+    public int getNbReplanifications() {
+        return nbReplanifications;
+    }
+
+    /**
+     * Ajoute un robot à la simulation en cours. Il est disponible, à sa position et avec son réservoir,
+     * pour les incendies ajoutés ensuite et pour les replanifications.
+     *
+     * @param robot Le robot à ajouter.
+     */
+    public void ajouterRobot(Robot robot) {
+        simulateur.ajouterRobot(robot);
+    }
+
+    /**
+     * Ajoute un incendie à la simulation en cours et planifie son extinction.
+     *
+     * @param incendie L'incendie à ajouter.
+     * @return Le résultat de l'insertion.
+     */
+    public Insertion ajouterIncendie(Incendie incendie) {
+        simulateur.ajouterIncendie(incendie);
+        long maintenant = simulateur.getDateSimulation();
+        Carte carte = donnes.getCarte();
+        Case lieu = carte.getCase(incendie.getPosition().getLigne(), incendie.getPosition().getColonne());
+        RechercheChemin r = new RechercheChemin(carte);
+
+        // Seuls les robots libres et ceux dont la chronologie est connue peuvent recevoir l'incendie
+        List<Robot> robots = new ArrayList<>();
+        long finPlan = maintenant;
+        for (Robot robot : donnes.getRobots()) {
+            ChronologieRobot chronologie = strategie.getChronologie(robot);
+            if (simulateur.getNbEvenementsEnAttente(robot) == 0) {
+                robots.add(robot);
+            } else if (chronologie != null) {
+                robots.add(robot);
+                finPlan = Math.max(finPlan, chronologie.getFin());
+            }
+        }
+
+        Candidat meilleur = null;
+        double ideal = Double.MAX_VALUE;
+        for (Robot robot : robots) {
+            ChronologieRobot chronologie = strategie.getChronologie(robot);
+            boolean libre = simulateur.getNbEvenementsEnAttente(robot) == 0;
+            double sortieMin = Strategie.tempsSortieMin(carte, robot);
+            if (incendie.getIntensite() > robot.getCapaciteMaxReservoir()) {
+                preparerEauLaPlusProche(robot, lieu);
+            }
+
+            // Extinction idéale : le robot serait libre maintenant, là où il est
+            EtatDetails maintenantLibre = new EtatDetails((double) maintenant, robot.getPosition(),
+                                                          robot.getNiveauReservoirEau(), maintenant);
+            if (strategie.borneInferieure(robot, sortieMin, maintenantLibre, incendie) < ideal) {
+                ideal = Math.min(ideal, strategie.estimerTemps(donnes, r, robot, maintenantLibre, incendie));
+            }
+
+            // Ajout à la fin du plan du robot
+            long debutFin = libre ? maintenant : Math.max(maintenant, chronologie.getFin());
+            EtatDetails fin = libre ? maintenantLibre
+                : new EtatDetails((double) debutFin, chronologie.getPositionFinale(), chronologie.getReservoirFinal(), debutFin);
+            long borne = (long) strategie.borneInferieure(robot, sortieMin, fin, incendie);
+            if (new Candidat(robot, Math.max(finPlan, borne), borne, fin, null, null, 0).meilleurQue(meilleur)) {
+                double temps = strategie.estimerTemps(donnes, r, robot, fin, incendie);
+                if (temps < Double.MAX_VALUE) {
+                    Candidat candidat = new Candidat(robot, Math.max(finPlan, (long) temps), (long) temps, fin, null, null, 0);
+                    if (candidat.meilleurQue(meilleur)) {
+                        meilleur = candidat;
+                    }
+                }
+            }
+
+            if (!libre) {
+                Candidat candidat = meilleureInsertion(robot, chronologie, incendie, lieu, maintenant, finPlan,
+                                                       sortieMin, meilleur);
+                if (candidat != null) {
+                    meilleur = candidat;
+                }
+            }
+        }
+
+        if (meilleur == null) {
+            System.out.println("Erreur : Aucun robot disponible pour l'intervention.");
+            return new Insertion(null, -1, false, false);
+        }
+        double optimiste = Math.max(finPlan, ideal);
+        if (meilleur.cout - optimiste > seuilReplanification * (optimiste - maintenant)) {
+            nbReplanifications++;
+            strategie.replanifier(donnes, simulateur);
+            return new Insertion(null, -1, false, true);
+        }
+        if (meilleur.etat == null) {
+            inserer(meilleur, incendie, lieu);
+            nbInsertionsEntreTaches++;
+            return new Insertion(meilleur.robot, meilleur.fin, true, false);
+        }
+        Map<Robot, EtatDetails> etat = new HashMap<>();
+        etat.put(meilleur.robot, meilleur.etat);
+        strategie.planifierIntervention(donnes, simulateur, etat, meilleur.robot, incendie, meilleur.fin);
+        nbAjoutsFin++;
+        return new Insertion(meilleur.robot, meilleur.fin, false, false);
+    }
+
+    /**
+     * Cherche, entre deux tâches futures d'un robot occupé, l'insertion de l'intervention meilleure qu'un candidat.
+     * Les couples de tâches sont d'abord écartés par une minoration sans recherche de chemin.
+     *
+     * @return La meilleure insertion, ou null si aucune ne fait mieux que le candidat.
+     */
+    private Candidat meilleureInsertion(Robot robot, ChronologieRobot chronologie, Incendie incendie, Case lieu,
+                                        long maintenant, long finPlan, double sortieMin, Candidat meilleur) {
+        int volume = incendie.getIntensite();
+        long duree = (long) incendie.tempsIntervention(robot, volume);
+        ChronologieRobot.Tache tache = new ChronologieRobot.Tache(incendie, lieu, duree, volume);
+        double pas = Math.floor(sortieMin);   // Les pas sont comptés en secondes entières
+        ToLongBiFunction<Case, Case> trajet = null;
+        Candidat trouve = null;
+
+        ChronologieRobot.Tache avant = chronologie.premiereTacheFinissantApres(maintenant);
+        for (; avant != null; avant = chronologie.suivante(avant)) {
+            ChronologieRobot.Tache apres = chronologie.suivante(avant);
+            if (apres == null) {
+                break;   // Après la dernière tâche, c'est un ajout à la fin du plan
+            }
+            long finMin = avant.getFin() + (long) (distance(avant.getLieu(), lieu) * pas) + duree;
+            long retardMin = Math.max(0, finMin + (long) (distance(lieu, apres.getLieu()) * pas) - apres.getDebut());
+            Candidat borne = new Candidat(robot, Math.max(finPlan, chronologie.getFin() + retardMin), finMin, null, null, null, 0);
+            if (!borne.meilleurQue(trouve == null ? meilleur : trouve) || !chronologie.eauSuffisante(tache, avant)) {
+                continue;
+            }
+            if (trajet == null) {
+                trajet = trajet(robot);
+            }
+            long acces = trajet.applyAsLong(avant.getLieu(), lieu);
+            long depart = acces == Long.MAX_VALUE ? Long.MAX_VALUE : trajet.applyAsLong(lieu, apres.getLieu());
+            if (depart == Long.MAX_VALUE) {
+                continue;
+            }
+            long fin = avant.getFin() + acces + duree;
+            long retard = Math.max(0, fin + depart - apres.getDebut());
+            Candidat candidat = new Candidat(robot, Math.max(finPlan, chronologie.getFin() + retard), fin, null, avant, apres, retard);
+            if (candidat.meilleurQue(trouve == null ? meilleur : trouve)) {
+                trouve = candidat;
+            }
+        }
+        return trouve;
+    }
+
+    /**
+     * Insère l'intervention entre deux tâches d'un robot : les déplacements prévus entre elles sont annulés,
+     * les événements suivants sont décalés du retard, puis le trajet vers l'incendie, l'intervention et le trajet
+     * vers la tâche suivante sont planifiés selon les mêmes conventions de dates que
+     * {@link Strategie#planifierIntervention}.
+     */
+    private void inserer(Candidat candidat, Incendie incendie, Case lieu) {
+        Robot robot = candidat.robot;
+        ChronologieRobot chronologie = strategie.getChronologie(robot);
+        ChronologieRobot.Tache avant = candidat.avant;
+        ChronologieRobot.Tache apres = candidat.apres;
+        long debutApres = apres.getDebut();
+        simulateur.annulerEvenements(e -> e instanceof Deplacement && robotDe(e) == robot
+                                          && e.getDate() > avant.getFin() && e.getDate() <= debutApres);
+        if (candidat.retard > 0) {
+            // Les événements de la tâche suivante et au-delà, dont les déplacements partent après elle
+            List<Evenement> suite = simulateur.annulerEvenements(e -> robotDe(e) == robot
+                && (e.getDate() > debutApres || (e.getDate() == debutApres && !(e instanceof Deplacement))));
+            suite.sort(null);   // Par date, dans l'ordre de la file à date égale
+            for (Evenement e : suite) {
+                simulateur.ajouteEvenement(decaler(e, candidat.retard));
+            }
+            chronologie.decaler(apres, candidat.retard);
+        }
+
+        int volume = incendie.getIntensite();
+        ChronologieRobot.Tache tache = new ChronologieRobot.Tache(incendie, lieu, (long) incendie.tempsIntervention(robot, volume), volume);
+        long debut = candidat.fin - tache.getDuree();
+        if (!chronologie.inserer(tache, debut, trajet(robot))) {
+            throw new IllegalStateException("L'intervention ne tient pas entre les tâches du robot.");
+        }
+        RechercheChemin r = new RechercheChemin(donnes.getCarte());
+        CacheCouts cache = strategie.cacheCouts(donnes);
+        robot.deplacerSelonChemin(cache.chemin(r, robot, avant.getLieu(), lieu), avant.getFin() + 1, simulateur);
+        simulateur.ajouteEvenement(new Intervention(robot, incendie, tache.getFin()));
+        robot.deplacerSelonChemin(cache.chemin(r, robot, lieu, apres.getLieu()), tache.getFin() + 1, simulateur);
+    }
+
+    private static Robot robotDe(Evenement e) {
+        if (e instanceof Deplacement) {
+            return ((Deplacement) e).getRobot();
+        }
+        if (e instanceof Intervention) {
+            return ((Intervention) e).getRobot();
+        }
+        return e instanceof Remplissage ? ((Remplissage) e).getRobot() : null;
+    }
+
+    /**
+     * Recrée un événement d'un robot à une date plus tardive.
+     */
+    private Evenement decaler(Evenement e, long retard) {
+        long date = e.getDate() + retard;
+        if (e instanceof Deplacement) {
+            Deplacement d = (Deplacement) e;
+            return new Deplacement(donnes.getCarte(), d.getRobot(), d.getDirection(), date);
+        }
+        if (e instanceof Intervention) {
+            Intervention i = (Intervention) e;
+            return new Intervention(i.getRobot(), i.getIncendie(), date);
+        }
+        if (e instanceof Remplissage) {
+            Remplissage r = (Remplissage) e;
+            return new Remplissage(r.getRobot(), date, r.getVolume());
+        }
+        throw new IllegalArgumentException("Événement inconnu : " + e);
+    }
+
+    private static int distance(Case a, Case b) {
+        return Math.abs(a.getLigne() - b.getLigne()) + Math.abs(a.getColonne() - b.getColonne());
+    }
+
+    /**
+     * Mémorise l'eau la plus proche d'une case pour un robot, lue dans le champ des distances depuis cette case,
+     * avant que {@link Strategie#estimerTemps} et {@link Strategie#planifierIntervention} ne la demandent.
+     */
+    private void preparerEauLaPlusProche(Robot robot, Case depart) {
+        List<Case> casesEau = donnes.getCasesEau();
+        strategie.cacheCouts(donnes).eauLaPlusProche(robot, depart, () -> {
+            ChampDistance champ = new ChampDistance(donnes.getCarte(), robot, depart);
+            Case eau = champ.getCaseEau(casesEau);
+            return eau == null ? new SimpleEntry<>(new Case(0, 0, NatureTerrain.EAU), Double.MAX_VALUE)
+                               : new SimpleEntry<>(eau, champ.getTemps(eau));
+        });
+    }
+
+    /**
+     * Retourne les temps de trajet d'un robot, comptés comme dans le simulateur.
+     */
+    private ToLongBiFunction<Case, Case> trajet(Robot robot) {
+        double[] sortie = ChampDistance.tempsDeSortie(donnes.getCarte(), robot);
+        return (depart, destination) -> strategie.dureeTrajet(donnes, robot, sortie, depart, destination);
+    }
+}
@@ -0,0 +1,247 @@
+package robot;
+import carte.*;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recherche du meilleur trajet d'un robot qui doit faire le plein avant d'atteindre sa destination.
+ * Plutôt que de choisir l'eau la plus proche du robot puis de chercher le chemin de l'eau à la destination,
+ * la recherche se fait sur un graphe à deux couches : chaque case y figure réservoir « à remplir » et réservoir
+ * « plein ». Les déplacements restent dans leur couche, avec le même modèle de coût que {@link RechercheChemin} ;
+ * le passage de la première couche à la seconde n'est possible que sur les cases où le robot se remplit (la case
+ * d'eau pour les drones et les robots à pattes, une case voisine de l'eau pour les autres, comme dans
+ * {@link Strategie#plusProche}) et coûte le temps de remplissage. Une seule recherche A* du départ (à remplir)
+ * à la destination (plein) donne ainsi la source d'eau qui minimise le trajet complet.
+ */
+public final class RechercheRemplissage {
+
+    private final Carte carte;
+    private final List<Case> casesEau;
+
+    /**
+     * Trajet départ → eau → destination trouvé par la recherche.
+     */
+    public static final class Trajet {
+        private final Case caseEau;
+        private final ResultatChemin versEau;
+        private final ResultatChemin versDestination;
+
+        Trajet(Case caseEau, ResultatChemin versEau, ResultatChemin versDestination) {
+            this.caseEau = caseEau;
+            this.versEau = versEau;
+            this.versDestination = versDestination;
+        }
+
+        /**
+         * @return La case de la carte où le robot fait le plein.
+         */
+        public Case getCaseEau() {
+            return caseEau;
+        }
+
+        /**
+         * @return Le chemin du départ à la case où le robot fait le plein.
+         */
+        public ResultatChemin getVersEau() {
+            return versEau;
+        }
+
+        /**
+         * @return Le chemin de la case où le robot fait le plein à la destination.
+         */
+        public ResultatChemin getVersDestination() {
+            return versDestination;
+        }
+
+        /**
+         * @return Le temps des deux trajets, sans le remplissage.
+         */
+        public double getTempsTrajets() {
+            return versEau.getTempsTotale() + versDestination.getTempsTotale();
+        }
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param carte    La carte.
+     * @param casesEau Les cases d'eau de la carte.
+     */
+    public RechercheRemplissage(Carte carte, List<Case> casesEau) {
+        this.carte = carte;
+        this.casesEau = casesEau;
+    }
+
+    /**
+     * Cherche le trajet le plus rapide d'un robot qui part de {@code depart}, fait le plein puis se rend à
+     * {@code destination}. Comme pour {@link RechercheChemin}, la vitesse du robot est modifiée pendant le calcul
+     * (puis restaurée) : un même robot ne doit pas servir à plusieurs calculs en parallèle.
+     *
+     * @param robot            Le robot.
+     * @param depart           La case de départ, case de la carte.
+     * @param destination      La case de destination, case de la carte.
+     * @param tempsRemplissage Le temps du remplissage.
+     * @return Le trajet, ou null si le robot ne peut pas atteindre la destination en passant par l'eau.
+     */
+    public Trajet calculer(Robot robot, Case depart, Case destination, double tempsRemplissage) {
+        if (!robot.peutSeDeplacerSur(destination.getNature())) {
+            return null;
+        }
+        int nbColonnes = carte.getNbColonnes();
+        int n = carte.getNbLignes() * nbColonnes;
+        double[] sortie = ChampDistance.tempsDeSortie(carte, robot);
+        boolean[] remplissage = casesDeRemplissage(robot);
+
+        // L'heuristique compte un pas le plus rapide par case restante jusqu'à la destination, plus le remplissage
+        // s'il reste à faire : elle ne surestime jamais le temps restant et reste cohérente d'un état à l'autre
+        double pasMin = Double.POSITIVE_INFINITY;
+        for (double s : sortie) {
+            pasMin = Math.min(pasMin, s);
+        }
+        pasMin *= 1 - 1e-12; // Marge pour les arrondis des sommes de pas
+
+        double[] temps = new double[2 * n];   // Indexé par couche * n + ligne * nbColonnes + colonne
+        int[] predecesseurs = new int[2 * n];
+        boolean[] fermes = new boolean[2 * n];
+        Arrays.fill(temps, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecesseurs, -1);
+
+        int source = depart.getLigne() * nbColonnes + depart.getColonne();
+        int cible = n + destination.getLigne() * nbColonnes + destination.getColonne();
+        TasDistances tas = new TasDistances(2 * n);
+        temps[source] = 0;
+        tas.inserer(source, heuristique(source, n, destination, pasMin, tempsRemplissage));
+        while (!tas.estVide()) {
+            int courant = tas.retirer();
+            if (fermes[courant]) {
+                continue;
+            }
+            fermes[courant] = true;
+            if (courant == cible) {
+                break;
+            }
+            int couche = courant / n;
+            int indice = courant % n;
+            if (couche == 0 && remplissage[indice]) {
+                relacher(tas, temps, predecesseurs, courant, n + indice, temps[courant] + tempsRemplissage,
+                         n, destination, pasMin, tempsRemplissage);
+            }
+            double s = sortie[carte.getCase(indice / nbColonnes, indice % nbColonnes).getNature().ordinal()];
+            if (Double.isInfinite(s)) {
+                continue;
+            }
+            int l = indice / nbColonnes;
+            int c = indice % nbColonnes;
+            double nouveau = temps[courant] + s;
+            if (l > 0) relacher(tas, temps, predecesseurs, courant, courant - nbColonnes, nouveau, n, destination, pasMin, tempsRemplissage);
+            if (l < carte.getNbLignes() - 1) relacher(tas, temps, predecesseurs, courant, courant + nbColonnes, nouveau, n, destination, pasMin, tempsRemplissage);
+            if (c > 0) relacher(tas, temps, predecesseurs, courant, courant - 1, nouveau, n, destination, pasMin, tempsRemplissage);
+            if (c < nbColonnes - 1) relacher(tas, temps, predecesseurs, courant, courant + 1, nouveau, n, destination, pasMin, tempsRemplissage);
+        }
+        if (!fermes[cible]) {
+            return null;
+        }
+        return reconstruire(predecesseurs, temps, cible, n, tempsRemplissage);
+    }
+
+    private void relacher(TasDistances tas, double[] temps, int[] predecesseurs, int courant, int voisin,
+                          double nouveau, int n, Case destination, double pasMin, double tempsRemplissage) {
+        if (nouveau < temps[voisin]) {
+            temps[voisin] = nouveau;
+            predecesseurs[voisin] = courant;
+            tas.inserer(voisin, nouveau + heuristique(voisin, n, destination, pasMin, tempsRemplissage));
+        }
+    }
+
+    private double heuristique(int noeud, int n, Case destination, double pasMin, double tempsRemplissage) {
+        int indice = noeud % n;
+        int distance = Math.abs(indice / carte.getNbColonnes() - destination.getLigne())
+                     + Math.abs(indice % carte.getNbColonnes() - destination.getColonne());
+        return distance * pasMin + (noeud < n ? tempsRemplissage : 0);
+    }
+
+    /**
+     * Marque les cases où le robot peut faire le plein, avec les mêmes règles que {@link Strategie#plusProche}.
+     */
+    private boolean[] casesDeRemplissage(Robot robot) {
+        boolean surEau = robot.getType().equals("Drone") || robot.getType().equals("RobotAPattes");
+        boolean[] remplissage = new boolean[carte.getNbLignes() * carte.getNbColonnes()];
+        for (Case eau : casesEau) {
+            Case caseEau = carte.getCase(eau.getLigne(), eau.getColonne());
+            if (surEau) {
+                if (robot.peutSeDeplacerSur(caseEau.getNature())) {
+                    remplissage[indice(caseEau)] = true;
+                }
+                continue;
+            }
+            for (Direction direction : Direction.values()) {
+                if (carte.voisinExiste(caseEau, direction)) {
+                    Case voisin = carte.getVoisin(caseEau, direction);
+                    if (robot.peutSeDeplacerSur(voisin.getNature())) {
+                        remplissage[indice(voisin)] = true;
+                    }
+                }
+            }
+        }
+        return remplissage;
+    }
+
+    /**
+     * Découpe le chemin trouvé en ses deux trajets, de part et d'autre du remplissage.
+     */
+    private Trajet reconstruire(int[] predecesseurs, double[] temps, int cible, int n, double tempsRemplissage) {
+        List<Integer> noeuds = new ArrayList<>();
+        for (int noeud = cible; noeud >= 0; noeud = predecesseurs[noeud]) {
+            noeuds.add(noeud);
+        }
+        Collections.reverse(noeuds);
+        int plein = 0;
+        while (noeuds.get(plein) < n) {
+            plein++;
+        }
+        // noeuds[plein - 1] et noeuds[plein] sont la même case, avant et après le remplissage
+        Case caseEau = caseDe(noeuds.get(plein) % n);
+        double tempsVersEau = temps[noeuds.get(plein - 1)];
+        double tempsVersDestination = temps[cible] - temps[noeuds.get(plein)];
+        return new Trajet(caseEau,
+                          new ResultatChemin(chemin(noeuds.subList(0, plein), n), tempsVersEau),
+                          new ResultatChemin(chemin(noeuds.subList(plein, noeuds.size()), n), tempsVersDestination));
+    }
+
+    /**
+     * Convertit une suite de nœuds d'une même couche au format de {@link ResultatChemin} : chaque case avec la
+     * direction prise pour la quitter, la dernière sans direction.
+     */
+    private List<SimpleEntry<Case, Direction>> chemin(List<Integer> noeuds, int n) {
+        List<SimpleEntry<Case, Direction>> chemin = new ArrayList<>();
+        for (int i = 0; i < noeuds.size(); i++) {
+            int indice = noeuds.get(i) % n;
+            Direction direction = null;
+            if (i + 1 < noeuds.size()) {
+                int suivant = noeuds.get(i + 1) % n;
+                if (suivant == indice - carte.getNbColonnes()) {
+                    direction = Direction.NORD;
+                } else if (suivant == indice + carte.getNbColonnes()) {
+                    direction = Direction.SUD;
+                } else if (suivant == indice - 1) {
+                    direction = Direction.OUEST;
+                } else {
+                    direction = Direction.EST;
+                }
+            }
+            chemin.add(new SimpleEntry<>(caseDe(indice), direction));
+        }
+        return chemin;
+    }
+
+    private Case caseDe(int indice) {
+        return carte.getCase(indice / carte.getNbColonnes(), indice % carte.getNbColonnes());
+    }
+
+    private int indice(Case c) {
+        return c.getLigne() * carte.getNbColonnes() + c.getColonne();
+    }
+}
@@ -10,7 +10,7 @@ public class Remplissage extends Evenement
     private final int volume;      // Volume d'eau à remplir dans le réservoir du robot
 
     // Constructeur pour initialiser le robot, la date de l'événement et le volume d'eau
-    Remplissage(Robot robot, long date, int volume){
+    public Remplissage(Robot robot, long date, int volume){
         super(date);  // Appel du constructeur parent Evenement avec la date
         this.robot = robot;
         this.volume = volume;
@@ -24,4 +24,22 @@ public class Remplissage extends Evenement
     public void execute(){
         robot.remplirEau(volume);  // Remplir le réservoir du robot avec le volume d'eau spécifié
     }
+
+    /**
+     * Récupère le robot dont le réservoir est rempli.
+     *
+     * @return Le robot concerné.
+     */
+    public Robot getRobot() {
+        return robot;
+    }
+
+    /**
+     * Récupère le volume d'eau à ajouter au réservoir.
+     *
+     * @return Le volume d'eau.
+     */
+    public int getVolume() {
+        return volume;
+    }
 }
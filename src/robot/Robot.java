@@ -21,6 +21,7 @@ public abstract class Robot {
     private Simulateur simulateur;
     protected double vitesse;
     protected double vitesseBase;
+    private long eauPuisee; // Volume total d'eau ajouté au réservoir par les remplissages
 
     /**
      * Constructeur du robot avec position, niveau d'eau et vitesse initiale.
@@ -137,6 +138,27 @@ public abstract class Robot {
         } else {
             this.setReservoirEau(niv + vol);
         }
+        eauPuisee += this.getNiveauReservoirEau() - niv;
+    }
+
+    /**
+     * Retourne le volume total d'eau réellement ajouté au réservoir par {@link #remplirEau} depuis la création
+     * du robot, c'est-à-dire l'eau puisée par le robot. Le simulateur le sauvegarde et le restaure avec le reste
+     * de l'état du robot.
+     *
+     * @return Le volume d'eau puisé.
+     */
+    public long getEauPuisee() {
+        return eauPuisee;
+    }
+
+    /**
+     * Modifie le volume d'eau puisé, lors de la restauration d'un état de la simulation.
+     *
+     * @param eauPuisee Le volume d'eau puisé.
+     */
+    public void setEauPuisee(long eauPuisee) {
+        this.eauPuisee = eauPuisee;
     }
 
     /**
@@ -184,9 +206,34 @@ public abstract class Robot {
      * @return Le temps écoulé pendant le déplacement, en secondes.
      */
     public long deplacerVersCase(Case depart, Case destination, long t) {
+        return deplacerVersCase(depart, destination, t, simulateur);
+    }
+
+    /**
+     * Déplace le robot vers une case de destination en calculant le chemin optimal, en confiant les
+     * événements de déplacement à l'ordonnanceur donné plutôt qu'au simulateur du robot.
+     * 
+     * @param depart La case de départ du robot.
+     * @param destination La case de destination.
+     * @param t Le temps courant avant le déplacement.
+     * @param cible L'ordonnanceur qui reçoit les événements de déplacement.
+     * @return Le temps écoulé pendant le déplacement, en secondes.
+     */
+    public long deplacerVersCase(Case depart, Case destination, long t, Ordonnanceur cible) {
         RechercheChemin rechercheChemin = new RechercheChemin(carte);
-        ResultatChemin resultat = rechercheChemin.calculerCheminOptimal(depart, destination, this);
+        return deplacerSelonChemin(rechercheChemin.calculerCheminOptimal(depart, destination, this), t, cible);
+    }
 
+    /**
+     * Déplace le robot selon un chemin déjà calculé, par exemple lu dans un {@link CacheCouts}, en confiant
+     * les événements de déplacement à l'ordonnanceur donné.
+     *
+     * @param resultat Le chemin optimal calculé par {@link RechercheChemin}.
+     * @param t Le temps courant avant le déplacement.
+     * @param cible L'ordonnanceur qui reçoit les événements de déplacement.
+     * @return Le temps écoulé pendant le déplacement, en secondes, ou -1 si le chemin n'existe pas.
+     */
+    public long deplacerSelonChemin(ResultatChemin resultat, long t, Ordonnanceur cible) {
         if (resultat.getCheminOptimal() == null) {
             System.out.println("Aucun chemin trouvé pour atteindre la destination.");
             return -1;
@@ -200,9 +247,11 @@ public abstract class Robot {
         for (SimpleEntry<Case, Direction> etape : cheminOptimal) {
             Direction direction = etape.getValue();
             if (direction != null) { // Ignorer la première case (départ)
+                // Le temps pour quitter une case dépend du terrain de cette case, comme dans la recherche de chemin ;
+                // la vitesse courante du robot n'est pas modifiée
                 Deplacement deplacement = new Deplacement(carte, this, direction, temps);
-                simulateur.ajouteEvenement(deplacement);
-                tempsDeplacement = carte.getTailleCases() / (1000 * this.getVitesse()); // par heure
+                cible.ajouteEvenement(deplacement);
+                tempsDeplacement = carte.getTailleCases() / (1000 * getVitesseSur(etape.getKey().getNature())); // par heure
                 tempsDeplacement *= 3600; // Convertir en secondes
 
                 temps += (long) tempsDeplacement; // Incrémenter le temps pour chaque déplacement
@@ -211,8 +260,31 @@ public abstract class Robot {
         return temps - t;
     }
 
+    /**
+     * Recopie dans un robot neuf du même type l'état de ce robot : réservoir, vitesses et carte.
+     * Le simulateur n'est pas recopié, et le compteur d'eau puisée de la copie part de zéro.
+     *
+     * @param copie Le robot neuf, créé à la position de ce robot.
+     * @return La copie.
+     */
+    protected Robot copierEtat(Robot copie) {
+        copie.reservoirEau = reservoirEau;
+        copie.vitesse = vitesse;
+        copie.vitesseBase = vitesseBase;
+        copie.carte = carte;
+        return copie;
+    }
+
     // Méthodes abstraites : Chaque type de robot devra les implémenter
 
+    /**
+     * Crée une copie indépendante du robot, à la même position, pour simuler la même situation
+     * dans un autre simulateur (voir {@link #copierEtat}).
+     *
+     * @return La copie du robot.
+     */
+    public abstract Robot copie();
+
     /**
      * Retourne la capacité maximale du réservoir d'eau du robot.
      * 
@@ -228,12 +300,30 @@ public abstract class Robot {
      */
     public abstract boolean peutSeDeplacerSur(NatureTerrain terrain);
 
+    /**
+     * Définit la vitesse de base du robot, qui devient aussi sa vitesse actuelle.
+     * 
+     * @param vitesse La vitesse de base en km/h.
+     * @throws IllegalArgumentException Si la vitesse dépasse la limite du type de robot.
+     */
+    public abstract void setVitesseBase(double vitesse);
+
+    /**
+     * Retourne la vitesse du robot sur un terrain, sans modifier sa vitesse courante.
+     * 
+     * @param terrain Le type de terrain.
+     * @return La vitesse sur ce terrain en km/h (0 si le robot ne peut pas le quitter).
+     */
+    public abstract double getVitesseSur(NatureTerrain terrain);
+
     /**
      * Ajuste la vitesse du robot en fonction du terrain sur lequel il se trouve.
      * 
      * @param terrain Le type de terrain sur lequel le robot se trouve.
      */
-    public abstract void setVitesseSur(NatureTerrain terrain);
+    public void setVitesseSur(NatureTerrain terrain) {
+        vitesse = getVitesseSur(terrain);
+    }
 
     /**
      * Retourne le type du robot sous forme de chaîne de caractères.
@@ -37,22 +37,22 @@ public class RobotAChenilles extends Robot {
     }
 
     /**
-     * Ajuste la vitesse du robot en fonction du terrain sur lequel il se trouve.
+     * Retourne la vitesse du robot en fonction du terrain sur lequel il se trouve.
      * 
      * <p>Si le robot se trouve sur un terrain forestier, sa vitesse est réduite de moitié.
      * Il ne peut pas se déplacer sur des terrains comme l'eau ou la roche. Sur les autres terrains, la vitesse reste inchangée.</p>
      * 
      * @param terrain Le terrain sur lequel le robot se trouve.
+     * @return La vitesse sur ce terrain en km/h.
      */
     @Override
-    public void setVitesseSur(NatureTerrain terrain) {
+    public double getVitesseSur(NatureTerrain terrain) {
         if (terrain == NatureTerrain.FORET) {
-            vitesse = vitesseBase / 2; // Réduction de la vitesse de moitié dans une forêt
+            return vitesseBase / 2; // Réduction de la vitesse de moitié dans une forêt
         } else if (terrain != NatureTerrain.HABITAT && terrain != NatureTerrain.TERRAIN_LIBRE) {
-            vitesse = 0; // Le robot ne peut pas se déplacer sur d'autres terrains
-        } else {
-            vitesse = vitesseBase; // Maintien de la vitesse de base pour les autres terrains
+            return 0; // Le robot ne peut pas se déplacer sur d'autres terrains
         }
+        return vitesseBase; // Maintien de la vitesse de base pour les autres terrains
     }
 
     /**
@@ -80,6 +80,7 @@ public class RobotAChenilles extends Robot {
      * @param vitesse La nouvelle vitesse de base du robot en km/h.
      * @throws IllegalArgumentException Si la vitesse dépasse 80 km/h.
      */
+    @Override
     public void setVitesseBase(double vitesse) {
         if (vitesse > 80) {
             throw new IllegalArgumentException("La vitesse du robot est supérieure à 80 km/h"); // Vérifie si la vitesse dépasse la limite
@@ -121,4 +122,14 @@ public class RobotAChenilles extends Robot {
     public String getType() {
         return "RobotAChenilles"; // Retourne le type spécifique du robot
     }
+
+    /**
+     * Crée une copie indépendante du robot, à la même position.
+     * 
+     * @return La copie du robot.
+     */
+    @Override
+    public Robot copie() {
+        return copierEtat(new RobotAChenilles(getPosition()));
+    }
 }
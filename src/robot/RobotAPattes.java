@@ -22,7 +22,7 @@ public class RobotAPattes extends Robot {
     }
 
     /**
-     * Ajuste la vitesse du robot en fonction du terrain sur lequel il se trouve.
+     * Retourne la vitesse du robot en fonction du terrain sur lequel il se trouve.
      * 
      * <p>La vitesse du robot varie selon le terrain :</p>
      * <ul>
@@ -32,11 +32,12 @@ public class RobotAPattes extends Robot {
      * </ul>
      * 
      * @param terrain Le terrain sur lequel le robot se trouve.
+     * @return La vitesse sur ce terrain en km/h.
      */
     @Override
-    public void setVitesseSur(NatureTerrain terrain) {
-        // Utilisation de switch pour ajuster la vitesse en fonction du terrain
-        vitesse = switch (terrain) {
+    public double getVitesseSur(NatureTerrain terrain) {
+        // Utilisation de switch pour choisir la vitesse en fonction du terrain
+        return switch (terrain) {
             case EAU -> 0;       // Si le terrain est de l'eau, la vitesse est 0 km/h
             case ROCHE -> 10;    // Si le terrain est de la roche, la vitesse est 10 km/h
             default -> vitesseBase; // Sinon, la vitesse est la vitesse de base
@@ -73,6 +74,7 @@ public class RobotAPattes extends Robot {
      * 
      * @param vitesse La nouvelle vitesse de base du robot en km/h.
      */
+    @Override
     public void setVitesseBase(double vitesse) {
         this.vitesse = vitesse;    // La vitesse actuelle est définie
         this.vitesseBase = vitesse; // La vitesse de base est mise à jour
@@ -112,4 +114,14 @@ public class RobotAPattes extends Robot {
     public String getType() {
         return "RobotAPattes"; // Retourne le nom du type de robot
     }
+
+    /**
+     * Crée une copie indépendante du robot, à la même position.
+     * 
+     * @return La copie du robot.
+     */
+    @Override
+    public Robot copie() {
+        return copierEtat(new RobotAPattes(getPosition()));
+    }
 }
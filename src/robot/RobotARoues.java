@@ -36,9 +36,9 @@ public class RobotARoues extends Robot {
     }
 
     /**
-     * Ajuste la vitesse du robot en fonction du terrain sur lequel il se trouve.
+     * Retourne la vitesse du robot en fonction du terrain sur lequel il se trouve.
      * 
-     * <p>La vitesse du robot est ajustée selon le type de terrain :</p>
+     * <p>La vitesse du robot dépend du type de terrain :</p>
      * <ul>
      *   <li>Sur le terrain libre, la vitesse reste la vitesse de base (80 km/h).</li>
      *   <li>Sur l'habitat, la vitesse est réduite de moitié (40 km/h).</li>
@@ -46,19 +46,19 @@ public class RobotARoues extends Robot {
      * </ul>
      * 
      * @param terrain Le terrain sur lequel le robot se trouve.
+     * @return La vitesse sur ce terrain en km/h.
      */
     @Override
-    public void setVitesseSur(NatureTerrain terrain) {
+    public double getVitesseSur(NatureTerrain terrain) {
         if (terrain == null) {
-            vitesse = 0; // Si le terrain est nul, la vitesse est de 0
-        } else {
-            // Ajuste la vitesse en fonction du type de terrain
-            vitesse = switch (terrain) {
-                case TERRAIN_LIBRE -> vitesseBase; // Sur terrain libre, la vitesse est la vitesse de base
-                case HABITAT -> vitesseBase / 2;  // Sur habitat, la vitesse est réduite de moitié
-                default -> 0; // Pour tous les autres terrains, la vitesse est de 0
-            };
+            return 0; // Si le terrain est nul, la vitesse est de 0
         }
+        // Vitesse en fonction du type de terrain
+        return switch (terrain) {
+            case TERRAIN_LIBRE -> vitesseBase; // Sur terrain libre, la vitesse est la vitesse de base
+            case HABITAT -> vitesseBase / 2;  // Sur habitat, la vitesse est réduite de moitié
+            default -> 0; // Pour tous les autres terrains, la vitesse est de 0
+        };
     }
 
     /**
@@ -78,6 +78,7 @@ public class RobotARoues extends Robot {
      * 
      * @param vitesse La nouvelle vitesse de base du robot en km/h.
      */
+    @Override
     public void setVitesseBase(double vitesse) {
         this.vitesse = vitesse;  // La vitesse actuelle est définie
         this.vitesseBase = vitesse; // La vitesse de base est mise à jour
@@ -116,4 +117,14 @@ public class RobotARoues extends Robot {
     public String getType() {
         return "RobotARoues"; // Retourne le nom du type de robot
     }
+
+    /**
+     * Crée une copie indépendante du robot, à la même position.
+     * 
+     * @return La copie du robot.
+     */
+    @Override
+    public Robot copie() {
+        return copierEtat(new RobotARoues(getPosition()));
+    }
 }
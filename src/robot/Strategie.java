@@ -2,9 +2,11 @@ package robot;
 import carte.*;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 import simulateur.*;
 
 
@@ -13,11 +15,53 @@ import simulateur.*;
  * les actions des robots et éteindre efficacement les incendies.
  */
 
-public class Strategie {
+public class Strategie implements StrategiePlanification {
     // Liste des robots, incendies et cases d'eau utilisées par le chef pompier
     private List<Robot> robots;
     private List<Incendie> incendies;
     private List<Case> casesEau;
+    // Ordre de traitement des incendies : par temps de trajet plutôt que par proximité
+    private boolean ordreParTemps;
+    // Nombre de recherches exactes faites et évitées par les bornes inférieures lors de la dernière planification
+    private long nbRecherchesExactes;
+    private long nbRecherchesEvitees;
+    // Mémoire des coûts (chemins et eau la plus proche) de la planification en cours, et mémoire partagée
+    // entre plusieurs planifications sur la même carte, si elle est fournie
+    private CacheCouts cache;
+    private CacheCouts cachePartage;
+    // Tâches planifiées pour chaque robot lors de la planification en cours
+    private final Map<Robot, ChronologieRobot> chronologies = new HashMap<>();
+
+    /**
+     * Choisit l'ordre dans lequel le chef pompier traite les incendies.
+     *
+     * @param ordreParTemps true pour trier les incendies par temps de trajet estimé
+     *                      ({@link #trierIncendiesParTemps}), false pour les trier par proximité.
+     */
+    public void setOrdreParTemps(boolean ordreParTemps) {
+        this.ordreParTemps = ordreParTemps;
+    }
+
+    /**
+     * Retourne le nom de la classe de la stratégie, suivi de l'ordre de traitement s'il est choisi par temps.
+     *
+     * @return Le nom de la stratégie.
+     */
+    @Override
+    public String getNom() {
+        return getClass().getSimpleName() + (ordreParTemps ? " (par temps)" : "");
+    }
+
+    /**
+     * Planifie l'intervention des robots avec {@link #chefPompier}.
+     *
+     * @param donnes      Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
+     */
+    @Override
+    public void planifier(DonneeSimulation donnes, Simulateur simulateur) {
+        chefPompier(donnes, simulateur);
+    }
 
     /**
      * Coordonne les robots pour éteindre les incendies en assignant le robot optimal
@@ -27,137 +71,500 @@ public class Strategie {
      * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
      */
     public void chefPompier(DonneeSimulation donnes, Simulateur simulateur) {
+        chefPompier(donnes, simulateur, 0);
+    }
+
+    /**
+     * Replanifie toute l'intervention en cours de simulation, à partir de l'état courant des robots et des
+     * incendies : les événements en attente sont annulés, puis les incendies qui brûlent encore sont affectés
+     * comme par {@link #chefPompier}, les robots partant de leur position et de leur réservoir actuels.
+     * Les chronologies des robots sont refaites.
+     *
+     * @param donnes     Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur Le simulateur en cours, dont la date sert de départ au nouveau plan.
+     */
+    public void replanifier(DonneeSimulation donnes, Simulateur simulateur) {
+        simulateur.annulerEvenements(e -> true);
+        chefPompier(donnes, simulateur, simulateur.getDateSimulation());
+    }
+
+    /**
+     * Planifie l'intervention comme {@link #chefPompier(DonneeSimulation, Simulateur)}, les robots étant
+     * disponibles à partir d'une date. Les incendies déjà éteints sont ignorés.
+     */
+    void chefPompier(DonneeSimulation donnes, Simulateur simulateur, long date) {
+        demarrerPlanification(donnes);
+        for (Robot robot : donnes.getRobots()) {
+            robot.setCarte(donnes.getCarte());
+            robot.setSimulateur(simulateur);
+        }
+        planifierGlouton(donnes, simulateur, date);
+    }
+
+    /**
+     * Construit le plan glouton : chaque incendie, dans l'ordre choisi, est confié au robot qui l'éteindrait
+     * le plus tôt. Les robots doivent déjà connaître la carte et le simulateur, et la planification doit avoir
+     * été démarrée ({@link #demarrerPlanification}) ; les chronologies des robots sont complétées.
+     *
+     * @param donnes Les données de la simulation.
+     * @param cible  La cible des événements du plan : le simulateur, ou une liste pour comparer des plans.
+     * @param date   La date à partir de laquelle les robots sont disponibles.
+     * @return La date du dernier événement du plan.
+     */
+    long planifierGlouton(DonneeSimulation donnes, Ordonnanceur cible, long date) {
         robots = donnes.getRobots();
-        // Trie les incendies par proximité
-        incendies = trierIncendiesParProximite(donnes);
+        // Trie les incendies par proximité, ou par temps de trajet si l'option est choisie
+        incendies = ordreParTemps ? trierIncendiesParTemps(donnes) : trierIncendiesParProximite(donnes);
         casesEau = donnes.getCasesEau();
-        boolean remplir = false;
-        long t=0;
 
         // Crée une map pour suivre l'état des robots pendant la simulation
         Map<Robot, EtatDetails> etat = new HashMap<>();
         for (Robot robot : robots) {
-            etat.put(robot, new EtatDetails(0.0, robot.getPosition(), robot.getNiveauReservoirEau(), 0));
+            etat.put(robot, new EtatDetails((double) date, robot.getPosition(), robot.getNiveauReservoirEau(), date));
         }
         RechercheChemin r = new RechercheChemin(donnes.getCarte());
+        double[] sortieMin = new double[robots.size()];
+        for (int i = 0; i < robots.size(); i++) {
+            sortieMin[i] = tempsSortieMin(donnes.getCarte(), robots.get(i));
+        }
+        nbRecherchesExactes = 0;
+        nbRecherchesEvitees = 0;
 
         // Parcours de chaque incendie pour assigner un robot pour l'éteindre
-        for (int i = 0; i < incendies.size(); i++){
+        Integer[] ordre = new Integer[robots.size()];
+        double[] bornes = new double[robots.size()];
+        for (Incendie incendie : incendies) {
+            if (incendie.getIntensite() <= 0) {
+                continue;
+            }
             Robot robotOptimal = null;
-            Case destination = donnes.getCarte().getCase(incendies.get(i).getPosition().getLigne(), incendies.get(i).getPosition().getColonne());
+            int indiceOptimal = -1;
             double minTemps = Double.MAX_VALUE;
-            int nbFinal = 0;
-            // Pour chaque robot, on cherche le meilleur à envoyer pour éteindre l'incendie
-            for (Robot robot : robots) {
-                robot.setCarte(donnes.getCarte());
-                robot.setSimulateur(simulateur);
-                EtatDetails details = etat.get(robot); // Récupère l'état actuel du robot
-                if (details != null) {
-                    t = details.getTempsCour();
-                } else {
-                    if (robotOptimal != null) {
-                        details = new EtatDetails(0.0, robotOptimal.getPosition(), robotOptimal.getNiveauReservoirEau(), t);
-                    } else {
-                        System.out.println("Erreur : Aucun robot disponible pour l'intervention.");
-                        // Handle this case as needed, maybe assign a default value or skip this step
-                    }
-                    etat.put(robotOptimal, details);
+            // Les robots sont examinés par borne inférieure croissante : dès que la borne du suivant dépasse
+            // le meilleur temps exact, aucun robot restant ne peut faire mieux
+            for (int i = 0; i < robots.size(); i++) {
+                ordre[i] = i;
+                bornes[i] = borneInferieure(robots.get(i), sortieMin[i], etat.get(robots.get(i)), incendie);
+            }
+            Arrays.sort(ordre, (a, b) -> Double.compare(bornes[a], bornes[b]));
+            for (int k = 0; k < ordre.length; k++) {
+                int i = ordre[k];
+                if (bornes[i] > minTemps) {
+                    nbRecherchesEvitees += ordre.length - k;
+                    break;
                 }
-                // Logique pour calculer le temps nécessaire pour éteindre un incendie
-                Case depart = details.getCaseAssociee();
-                double temps;
-                int volIntervention = Math.min(details.getReservoir(), incendies.get(i).getIntensite());
-
-                if (details.getReservoir() >= incendies.get(i).getIntensite()) {
-                    // Le robot a assez d'eau, on calcule le chemin et le temps d'intervention
-                    ResultatChemin resultat = r.calculerCheminOptimal(depart, destination, robot);
-                    temps = resultat.getTempsTotale() + details.getTemps() + incendies.get(i).tempsIntervention(robot, volIntervention);
-                    if (temps < minTemps) {
-                        minTemps = temps;
-                        robotOptimal = robot;
-                        remplir = false;
-                    }
-                } else {
-                    // Le robot n'a pas assez d'eau, on cherche l'eau la plus proche pour faire le plein
-                    SimpleEntry<Case, Double> closestWaterEntry = plusProche(donnes, depart, robot, casesEau);
-                    Case closestWater = closestWaterEntry.getKey();
-                    double minEau = closestWaterEntry.getValue();
-
-                    // Calcul du temps pour aller à la source d'eau, faire le plein, puis éteindre le feu
-                    ResultatChemin resultatFeu = r.calculerCheminOptimal(closestWater, destination, robot);
-                    double tempsRemplissage = robot.getTempsRemplissage(robot.getCapaciteMaxReservoir() - details.getReservoir());
-                    double tempsFeu = resultatFeu.getTempsTotale();
-                    int nbAllerRetour = (int) Math.ceil((double) incendies.get(i).getIntensite() / robot.getCapaciteMaxReservoir());
-                    double tempsTotal = minEau + tempsRemplissage + tempsFeu + details.getTemps() + incendies.get(i).tempsIntervention(robot, volIntervention);
-                    
-                    // Gestion des allers-retours pour récupérer de l'eau
-                    if (nbAllerRetour > 1) {
-                        SimpleEntry<Case, Double> eauPlusProcheFeu = plusProche(donnes, incendies.get(i).getPosition(), robot, casesEau);
-                        double minEauFeu = eauPlusProcheFeu.getValue();
-                        tempsTotal += ((2 * minEauFeu + tempsRemplissage) * (nbAllerRetour - 1));
-                    }
-
-                    // Mise à jour du robot à envoyer en fonction du temps le plus court
-                    if (tempsTotal < minTemps) {
-                        minTemps = tempsTotal;
-                        robotOptimal = robot;
-                        remplir = true;
-                        nbFinal = nbAllerRetour;
-                    }
+                Robot robot = robots.get(i);
+                double temps = estimerTemps(donnes, r, robot, etat.get(robot), incendie);
+                nbRecherchesExactes++;
+                // À temps égal, le robot de plus petit indice est retenu, comme dans un parcours dans l'ordre
+                if (temps < minTemps || (temps == minTemps && robotOptimal != null && i < indiceOptimal)) {
+                    minTemps = temps;
+                    robotOptimal = robot;
+                    indiceOptimal = i;
                 }
             }
-            // Logique de déplacement du robot choisi et d'intervention sur l'incendie  
-            int volumeRobotOptimal;
-            t = etat.get(robotOptimal).getTempsCour();
-            if (remplir) {
-                // Le robot doit se rendre à l'eau, se remplir et ensuite éteindre l'incendie
-                t += robotOptimal.deplacerVersCase(etat.get(robotOptimal).getCaseAssociee(), plusProche(donnes, etat.get(robotOptimal).getCaseAssociee(), robotOptimal, casesEau).getKey(), t + 1);
-                t+=robotOptimal.getTempsRemplissage(robotOptimal.getCapaciteMaxReservoir() - etat.get(robotOptimal).getReservoir());
-                
-                Remplissage remplissageEau = new Remplissage(robotOptimal, t, incendies.get(i).getIntensite() - etat.get(robotOptimal).getReservoir());
-                etat.put(robotOptimal, new EtatDetails(minTemps, plusProche(donnes, etat.get(robotOptimal).getCaseAssociee(), robotOptimal, casesEau).getKey(), Math.min(incendies.get(i).getIntensite(), robotOptimal.getCapaciteMaxReservoir()), t));
-                simulateur.ajouteEvenement(remplissageEau);
-
-                // Le robot se rend ensuite à l'incendie pour l'éteindre
-                t += robotOptimal.deplacerVersCase(etat.get(robotOptimal).getCaseAssociee(), destination, t + 1);
-                volumeRobotOptimal = Math.min(etat.get(robotOptimal).getReservoir(), incendies.get(i).getIntensite());
-                t+=incendies.get(i).tempsIntervention(robotOptimal, volumeRobotOptimal);
-                Intervention intervention = new Intervention(robotOptimal, incendies.get(i), t);
-
-                // Mise à jour de l'état du robot après l'intervention
-                etat.put(robotOptimal, new EtatDetails(minTemps, destination, etat.get(robotOptimal).getReservoir() - Math.min(incendies.get(i).getIntensite(), robotOptimal.getCapaciteMaxReservoir()), t));
-                simulateur.ajouteEvenement(intervention);
-
-                // Traitement des allers-retours pour les interventions multiples
-                while (nbFinal > 1) {
-                    // Même logique que précédemment pour gérer les allers-retours
-                    t += robotOptimal.deplacerVersCase(etat.get(robotOptimal).getCaseAssociee(), plusProche(donnes, incendies.get(i).getPosition(), robotOptimal, casesEau).getKey(), t + 1);
-                    t+=robotOptimal.getTempsRemplissage(robotOptimal.getCapaciteMaxReservoir() -  etat.get(robotOptimal).getReservoir());
-
-                    remplissageEau= new Remplissage(robotOptimal, t, incendies.get(i).getIntensite() - etat.get(robotOptimal).getReservoir());
-                    etat.put(robotOptimal, new EtatDetails(minTemps, plusProche(donnes, incendies.get(i).getPosition(), robotOptimal, casesEau).getKey(), Math.min(incendies.get(i).getIntensite(), robotOptimal.getCapaciteMaxReservoir()), t));
-                    simulateur.ajouteEvenement(remplissageEau);
-                    t += robotOptimal.deplacerVersCase(etat.get(robotOptimal).getCaseAssociee(), destination, t + 1);
-                    volumeRobotOptimal = Math.min(etat.get(robotOptimal).getReservoir(), incendies.get(i).getIntensite());
-                    t+=incendies.get(i).tempsIntervention(robotOptimal, volumeRobotOptimal);
-                    intervention= new Intervention(robotOptimal, incendies.get(i), t);
-
-                    etat.put(robotOptimal, new EtatDetails(minTemps, destination, etat.get(robotOptimal).getReservoir() - Math.min(incendies.get(i).getIntensite(), robotOptimal.getCapaciteMaxReservoir()), t));
-                    simulateur.ajouteEvenement(intervention);
-                    nbFinal--;
-                }
-            }else {
-                t += robotOptimal.deplacerVersCase(etat.get(robotOptimal).getCaseAssociee(), destination, t + 1);
-                t+=robotOptimal.getTempsRemplissage(robotOptimal.getCapaciteMaxReservoir() -  etat.get(robotOptimal).getReservoir());
-                volumeRobotOptimal = Math.min(etat.get(robotOptimal).getReservoir(), incendies.get(i).getIntensite());
-                t+=incendies.get(i).tempsIntervention(robotOptimal, volumeRobotOptimal);
-                Intervention intervention= new Intervention(robotOptimal, incendies.get(i), t);
-
-                etat.put(robotOptimal, new EtatDetails(minTemps, destination, etat.get(robotOptimal).getReservoir() - incendies.get(i).getIntensite(), t));
-                simulateur.ajouteEvenement(intervention);
+            if (robotOptimal == null) {
+                System.out.println("Erreur : Aucun robot disponible pour l'intervention.");
+                continue;
+            }
+            // Logique de déplacement du robot choisi et d'intervention sur l'incendie
+            planifierIntervention(donnes, cible, etat, robotOptimal, incendie, minTemps);
+        }
+        return finPlan(etat);
+    }
+
+    /**
+     * Retourne la date du dernier événement planifié, d'après l'état détaillé des robots.
+     *
+     * @param etat L'état détaillé de chaque robot à la fin de la planification.
+     * @return La plus grande date de fin des robots.
+     */
+    static long finPlan(Map<Robot, EtatDetails> etat) {
+        long fin = 0;
+        for (EtatDetails details : etat.values()) {
+            fin = Math.max(fin, details.getTempsCour());
+        }
+        return fin;
+    }
+
+    /**
+     * Minore la date estimée par {@link #estimerTemps} sans recherche de chemin : tout trajet vers l'incendie,
+     * direct ou par l'eau, compte au moins autant de pas que la distance de Manhattan, chacun au moins aussi long
+     * que le pas le plus rapide du robot ; s'y ajoutent le remplissage et l'intervention, qui ne dépendent pas
+     * du trajet.
+     *
+     * @param robot     Le robot à évaluer.
+     * @param sortieMin Le temps minimal du robot pour quitter une case, calculé par {@link #tempsSortieMin}.
+     * @param details   L'état détaillé du robot.
+     * @param incendie  L'incendie à éteindre.
+     * @return Une borne inférieure du temps estimé.
+     */
+    double borneInferieure(Robot robot, double sortieMin, EtatDetails details, Incendie incendie) {
+        Case depart = details.getCaseAssociee();
+        int distance = Math.abs(depart.getLigne() - incendie.getPosition().getLigne())
+                     + Math.abs(depart.getColonne() - incendie.getPosition().getColonne());
+        // La marge couvre les arrondis de la somme des pas dans la recherche de chemin
+        double borne = details.getTemps() + distance * sortieMin * (1 - 1e-12)
+                     + incendie.tempsIntervention(robot, Math.min(details.getReservoir(), incendie.getIntensite()));
+        if (details.getReservoir() < incendie.getIntensite()) {
+            double tempsRemplissage = robot.getTempsRemplissage(robot.getCapaciteMaxReservoir() - details.getReservoir());
+            borne += tempsRemplissage * nbAllersRetours(robot, incendie);
+        }
+        return borne;
+    }
+
+    /**
+     * Retourne le temps minimal nécessaire au robot pour quitter une case, sur le terrain où il est le plus rapide.
+     * La vitesse du robot est restaurée ensuite.
+     */
+    static double tempsSortieMin(Carte carte, Robot robot) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double sortie : ChampDistance.tempsDeSortie(carte, robot)) {
+            min = Math.min(min, sortie);
+        }
+        return min;
+    }
+
+    /**
+     * @return Le nombre de recherches exactes (chemin et eau la plus proche) faites lors de la dernière
+     *         planification de {@link #chefPompier}.
+     */
+    public long getNbRecherchesExactes() {
+        return nbRecherchesExactes;
+    }
+
+    /**
+     * @return Le nombre de recherches exactes évitées grâce aux bornes inférieures lors de la dernière
+     *         planification de {@link #chefPompier}.
+     */
+    public long getNbRecherchesEvitees() {
+        return nbRecherchesEvitees;
+    }
+
+    /**
+     * Estime la date à laquelle un robot aura éteint un incendie, à partir de son état détaillé :
+     * trajet éventuel par la source d'eau la plus avantageuse (voir {@link RechercheRemplissage}) et remplissage,
+     * trajet jusqu'à l'incendie, intervention,
+     * puis allers-retours vers l'eau la plus proche de l'incendie si un seul réservoir ne suffit pas.
+     *
+     * @param donnes   Instance de DonneeSimulation contenant la carte et les cases d'eau.
+     * @param r        La recherche de chemin sur la carte.
+     * @param robot    Le robot à évaluer.
+     * @param details  L'état détaillé du robot (position, réservoir, temps estimé déjà engagé).
+     * @param incendie L'incendie à éteindre.
+     * @return Le temps estimé, ou une valeur très grande si le robot ne peut pas atteindre l'incendie.
+     */
+    double estimerTemps(DonneeSimulation donnes, RechercheChemin r, Robot robot, EtatDetails details, Incendie incendie) {
+        Case destination = donnes.getCarte().getCase(incendie.getPosition().getLigne(), incendie.getPosition().getColonne());
+        Case depart = details.getCaseAssociee();
+        int volIntervention = Math.min(details.getReservoir(), incendie.getIntensite());
+
+        if (details.getReservoir() >= incendie.getIntensite()) {
+            // Le robot a assez d'eau, on calcule le chemin et le temps d'intervention
+            ResultatChemin resultat = cacheCouts(donnes).chemin(r, robot, depart, destination);
+            return resultat.getTempsTotale() + details.getTemps() + incendie.tempsIntervention(robot, volIntervention);
+        }
+
+        // Le robot n'a pas assez d'eau : on cherche la source d'eau qui minimise le trajet complet jusqu'au feu
+        double tempsRemplissage = robot.getTempsRemplissage(robot.getCapaciteMaxReservoir() - details.getReservoir());
+        RechercheRemplissage.Trajet trajet = trajetParEau(donnes, robot, depart, destination, tempsRemplissage);
+        if (trajet == null) {
+            return Double.MAX_VALUE;
+        }
+        int nbAllerRetour = nbAllersRetours(robot, incendie);
+        double tempsTotal = trajet.getTempsTrajets() + tempsRemplissage + details.getTemps() + incendie.tempsIntervention(robot, volIntervention);
+
+        // Gestion des allers-retours pour récupérer de l'eau
+        if (nbAllerRetour > 1) {
+            SimpleEntry<Case, Double> eauPlusProcheFeu = eauLaPlusProche(donnes, destination, robot);
+            double minEauFeu = eauPlusProcheFeu.getValue();
+            tempsTotal += ((2 * minEauFeu + tempsRemplissage) * (nbAllerRetour - 1));
+        }
+        return tempsTotal;
+    }
+
+    /**
+     * Retourne la mémoire des coûts de la planification en cours, créée au premier appel ou lorsque la carte
+     * a changé d'instance.
+     *
+     * @param donnes Les données de la simulation.
+     * @return La mémoire des coûts.
+     */
+    synchronized CacheCouts cacheCouts(DonneeSimulation donnes) {
+        if (cache == null || cache.getCarte() != donnes.getCarte()) {
+            cache = new CacheCouts(donnes.getCarte(), CacheCouts.CAPACITE_PAR_DEFAUT);
+        }
+        return cache;
+    }
+
+    /**
+     * Commence une nouvelle planification : les chronologies des robots sont vidées, et les coûts mémorisés
+     * lors des précédentes planifications sont oubliés, sauf si une mémoire partagée a été fournie pour cette carte.
+     *
+     * @param donnes Les données de la simulation.
+     */
+    synchronized void demarrerPlanification(DonneeSimulation donnes) {
+        chronologies.clear();
+        if (cachePartage != null && cachePartage.getCarte() == donnes.getCarte()) {
+            cache = cachePartage;
+        } else {
+            cache = new CacheCouts(donnes.getCarte(), CacheCouts.CAPACITE_PAR_DEFAUT);
+        }
+    }
+
+    /**
+     * Fournit une mémoire des coûts à conserver d'une planification à l'autre, éventuellement partagée par
+     * plusieurs stratégies planifiant en parallèle sur la même carte (voir {@link CacheCouts}) : les chemins
+     * calculés pour une flotte servent alors aux suivantes. Elle n'est utilisée que pour sa carte.
+     *
+     * @param cachePartage La mémoire partagée, ou null pour une nouvelle mémoire à chaque planification.
+     */
+    public synchronized void setCacheCoutsPartage(CacheCouts cachePartage) {
+        this.cachePartage = cachePartage;
+    }
+
+    /**
+     * @return La mémoire des coûts de la dernière planification (avec ses statistiques), ou null si aucune
+     *         planification n'a encore eu lieu.
+     */
+    public synchronized CacheCouts getCacheCouts() {
+        return cache;
+    }
+
+    /**
+     * Retourne la chronologie des tâches planifiées pour un robot depuis le début de la dernière planification
+     * (remplissages et interventions, avec leurs dates prévues).
+     *
+     * @param robot Le robot.
+     * @return La chronologie, ou null si aucune tâche n'a été planifiée pour ce robot.
+     */
+    public synchronized ChronologieRobot getChronologie(Robot robot) {
+        return chronologies.get(robot);
+    }
+
+    /**
+     * Retourne la chronologie d'un robot, créée à partir de son état détaillé à sa première tâche.
+     */
+    synchronized ChronologieRobot chronologie(Robot robot, EtatDetails details) {
+        return chronologies.computeIfAbsent(robot, r ->
+            new ChronologieRobot(r, details.getCaseAssociee(), details.getTempsCour(), details.getReservoir()));
+    }
+
+    /**
+     * Retire les chronologies de la planification en cours, par exemple après avoir construit un plan
+     * concurrent qui ne sera peut-être pas retenu.
+     *
+     * @return Les chronologies retirées.
+     */
+    synchronized Map<Robot, ChronologieRobot> retirerChronologies() {
+        Map<Robot, ChronologieRobot> retirees = new HashMap<>(chronologies);
+        chronologies.clear();
+        return retirees;
+    }
+
+    /**
+     * Remplace les chronologies de la planification en cours par celles d'un plan retenu.
+     *
+     * @param retenues Les chronologies retirées par {@link #retirerChronologies()}.
+     */
+    synchronized void remplacerChronologies(Map<Robot, ChronologieRobot> retenues) {
+        chronologies.clear();
+        chronologies.putAll(retenues);
+    }
+
+    /**
+     * Ajoute une tâche à la fin de la chronologie d'un robot. La tâche commence à la date de l'événement moins sa
+     * durée ; un trajet impossible, compté -1, peut faire reculer cette date, la tâche suit alors la précédente.
+     */
+    private static void noterTache(ChronologieRobot chronologie, ChronologieRobot.Tache tache, long dateEvenement) {
+        chronologie.ajouter(tache, Math.max(dateEvenement - tache.getDuree(), chronologie.getFin()));
+    }
+
+    /**
+     * Retourne l'eau la plus proche d'une case pour un robot, lue dans la mémoire des coûts.
+     */
+    private SimpleEntry<Case, Double> eauLaPlusProche(DonneeSimulation donnes, Case depart, Robot robot) {
+        return cacheCouts(donnes).eauLaPlusProche(robot, depart, () -> plusProche(donnes, depart, robot, donnes.getCasesEau()));
+    }
+
+    /**
+     * Retourne le trajet d'un robot jusqu'à une case avec un remplissage en chemin, lu dans la mémoire des coûts.
+     */
+    private RechercheRemplissage.Trajet trajetParEau(DonneeSimulation donnes, Robot robot, Case depart, Case destination,
+                                                     double tempsRemplissage) {
+        return cacheCouts(donnes).trajetParEau(robot, depart, destination,
+            () -> new RechercheRemplissage(donnes.getCarte(), donnes.getCasesEau()).calculer(robot, depart, destination, tempsRemplissage));
+    }
+
+    /**
+     * Déplace un robot selon le chemin optimal lu dans la mémoire des coûts.
+     *
+     * @return Le temps écoulé pendant le déplacement, ou -1 si le chemin n'existe pas.
+     */
+    private long deplacer(DonneeSimulation donnes, Ordonnanceur cible, Robot robot, Case depart, Case destination, long t) {
+        ResultatChemin chemin = cacheCouts(donnes).chemin(new RechercheChemin(donnes.getCarte()), robot, depart, destination);
+        return robot.deplacerSelonChemin(chemin, t, cible);
+    }
+
+    /**
+     * Retourne la durée du trajet optimal d'un robot entre deux cases telle que le simulateur la compte :
+     * somme des temps de chaque pas arrondis à la seconde inférieure, comme dans {@link Robot#deplacerSelonChemin}.
+     *
+     * @param donnes      Les données de la simulation.
+     * @param robot       Le robot qui se déplace.
+     * @param sortie      Les temps de sortie de chaque terrain pour ce robot ({@link ChampDistance#tempsDeSortie}).
+     * @param depart      La case de départ.
+     * @param destination La case de destination.
+     * @return La durée en secondes, ou {@link Long#MAX_VALUE} si le chemin n'existe pas.
+     */
+    long dureeTrajet(DonneeSimulation donnes, Robot robot, double[] sortie, Case depart, Case destination) {
+        ResultatChemin chemin = cacheCouts(donnes).chemin(new RechercheChemin(donnes.getCarte()), robot, depart, destination);
+        if (chemin.getCheminOptimal() == null) {
+            return Long.MAX_VALUE;
+        }
+        long duree = 0;
+        for (SimpleEntry<Case, Direction> etape : chemin.getCheminOptimal()) {
+            if (etape.getValue() != null) {
+                duree += (long) sortie[etape.getKey().getNature().ordinal()];
             }
-           
         }
+        return duree;
+    }
+
+    /**
+     * Retourne le nombre de réservoirs pleins nécessaires à un robot pour éteindre un incendie.
+     */
+    private static int nbAllersRetours(Robot robot, Incendie incendie) {
+        return (int) Math.ceil((double) incendie.getIntensite() / robot.getCapaciteMaxReservoir());
+    }
+
+    /**
+     * Planifie dans le simulateur l'intervention d'un robot sur un incendie, à partir de son état détaillé :
+     * remplissage à la source d'eau la plus avantageuse si son réservoir ne suffit pas, trajet, intervention, puis allers-retours
+     * éventuels. L'état détaillé du robot et sa chronologie ({@link #getChronologie}) sont mis à jour.
+     *
+     * @param donnes     Instance de DonneeSimulation contenant la carte et les cases d'eau.
+     * @param cible      La cible qui reçoit les événements : le simulateur, ou une liste pour comparer des plans.
+     * @param etat       L'état détaillé de chaque robot.
+     * @param robot      Le robot choisi.
+     * @param incendie   L'incendie à éteindre.
+     * @param temps      Le temps estimé par {@link #estimerTemps}, conservé dans l'état du robot.
+     */
+    void planifierIntervention(DonneeSimulation donnes, Ordonnanceur cible, Map<Robot, EtatDetails> etat,
+                               Robot robot, Incendie incendie, double temps) {
+        Case destination = donnes.getCarte().getCase(incendie.getPosition().getLigne(), incendie.getPosition().getColonne());
+        int volumeRobot;
+        long t = etat.get(robot).getTempsCour();
+        long debut;
+        ChronologieRobot chronologie = chronologie(robot, etat.get(robot));
+        if (etat.get(robot).getReservoir() < incendie.getIntensite()) {
+            int nbFinal = nbAllersRetours(robot, incendie);
+            // Le robot doit se rendre à l'eau, se remplir et ensuite éteindre l'incendie
+            double tempsRemplissage = robot.getTempsRemplissage(robot.getCapaciteMaxReservoir() - etat.get(robot).getReservoir());
+            RechercheRemplissage.Trajet trajet = trajetParEau(donnes, robot, etat.get(robot).getCaseAssociee(), destination, tempsRemplissage);
+            if (trajet == null) {
+                System.out.println("Erreur : Aucun trajet par l'eau jusqu'à l'incendie.");
+                return;
+            }
+            Case caseEau = trajet.getCaseEau();
+            t += robot.deplacerSelonChemin(trajet.getVersEau(), t + 1, cible);
+            debut = t;
+            t += tempsRemplissage;
+
+            Remplissage remplissageEau = new Remplissage(robot, t, incendie.getIntensite() - etat.get(robot).getReservoir());
+            noterTache(chronologie, new ChronologieRobot.Tache(caseEau, t - debut, remplissageEau.getVolume()), t);
+            etat.put(robot, new EtatDetails(temps, caseEau, Math.min(incendie.getIntensite(), robot.getCapaciteMaxReservoir()), t));
+            cible.ajouteEvenement(remplissageEau);
+
+            // Le robot se rend ensuite à l'incendie pour l'éteindre
+            t += robot.deplacerSelonChemin(trajet.getVersDestination(), t + 1, cible);
+            volumeRobot = Math.min(etat.get(robot).getReservoir(), incendie.getIntensite());
+            debut = t;
+            t += incendie.tempsIntervention(robot, volumeRobot);
+            Intervention intervention = new Intervention(robot, incendie, t);
+            noterTache(chronologie, new ChronologieRobot.Tache(incendie, destination, t - debut, volumeRobot), t);
+
+            // Mise à jour de l'état du robot après l'intervention
+            etat.put(robot, new EtatDetails(temps, destination, etat.get(robot).getReservoir() - Math.min(incendie.getIntensite(), robot.getCapaciteMaxReservoir()), t));
+            cible.ajouteEvenement(intervention);
+
+            // Traitement des allers-retours pour les interventions multiples
+            Case eauFeu = nbFinal > 1 ? eauLaPlusProche(donnes, destination, robot).getKey() : null;
+            while (nbFinal > 1) {
+                // Même logique que précédemment pour gérer les allers-retours
+                t += deplacer(donnes, cible, robot, etat.get(robot).getCaseAssociee(), eauFeu, t + 1);
+                debut = t;
+                t += robot.getTempsRemplissage(robot.getCapaciteMaxReservoir() - etat.get(robot).getReservoir());
+
+                remplissageEau = new Remplissage(robot, t, incendie.getIntensite() - etat.get(robot).getReservoir());
+                noterTache(chronologie, new ChronologieRobot.Tache(eauFeu, t - debut, remplissageEau.getVolume()), t);
+                etat.put(robot, new EtatDetails(temps, eauFeu, Math.min(incendie.getIntensite(), robot.getCapaciteMaxReservoir()), t));
+                cible.ajouteEvenement(remplissageEau);
+                t += deplacer(donnes, cible, robot, etat.get(robot).getCaseAssociee(), destination, t + 1);
+                volumeRobot = Math.min(etat.get(robot).getReservoir(), incendie.getIntensite());
+                debut = t;
+                t += incendie.tempsIntervention(robot, volumeRobot);
+                intervention = new Intervention(robot, incendie, t);
+                noterTache(chronologie, new ChronologieRobot.Tache(incendie, destination, t - debut, volumeRobot), t);
+
+                etat.put(robot, new EtatDetails(temps, destination, etat.get(robot).getReservoir() - Math.min(incendie.getIntensite(), robot.getCapaciteMaxReservoir()), t));
+                cible.ajouteEvenement(intervention);
+                nbFinal--;
+            }
+        } else {
+            t += deplacer(donnes, cible, robot, etat.get(robot).getCaseAssociee(), destination, t + 1);
+            t += robot.getTempsRemplissage(robot.getCapaciteMaxReservoir() - etat.get(robot).getReservoir());
+            volumeRobot = Math.min(etat.get(robot).getReservoir(), incendie.getIntensite());
+            debut = t;
+            t += incendie.tempsIntervention(robot, volumeRobot);
+            Intervention intervention = new Intervention(robot, incendie, t);
+            noterTache(chronologie, new ChronologieRobot.Tache(incendie, destination, t - debut, volumeRobot), t);
+
+            etat.put(robot, new EtatDetails(temps, destination, etat.get(robot).getReservoir() - incendie.getIntensite(), t));
+            cible.ajouteEvenement(intervention);
+        }
+    }
+
+    /**
+     * Simule en parallèle plusieurs variantes à partir d'une même bifurcation et retourne la meilleure.
+     * Chaque variante est une liste d'événements ajoutés à sa propre bifurcation ; elle est jugée sur
+     * l'intensité totale restante à l'horizon, puis sur la date d'extinction du dernier incendie.
+     *
+     * @param base      La bifurcation de départ, qui n'est pas modifiée.
+     * @param variantes Les événements de chaque variante.
+     * @param horizon   La date jusqu'à laquelle simuler.
+     * @return L'indice de la meilleure variante, ou -1 si la liste est vide.
+     */
+    public int meilleureVariante(Bifurcation base, List<List<Evenement>> variantes, long horizon) {
+        // Les bifurcations sont créées sur le fil appelant, puis simulées en parallèle
+        Bifurcation[] branches = new Bifurcation[variantes.size()];
+        for (int i = 0; i < branches.length; i++) {
+            branches[i] = base.bifurquer();
+            for (Evenement e : variantes.get(i)) {
+                branches[i].ajouteEvenement(e);
+            }
+        }
+        IntStream.range(0, branches.length).parallel().forEach(i -> branches[i].avancerJusqua(horizon));
+
+        int meilleure = -1;
+        for (int i = 0; i < branches.length; i++) {
+            if (meilleure < 0 || meilleureQue(branches[i], branches[meilleure])) {
+                meilleure = i;
+            }
+        }
+        return meilleure;
+    }
+
+    /**
+     * Compare deux bifurcations simulées : la plus faible intensité restante, puis l'extinction la plus précoce.
+     */
+    private boolean meilleureQue(Bifurcation a, Bifurcation b) {
+        if (a.getIntensiteRestante() != b.getIntensiteRestante()) {
+            return a.getIntensiteRestante() < b.getIntensiteRestante();
+        }
+        long da = a.getDateExtinction() < 0 ? Long.MAX_VALUE : a.getDateExtinction();
+        long db = b.getDateExtinction() < 0 ? Long.MAX_VALUE : b.getDateExtinction();
+        return da < db;
     }
 
      /**
@@ -216,65 +623,65 @@ public class Strategie {
         return new SimpleEntry<>(plusProcheeau, minEau);  // Retourne la case d'eau la plus proche et le temps pour y accéder
     }
 
-     /**
-     * Trie les incendies en fonction de leur proximité les uns des autres pour minimiser les déplacements.
+    /**
+     * Trie les incendies en fonction de leur proximité les uns des autres pour minimiser les déplacements :
+     * en partant du premier incendie, on passe à chaque étape à l'incendie restant le plus proche
+     * (à distance égale, celui de plus petit indice). La recherche du plus proche utilise une grille uniforme,
+     * ce qui permet de trier de très nombreux incendies.
      *
      * @param donnes  Instance de DonneeSimulation contenant la liste des incendies.
      * @return        Une liste triée des incendies par ordre de proximité.
      */
     public List<Incendie> trierIncendiesParProximite(DonneeSimulation donnes) {
         incendies = donnes.getIncendies();  // Récupère la liste des incendies
-    
+
         if (incendies.isEmpty()) return incendies;  // Si aucun incendie, retourne une liste vide
-    
-        List<Incendie> incendiesTries = new ArrayList<>();
-        Incendie incendieActuel = incendies.get(0);  // Commence par le premier incendie
-        incendiesTries.add(incendieActuel);  // Ajoute cet incendie à la liste triée
-        List<Incendie> incendiesRestants = new ArrayList<>(incendies);
-        incendiesRestants.remove(incendieActuel);  // Enlève cet incendie des incendies restants
-    
-        // Trie les incendies restants en fonction de leur proximité
-        while (!incendiesRestants.isEmpty()) {
-            Incendie incendieLePlusProche = trouverIncendieLePlusProche(incendieActuel, incendiesRestants);
-            incendiesTries.add(incendieLePlusProche);  // Ajoute l'incendie le plus proche à la liste triée
-            incendiesRestants.remove(incendieLePlusProche);  // Enlève l'incendie de la liste des restants
-            incendieActuel = incendieLePlusProche;  // L'incendie actuel devient celui qu'on vient de traiter
+
+        GrilleIncendies grille = new GrilleIncendies(incendies);
+        List<Incendie> incendiesTries = new ArrayList<>(incendies.size());
+        int actuel = 0;  // Commence par le premier incendie
+        while (actuel >= 0) {
+            Incendie incendieActuel = incendies.get(actuel);
+            incendiesTries.add(incendieActuel);
+            grille.supprimer(actuel);
+            actuel = grille.plusProche(incendieActuel.getPosition().getLigne(), incendieActuel.getPosition().getColonne());
         }
-    
         return incendiesTries;  // Retourne la liste triée des incendies
     }
-    
+
     /**
-     * Trouve l'incendie le plus proche d'un incendie donné parmi une liste d'incendies restants.
+     * Trie les incendies par temps de trajet estimé : pour chaque type de robot, un champ des temps de trajet
+     * est calculé depuis la position du premier robot de ce type, et chaque incendie est rangé selon le plus
+     * petit temps d'accès parmi les types (à temps égal, selon son indice). Les incendies inaccessibles
+     * sont placés à la fin.
      *
-     * @param incendieActuel      L'incendie de référence.
-     * @param incendiesRestants   Liste des incendies restants à évaluer.
-     * @return                    L'incendie le plus proche de l'incendie de référence.
-     */
-    private Incendie trouverIncendieLePlusProche(Incendie incendieActuel, List<Incendie> incendiesRestants) {
-        double distanceMin = Double.MAX_VALUE;
-        Incendie incendieLePlusProche = null;
-
-        for (Incendie incendie : incendiesRestants) {
-            double distance = calculerDistance(incendieActuel.getPosition(), incendie.getPosition());
-            if (distance < distanceMin) {
-                distanceMin = distance;
-                incendieLePlusProche = incendie;
+     * @param donnes  Instance de DonneeSimulation contenant la carte, les robots et les incendies.
+     * @return        Une liste des incendies triés par temps d'accès croissant.
+     */
+    public List<Incendie> trierIncendiesParTemps(DonneeSimulation donnes) {
+        Map<String, ChampDistance> champs = new HashMap<>();
+        for (Robot robot : donnes.getRobots()) {
+            champs.computeIfAbsent(robot.getType(), type -> new ChampDistance(donnes.getCarte(), robot, robot.getPosition()));
+        }
+
+        List<Incendie> liste = donnes.getIncendies();
+        double[] temps = new double[liste.size()];
+        Integer[] ordre = new Integer[liste.size()];
+        for (int i = 0; i < liste.size(); i++) {
+            Case position = donnes.getCarte().getCase(liste.get(i).getPosition().getLigne(), liste.get(i).getPosition().getColonne());
+            temps[i] = Double.MAX_VALUE;
+            for (ChampDistance champ : champs.values()) {
+                temps[i] = Math.min(temps[i], champ.getTemps(position));
             }
+            ordre[i] = i;
         }
-        return incendieLePlusProche;
-    }
+        // Tri stable : à temps égal, l'ordre des indices est conservé
+        Arrays.sort(ordre, (a, b) -> Double.compare(temps[a], temps[b]));
 
-    /**
-     * Calcule la distance entre deux cases en utilisant la distance euclidienne.
-     *
-     * @param c1  Première case.
-     * @param c2  Deuxième case.
-     * @return    La distance entre les deux cases.
-     */
-    private double calculerDistance(Case c1, Case c2) {
-        int dx = c1.getLigne() - c2.getLigne();
-        int dy = c1.getColonne() - c2.getColonne();
-        return dx * dx + dy * dy;
+        List<Incendie> incendiesTries = new ArrayList<>(liste.size());
+        for (int i : ordre) {
+            incendiesTries.add(liste.get(i));
+        }
+        return incendiesTries;
     }
-} 
+}
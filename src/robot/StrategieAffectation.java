@@ -0,0 +1,232 @@
+package robot;
+import carte.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import simulateur.*;
+
+/**
+ * Stratégie du chef pompier par affectation des robots aux incendies, guidée par la date de fin du plan.
+ * La matrice des dates de fin estimées robot × incendie (trajets, détours par l'eau, interventions, à partir de
+ * la charge déjà confiée à chaque robot) sert à chercher une affectation goulot : la plus tardive des dates de fin
+ * est minimale, puis leur somme par l'algorithme hongrois parmi les couples qui respectent ce seuil.
+ *
+ * <p>Tous les couples des robots libres au plus tôt sont retenus d'un coup ; les autres robots réservent
+ * l'incendie qui leur est affecté. L'affectation n'est recalculée que lorsque des robots se libèrent, et seules
+ * les lignes de ces robots sont recalculées : un tour coûte O(R² F) pour R robots et F incendies, et chaque tour
+ * retient au moins un couple.</p>
+ */
+public class StrategieAffectation extends Strategie {
+
+    // Coût d'un couple robot/incendie impossible, fini pour ne pas fausser les potentiels de l'algorithme hongrois
+    private static final double INACCESSIBLE = 1e15;
+
+    // Statistiques de la dernière planification
+    private long finAffectation;
+    private int nbTours;
+
+    /**
+     * Construit le plan par tours d'affectation goulot et planifie les déplacements, remplissages
+     * et interventions des robots.
+     *
+     * @param donnes      Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
+     */
+    @Override
+    public void chefPompier(DonneeSimulation donnes, Simulateur simulateur) {
+        demarrerPlanification(donnes);
+        for (Robot robot : donnes.getRobots()) {
+            robot.setCarte(donnes.getCarte());
+            robot.setSimulateur(simulateur);
+        }
+        finAffectation = planifierAffectation(donnes, simulateur);
+    }
+
+    /**
+     * Construit le plan par tours d'affectation goulot.
+     *
+     * @param donnes Les données de la simulation.
+     * @param cible  La cible des événements du plan.
+     * @return La date du dernier événement du plan.
+     */
+    private long planifierAffectation(DonneeSimulation donnes, Ordonnanceur cible) {
+        List<Robot> robots = donnes.getRobots();
+        List<Incendie> restants = new ArrayList<>();
+        for (Incendie incendie : donnes.getIncendies()) {
+            if (incendie.getIntensite() > 0) {
+                restants.add(incendie);
+            }
+        }
+        Map<Robot, EtatDetails> etat = new HashMap<>();
+        for (Robot robot : robots) {
+            etat.put(robot, new EtatDetails(0.0, robot.getPosition(), robot.getNiveauReservoirEau(), 0));
+        }
+        RechercheChemin r = new RechercheChemin(donnes.getCarte());
+        nbTours = 0;
+
+        // Matrice des dates de fin estimées, à partir de la charge déjà confiée à chaque robot. Seules les lignes
+        // des robots qui viennent de recevoir un incendie changent d'un tour à l'autre.
+        double[][] couts = new double[robots.size()][];
+        IntStream.range(0, robots.size()).parallel().forEach(i ->
+            couts[i] = ligneCouts(donnes, r, robots.get(i), etat.get(robots.get(i)), restants));
+
+        while (!restants.isEmpty()) {
+            // L'affectation porte sur tous les robots, mais seuls les couples des robots libres au plus tôt sont
+            // retenus : les autres réservent leur incendie jusqu'à ce qu'ils se libèrent à leur tour
+            int[] affectation = affectationGoulot(couts, Math.min(robots.size(), restants.size()));
+            double date = Double.MAX_VALUE;
+            for (int i = 0; i < affectation.length; i++) {
+                if (affectation[i] >= 0 && couts[i][affectation[i]] < INACCESSIBLE) {
+                    date = Math.min(date, etat.get(robots.get(i)).getTemps());
+                }
+            }
+            if (date == Double.MAX_VALUE) {
+                break;
+            }
+            nbTours++;
+            List<Integer> retenus = new ArrayList<>();
+            for (int i = 0; i < affectation.length; i++) {
+                if (affectation[i] >= 0 && couts[i][affectation[i]] < INACCESSIBLE
+                        && etat.get(robots.get(i)).getTemps() <= date) {
+                    retenus.add(i);
+                }
+            }
+
+            // Les couples retenus sont planifiés par date de fin croissante, puis les incendies affectés sont
+            // retirés de la matrice et les lignes de leurs robots recalculées
+            retenus.sort(Comparator.comparingDouble(i -> couts[i][affectation[i]]));
+            boolean[] affectes = new boolean[restants.size()];
+            for (int i : retenus) {
+                int j = affectation[i];
+                planifierIntervention(donnes, cible, etat, robots.get(i), restants.get(j), couts[i][j]);
+                affectes[j] = true;
+            }
+            List<Incendie> suivants = new ArrayList<>();
+            for (int j = 0; j < affectes.length; j++) {
+                if (!affectes[j]) {
+                    suivants.add(restants.get(j));
+                }
+            }
+            restants.clear();
+            restants.addAll(suivants);
+            for (int i = 0; i < couts.length; i++) {
+                couts[i] = sansColonnes(couts[i], affectes);
+            }
+            retenus.parallelStream().forEach(i ->
+                couts[i] = ligneCouts(donnes, r, robots.get(i), etat.get(robots.get(i)), restants));
+        }
+        if (!restants.isEmpty()) {
+            System.out.println("Erreur : Aucun robot ne peut atteindre les " + restants.size() + " incendies restants.");
+        }
+        return finPlan(etat);
+    }
+
+    /**
+     * Calcule les dates de fin estimées d'un robot pour chacun des incendies restants.
+     */
+    private double[] ligneCouts(DonneeSimulation donnes, RechercheChemin r, Robot robot, EtatDetails details,
+                                List<Incendie> restants) {
+        double[] ligne = new double[restants.size()];
+        for (int j = 0; j < ligne.length; j++) {
+            ligne[j] = Math.min(estimerTemps(donnes, r, robot, details, restants.get(j)), INACCESSIBLE);
+        }
+        return ligne;
+    }
+
+    /**
+     * Retire d'une ligne de la matrice des coûts les colonnes des incendies affectés.
+     */
+    private static double[] sansColonnes(double[] ligne, boolean[] affectes) {
+        double[] resultat = new double[ligne.length];
+        int n = 0;
+        for (int j = 0; j < ligne.length; j++) {
+            if (!affectes[j]) {
+                resultat[n++] = ligne[j];
+            }
+        }
+        return Arrays.copyOf(resultat, n);
+    }
+
+    /**
+     * Calcule une affectation goulot de taille k : le seuil est le plus petit coût tel qu'un couplage de k couples
+     * de coût au plus ce seuil existe (recherche dichotomique sur les coûts), puis la somme est minimisée par
+     * l'algorithme hongrois parmi les couples qui respectent le seuil.
+     *
+     * @return Pour chaque robot, l'indice de l'incendie affecté, ou -1.
+     */
+    private static int[] affectationGoulot(double[][] couts, int k) {
+        double[] valeurs = Arrays.stream(couts).flatMapToDouble(Arrays::stream)
+                                 .filter(c -> c < INACCESSIBLE).sorted().distinct().toArray();
+        if (valeurs.length == 0) {
+            int[] vide = new int[couts.length];
+            Arrays.fill(vide, -1);
+            return vide;
+        }
+        int bas = 0;
+        int haut = valeurs.length - 1;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (tailleCouplage(couts, valeurs[milieu]) >= k) {
+                haut = milieu;
+            } else {
+                bas = milieu + 1;
+            }
+        }
+        double seuil = valeurs[bas];
+        double[][] bornes = new double[couts.length][];
+        for (int i = 0; i < couts.length; i++) {
+            bornes[i] = new double[couts[i].length];
+            for (int j = 0; j < couts[i].length; j++) {
+                bornes[i][j] = couts[i][j] <= seuil ? couts[i][j] : INACCESSIBLE;
+            }
+        }
+        return Hongrois.affecter(bornes);
+    }
+
+    /**
+     * Calcule la taille d'un couplage maximal entre robots et incendies parmi les couples de coût au plus
+     * un seuil, par chemins augmentants.
+     */
+    private static int tailleCouplage(double[][] couts, double seuil) {
+        int[] robotDeColonne = new int[couts[0].length];
+        Arrays.fill(robotDeColonne, -1);
+        int taille = 0;
+        for (int i = 0; i < couts.length; i++) {
+            if (augmenter(couts, seuil, i, robotDeColonne, new boolean[robotDeColonne.length])) {
+                taille++;
+            }
+        }
+        return taille;
+    }
+
+    private static boolean augmenter(double[][] couts, double seuil, int i, int[] robotDeColonne, boolean[] vues) {
+        for (int j = 0; j < robotDeColonne.length; j++) {
+            if (couts[i][j] <= seuil && !vues[j]) {
+                vues[j] = true;
+                if (robotDeColonne[j] < 0 || augmenter(couts, seuil, robotDeColonne[j], robotDeColonne, vues)) {
+                    robotDeColonne[j] = i;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return La date de fin du plan par affectations goulot lors de la dernière planification.
+     */
+    public long getFinAffectation() {
+        return finAffectation;
+    }
+
+    /**
+     * @return Le nombre de tours d'affectation lors de la dernière planification.
+     */
+    public int getNbTours() {
+        return nbTours;
+    }
+}
@@ -0,0 +1,229 @@
+package robot;
+import carte.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import simulateur.*;
+
+/**
+ * Stratégie du chef pompier coopérative : l'intensité d'un incendie peut être partagée entre plusieurs robots.
+ * Chaque robot disponible propose une suite de livraisons d'eau sur l'incendie (son réservoir actuel s'il n'est
+ * pas vide, puis un réservoir plein par aller-retour à l'eau la plus proche), chacune avec sa date de fin.
+ * Les livraisons de tous les robots sont retenues par date croissante jusqu'à couvrir l'intensité : un robot
+ * proche mais lent à se remplir et un robot éloigné mais de grande capacité se partagent ainsi l'incendie selon
+ * leur date d'arrivée et leur débit, et leurs interventions s'entrelacent dans le simulateur.
+ *
+ * <p>Les incendies sont traités dans l'ordre de proximité, chacun à partir de l'état des robots laissé par les
+ * précédents. Les temps de trajet sont lus sur un {@link ModeleTrajets}.</p>
+ */
+public class StrategieCooperative extends Strategie {
+
+    private List<Robot> robots;
+    private List<Incendie> feux;
+    private ModeleTrajets modele;
+    private Carte carte;
+    private Simulateur simulateur;
+
+    // État de chaque robot : date de disponibilité estimée, origine dans le modèle et réservoir,
+    // puis date et position réelles des événements planifiés
+    private double[] dispo;
+    private int[] origine;
+    private int[] reservoir;
+    private long[] date;
+    private Case[] position;
+
+    // Statistiques de la dernière planification
+    private int nbIncendiesPartages;
+    private double makespan;
+
+    /**
+     * Partage chaque incendie entre les robots qui l'éteindraient le plus tôt ensemble,
+     * puis planifie les déplacements, remplissages et interventions.
+     *
+     * @param donnes      Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
+     */
+    @Override
+    public void chefPompier(DonneeSimulation donnes, Simulateur simulateur) {
+        this.carte = donnes.getCarte();
+        this.simulateur = simulateur;
+        robots = donnes.getRobots();
+        feux = new ArrayList<>();
+        for (Incendie incendie : trierIncendiesParProximite(donnes)) {
+            if (incendie.getIntensite() > 0) {
+                feux.add(incendie);
+            }
+        }
+        int nbRobots = robots.size();
+        dispo = new double[nbRobots];
+        origine = new int[nbRobots];
+        reservoir = new int[nbRobots];
+        date = new long[nbRobots];
+        position = new Case[nbRobots];
+        for (int r = 0; r < nbRobots; r++) {
+            Robot robot = robots.get(r);
+            robot.setCarte(carte);
+            robot.setSimulateur(simulateur);
+            origine[r] = -1;
+            reservoir[r] = robot.getNiveauReservoirEau();
+            position[r] = robot.getPosition();
+        }
+        modele = new ModeleTrajets(donnes, robots, feux);
+
+        nbIncendiesPartages = 0;
+        for (int j = 0; j < feux.size(); j++) {
+            if (!partager(j)) {
+                System.out.println("Erreur : Aucun robot ne peut atteindre l'incendie " + j + ".");
+            }
+        }
+        makespan = 0;
+        for (double d : dispo) {
+            makespan = Math.max(makespan, d);
+        }
+    }
+
+    /**
+     * Livraison d'eau proposée par un robot : date de fin de l'intervention et volume déversé.
+     */
+    private static final class Livraison {
+        final double fin;   // Date de fin de l'intervention
+        final int robot;    // Indice du robot
+        final int volume;   // Volume déversé
+
+        Livraison(double fin, int robot, int volume) {
+            this.fin = fin;
+            this.robot = robot;
+            this.volume = volume;
+        }
+    }
+
+    /**
+     * Partage un incendie entre les robots : les livraisons proposées sont retenues par date de fin croissante
+     * jusqu'à couvrir son intensité, et chaque livraison retenue est aussitôt planifiée.
+     *
+     * @return false si aucun robot ne peut atteindre l'incendie.
+     */
+    private boolean partager(int j) {
+        int restant = feux.get(j).getIntensite();
+        PriorityQueue<Livraison> propositions = new PriorityQueue<>(
+                (a, b) -> a.fin != b.fin ? Double.compare(a.fin, b.fin) : Integer.compare(a.robot, b.robot));
+        for (int r = 0; r < robots.size(); r++) {
+            Livraison livraison = proposer(r, j, restant);
+            if (livraison != null) {
+                propositions.add(livraison);
+            }
+        }
+        if (propositions.isEmpty()) {
+            return false;
+        }
+
+        boolean[] participe = new boolean[robots.size()];
+        int nbParticipants = 0;
+        long derniereIntervention = 0;
+        while (restant > 0 && !propositions.isEmpty()) {
+            Livraison livraison = propositions.poll();
+            int r = livraison.robot;
+            if (livraison.volume > restant) {
+                // Le robot ne déverserait que ce qui reste : sa livraison, plus courte, est reclassée
+                propositions.add(proposer(r, j, restant));
+                continue;
+            }
+            long auPlusTot = 0;
+            if (livraison.volume == restant) {
+                // Dernière livraison : le robot ne doit déverser que ce qui reste. Les dates des événements sont
+                // arrondies, elle pourrait donc précéder une autre livraison et déverser plus que prévu :
+                // elle est retardée jusqu'à la dernière intervention déjà planifiée sur l'incendie
+                auPlusTot = derniereIntervention;
+            }
+            derniereIntervention = Math.max(derniereIntervention, livrer(r, j, livraison, auPlusTot));
+            restant -= livraison.volume;
+            if (!participe[r]) {
+                participe[r] = true;
+                nbParticipants++;
+            }
+            if (restant > 0) {
+                Livraison suivante = proposer(r, j, restant);
+                if (suivante != null) {
+                    propositions.add(suivante);
+                }
+            }
+        }
+        if (nbParticipants > 1) {
+            nbIncendiesPartages++;
+        }
+        return true;
+    }
+
+    /**
+     * Calcule la prochaine livraison du robot r sur l'incendie j : son réservoir actuel s'il n'est pas vide,
+     * sinon un réservoir plein après un détour par l'eau la plus proche.
+     *
+     * @return La livraison, ou null si le robot ne peut pas atteindre l'incendie ou l'eau.
+     */
+    private Livraison proposer(int r, int j, int restant) {
+        Robot robot = robots.get(r);
+        Incendie feu = feux.get(j);
+        double fin;
+        int volume;
+        if (reservoir[r] > 0) {
+            volume = Math.min(reservoir[r], restant);
+            fin = dispo[r] + modele.trajet(r, origine[r], j);
+        } else {
+            volume = Math.min(robot.getCapaciteMaxReservoir(), restant);
+            fin = dispo[r] + modele.eau(r, origine[r]) + robot.getTempsRemplissage(robot.getCapaciteMaxReservoir())
+                + modele.eauVersFeu(r, origine[r], j);
+        }
+        if (fin >= Double.MAX_VALUE) {
+            return null;
+        }
+        return new Livraison(fin + feu.tempsIntervention(robot, volume), r, volume);
+    }
+
+    /**
+     * Met à jour l'état du robot r après une livraison sur l'incendie j et planifie ses événements :
+     * remplissage éventuel, trajet et intervention, celle-ci pas avant la date donnée.
+     *
+     * @return La date de l'intervention.
+     */
+    private long livrer(int r, int j, Livraison livraison, long auPlusTot) {
+        Robot robot = robots.get(r);
+        Incendie feu = feux.get(j);
+        Case destination = carte.getCase(feu.getPosition().getLigne(), feu.getPosition().getColonne());
+        long t = date[r];
+        if (reservoir[r] == 0) {
+            int volume = robot.getCapaciteMaxReservoir();
+            Case eau = modele.caseEau(r, origine[r]);
+            t += robot.deplacerVersCase(position[r], eau, t + 1, simulateur);
+            t += robot.getTempsRemplissage(volume);
+            simulateur.ajouteEvenement(new Remplissage(robot, t, volume));
+            reservoir[r] = volume;
+            position[r] = eau;
+        }
+        t += robot.deplacerVersCase(position[r], destination, t + 1, simulateur);
+        t += feu.tempsIntervention(robot, livraison.volume);
+        long attente = Math.max(0, auPlusTot - t);
+        t += attente;
+        simulateur.ajouteEvenement(new Intervention(robot, feu, t));
+
+        reservoir[r] -= livraison.volume;
+        position[r] = destination;
+        origine[r] = j;
+        dispo[r] = livraison.fin + attente;
+        date[r] = t;
+        return t;
+    }
+
+    /**
+     * @return Le nombre d'incendies partagés entre plusieurs robots lors de la dernière planification.
+     */
+    public int getNbIncendiesPartages() {
+        return nbIncendiesPartages;
+    }
+
+    /**
+     * @return La date de fin estimée du plan lors de la dernière planification.
+     */
+    public double getMakespan() {
+        return makespan;
+    }
+}
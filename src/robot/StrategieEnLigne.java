@@ -0,0 +1,140 @@
+package robot;
+import carte.*;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import simulateur.*;
+
+/**
+ * Stratégie du chef pompier en ligne.
+ * Au lieu de planifier tout l'incident dès le départ, la stratégie ne confie à chaque robot qu'un incendie à la
+ * fois : lorsqu'un robot exécute son dernier événement, le simulateur la prévient et elle lui choisit son
+ * prochain incendie à partir de l'état réel de la simulation (position, réservoir et intensités courantes).
+ * Le coût de la planification est ainsi réparti sur toute la simulation, et la file d'événements ne contient
+ * jamais que les tâches en cours.
+ * Lorsque la simulation revient à un état antérieur, les tâches en cours sont reconstruites à partir des
+ * interventions encore en attente dans le simulateur.
+ */
+public class StrategieEnLigne extends Strategie implements ObservateurRobotLibre {
+
+    private DonneeSimulation donnes;
+    private Simulateur simulateur;
+    private RechercheChemin recherche;
+    private final Map<Robot, EtatDetails> etat = new HashMap<>();
+    private final Map<Robot, Incendie> taches = new HashMap<>(); // Incendie en cours de chaque robot occupé
+    private final Set<Incendie> affectes = new HashSet<>();      // Incendies déjà confiés à un robot
+    private final Set<Robot> libres = new LinkedHashSet<>();     // Robots sans tâche, dans l'ordre de la liste
+
+    /**
+     * Inscrit la stratégie auprès du simulateur et confie un premier incendie à chaque robot,
+     * à partir de la date courante de la simulation.
+     *
+     * @param donnes      Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
+     */
+    @Override
+    public void chefPompier(DonneeSimulation donnes, Simulateur simulateur) {
+        demarrerPlanification(donnes);
+        this.donnes = donnes;
+        this.simulateur = simulateur;
+        this.recherche = new RechercheChemin(donnes.getCarte());
+        for (Robot robot : donnes.getRobots()) {
+            robot.setCarte(donnes.getCarte());
+            robot.setSimulateur(simulateur);
+            libres.add(robot);
+        }
+        simulateur.ajouterObservateur(this);
+        repartir(simulateur.getDateSimulation());
+    }
+
+    /**
+     * Libère l'incendie dont le robot s'occupait (il redevient disponible s'il brûle encore),
+     * puis répartit les incendies disponibles entre les robots libres.
+     *
+     * @param robot Le robot devenu libre.
+     * @param date  La date de simulation courante.
+     */
+    @Override
+    public void robotLibre(Robot robot, long date) {
+        Incendie termine = taches.remove(robot);
+        if (termine != null) {
+            affectes.remove(termine);
+        }
+        libres.add(robot);
+        repartir(date);
+    }
+
+    /**
+     * Reconstruit les tâches en cours à partir de l'état restauré du simulateur : chaque robot qui a encore
+     * des événements en attente s'occupe de l'incendie de ses interventions, les autres sont libres.
+     * Les incendies disponibles sont ensuite répartis entre les robots libres.
+     *
+     * @param date La date de simulation restaurée.
+     */
+    @Override
+    public void etatRestaure(long date) {
+        taches.clear();
+        affectes.clear();
+        libres.clear();
+        for (Evenement e : simulateur.getEvenementsEnAttente()) {
+            if (e instanceof Intervention) {
+                Intervention intervention = (Intervention) e;
+                taches.put(intervention.getRobot(), intervention.getIncendie());
+            }
+        }
+        affectes.addAll(taches.values());
+        for (Robot robot : donnes.getRobots()) {
+            if (simulateur.getNbEvenementsEnAttente(robot) == 0) {
+                libres.add(robot);
+            }
+        }
+        repartir(date);
+    }
+
+    /**
+     * Confie un incendie à chaque robot libre, tant qu'il reste des incendies accessibles non affectés.
+     */
+    private void repartir(long date) {
+        for (Iterator<Robot> it = libres.iterator(); it.hasNext(); ) {
+            if (affecter(it.next(), date)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Confie à un robot l'incendie non affecté qu'il éteindrait le plus tôt, à partir de son état réel.
+     *
+     * @return true si un incendie a été confié au robot.
+     */
+    private boolean affecter(Robot robot, long date) {
+        EtatDetails details = new EtatDetails((double) date, robot.getPosition(), robot.getNiveauReservoirEau(), date);
+        Incendie choisi = null;
+        double minTemps = Double.MAX_VALUE;
+        for (Incendie incendie : donnes.getIncendies()) {
+            if (incendie.getIntensite() > 0 && !affectes.contains(incendie)) {
+                double temps = estimerTemps(donnes, recherche, robot, details, incendie);
+                if (temps < minTemps) {
+                    minTemps = temps;
+                    choisi = incendie;
+                }
+            }
+        }
+        if (choisi == null) {
+            return false;
+        }
+
+        etat.put(robot, details);
+        planifierIntervention(donnes, simulateur, etat, robot, choisi, minTemps);
+        if (simulateur.getNbEvenementsEnAttente(robot) == 0) {
+            // Aucun événement n'a pu être planifié : le robot reste libre
+            return false;
+        }
+        taches.put(robot, choisi);
+        affectes.add(choisi);
+        return true;
+    }
+}
@@ -0,0 +1,238 @@
+package robot;
+import carte.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import simulateur.*;
+
+/**
+ * Stratégie du chef pompier par enchères avec surenchère.
+ * L'offre d'un robot pour un incendie est la date à laquelle il l'aurait éteint après les interventions qui lui
+ * sont déjà confiées (position, réservoir et date de disponibilité à la fin de sa file). Chaque incendie ouvert
+ * est attribué à titre provisoire au robot de plus faible offre, à ce prix. L'attribution confirmée et planifiée
+ * en premier est celle de plus fort regret, l'écart entre la deuxième offre et le prix : c'est l'incendie qui
+ * perdrait le plus à revenir à un autre robot.
+ *
+ * <p>Seul le robot confirmé, dont l'état a changé, refait ses offres. Les incendies dont il avait la meilleure ou
+ * la deuxième offre sont remis aux enchères entre tous les robots ; sur les autres, il ne surenchérit que si sa
+ * borne inférieure (voir {@link Strategie#borneInferieure}) est sous la deuxième offre, c'est-à-dire sur les
+ * incendies proches de sa nouvelle position. Les autres offres restent valables, puisque l'état de leur robot
+ * n'a pas changé.</p>
+ */
+public class StrategieEnchere extends Strategie {
+
+    // Offre pas encore calculée pour l'état courant du robot
+    private static final double INCONNUE = -1;
+
+    // Statistiques de la dernière planification
+    private int nbOffresCalculees;
+    private int nbSurencheres;
+
+    /**
+     * Coordonne les robots pour éteindre les incendies par enchères successives,
+     * puis planifie les déplacements, remplissages et interventions.
+     *
+     * @param donnes      Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
+     */
+    @Override
+    public void chefPompier(DonneeSimulation donnes, Simulateur simulateur) {
+        demarrerPlanification(donnes);
+        List<Robot> robots = donnes.getRobots();
+        List<Incendie> incendies = donnes.getIncendies();
+        int nbRobots = robots.size();
+        int nbIncendies = incendies.size();
+
+        Map<Robot, EtatDetails> etat = new HashMap<>();
+        for (Robot robot : robots) {
+            robot.setCarte(donnes.getCarte());
+            robot.setSimulateur(simulateur);
+            etat.put(robot, new EtatDetails(0.0, robot.getPosition(), robot.getNiveauReservoirEau(), 0));
+        }
+        RechercheChemin r = new RechercheChemin(donnes.getCarte());
+        double[] sortieMin = new double[nbRobots];
+        for (int i = 0; i < nbRobots; i++) {
+            sortieMin[i] = tempsSortieMin(donnes.getCarte(), robots.get(i));
+        }
+        nbOffresCalculees = 0;
+        nbSurencheres = 0;
+
+        Enchere enchere = new Enchere(donnes, r, etat, sortieMin);
+        for (int i = 0; i < nbRobots; i++) {
+            enchere.preparerOffres(i);
+        }
+        boolean[] ouverts = new boolean[nbIncendies];
+        for (int j = 0; j < nbIncendies; j++) {
+            ouverts[j] = incendies.get(j).getIntensite() > 0;
+            if (ouverts[j]) {
+                enchere.adjuger(j);
+            }
+        }
+
+        while (true) {
+            // Confirmation de l'attribution provisoire de plus fort regret
+            int j = -1;
+            for (int k = 0; k < nbIncendies; k++) {
+                if (ouverts[k] && enchere.detenteur[k] >= 0 && (j < 0 || enchere.regret(k) > enchere.regret(j))) {
+                    j = k;
+                }
+            }
+            if (j < 0) {
+                break;
+            }
+            int gagnant = enchere.detenteur[j];
+            planifierIntervention(donnes, simulateur, etat, robots.get(gagnant), incendies.get(j), enchere.prix(j));
+            ouverts[j] = false;
+
+            // Le gagnant refait ses offres : les incendies où il avait la meilleure ou la deuxième offre sont remis
+            // aux enchères, et il surenchérit sur les autres
+            enchere.preparerOffres(gagnant);
+            for (int k = 0; k < nbIncendies; k++) {
+                if (!ouverts[k]) {
+                    continue;
+                }
+                if (enchere.detenteur[k] == gagnant || enchere.second[k] == gagnant) {
+                    enchere.adjuger(k);
+                } else if (enchere.surencherir(gagnant, k)) {
+                    nbSurencheres++;
+                }
+            }
+        }
+
+        for (int j = 0; j < nbIncendies; j++) {
+            if (ouverts[j]) {
+                System.out.println("Erreur : Aucun robot ne peut atteindre l'incendie " + j + ".");
+            }
+        }
+    }
+
+    /**
+     * Offres des robots et attributions provisoires des incendies. Les offres sont calculées à la demande et
+     * restent valables tant que l'état de leur robot ne change pas.
+     */
+    private final class Enchere {
+        private final DonneeSimulation donnes;
+        private final RechercheChemin r;
+        private final Map<Robot, EtatDetails> etat;
+        private final double[] sortieMin;
+        private final double[][] offres;
+        private final double[][] bornes;
+        private final int[] detenteur; // Robot qui détient chaque incendie, -1 si aucun ne l'atteint
+        private final int[] second;    // Robot de la deuxième offre de chaque incendie, -1 si aucun
+
+        Enchere(DonneeSimulation donnes, RechercheChemin r, Map<Robot, EtatDetails> etat, double[] sortieMin) {
+            this.donnes = donnes;
+            this.r = r;
+            this.etat = etat;
+            this.sortieMin = sortieMin;
+            int nbRobots = donnes.getRobots().size();
+            int nbIncendies = donnes.getIncendies().size();
+            offres = new double[nbRobots][nbIncendies];
+            bornes = new double[nbRobots][nbIncendies];
+            detenteur = new int[nbIncendies];
+            second = new int[nbIncendies];
+            Arrays.fill(detenteur, -1);
+        }
+
+        /**
+         * Invalide les offres d'un robot dont l'état a changé et calcule ses bornes inférieures.
+         */
+        void preparerOffres(int i) {
+            Robot robot = donnes.getRobots().get(i);
+            Arrays.fill(offres[i], INCONNUE);
+            for (int j = 0; j < bornes[i].length; j++) {
+                bornes[i][j] = borneInferieure(robot, sortieMin[i], etat.get(robot), donnes.getIncendies().get(j));
+            }
+        }
+
+        /**
+         * Attribue un incendie au robot de plus faible offre et retient la deuxième offre. Les robots sont examinés
+         * par borne croissante et l'examen s'arrête dès que la borne du suivant dépasse la deuxième offre.
+         */
+        void adjuger(int j) {
+            Integer[] ordre = new Integer[offres.length];
+            for (int i = 0; i < ordre.length; i++) {
+                ordre[i] = i;
+            }
+            Arrays.sort(ordre, (a, b) -> Double.compare(bornes[a][j], bornes[b][j]));
+            detenteur[j] = -1;
+            second[j] = -1;
+            for (int i : ordre) {
+                if (second[j] >= 0 && bornes[i][j] >= offres[second[j]][j]) {
+                    break;
+                }
+                double o = offre(i, j);
+                if (o >= Double.MAX_VALUE) {
+                    continue;
+                }
+                if (detenteur[j] < 0 || o < prix(j)) {
+                    second[j] = detenteur[j];
+                    detenteur[j] = i;
+                } else if (second[j] < 0 || o < offres[second[j]][j]) {
+                    second[j] = i;
+                }
+            }
+        }
+
+        /**
+         * @return L'écart entre la deuxième offre et le prix d'un incendie détenu, infini si un seul robot l'atteint.
+         */
+        double regret(int j) {
+            return second[j] < 0 ? Double.MAX_VALUE : offres[second[j]][j] - prix(j);
+        }
+
+        /**
+         * Le robot prend l'incendie si son offre est strictement sous le prix courant, ou devient la deuxième offre ;
+         * l'offre n'est calculée que si sa borne inférieure est sous la deuxième offre.
+         *
+         * @return true si le robot a pris l'incendie à un autre robot.
+         */
+        boolean surencherir(int i, int j) {
+            double limite = second[j] < 0 ? Double.MAX_VALUE : offres[second[j]][j];
+            if (detenteur[j] < 0 || bornes[i][j] >= limite) {
+                return false;
+            }
+            double o = offre(i, j);
+            if (o < prix(j)) {
+                second[j] = detenteur[j];
+                detenteur[j] = i;
+                return true;
+            }
+            if (o < limite) {
+                second[j] = i;
+            }
+            return false;
+        }
+
+        /**
+         * @return Le prix d'un incendie détenu : l'offre de son détenteur.
+         */
+        double prix(int j) {
+            return offres[detenteur[j]][j];
+        }
+
+        private double offre(int i, int j) {
+            if (offres[i][j] == INCONNUE) {
+                Robot robot = donnes.getRobots().get(i);
+                offres[i][j] = estimerTemps(donnes, r, robot, etat.get(robot), donnes.getIncendies().get(j));
+                nbOffresCalculees++;
+            }
+            return offres[i][j];
+        }
+    }
+
+    /**
+     * @return Le nombre d'offres calculées lors de la dernière planification.
+     */
+    public int getNbOffresCalculees() {
+        return nbOffresCalculees;
+    }
+
+    /**
+     * @return Le nombre de surenchères lors de la dernière planification.
+     */
+    public int getNbSurencheres() {
+        return nbSurencheres;
+    }
+}
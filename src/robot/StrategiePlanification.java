@@ -0,0 +1,28 @@
+package robot;
+
+import simulateur.*;
+
+/**
+ * Interface des stratégies du chef pompier : à partir des données d'une simulation, une stratégie planifie
+ * dans le simulateur les déplacements, remplissages et interventions des robots.
+ * Elle permet de choisir la stratégie d'une simulation, ou d'en comparer plusieurs sur les mêmes cartes
+ * (voir {@link simulateur.ComparaisonStrategies}).
+ */
+public interface StrategiePlanification {
+
+    /**
+     * Retourne le nom de la stratégie, utilisé pour l'afficher et la désigner.
+     *
+     * @return Le nom de la stratégie.
+     */
+    String getNom();
+
+    /**
+     * Planifie les événements des robots dans le simulateur. Une stratégie en ligne peut aussi
+     * s'inscrire auprès du simulateur pour continuer à planifier pendant la simulation.
+     *
+     * @param donnes     Les données de la simulation (carte, robots, incendies et cases d'eau).
+     * @param simulateur Le simulateur qui reçoit les événements.
+     */
+    void planifier(DonneeSimulation donnes, Simulateur simulateur);
+}
@@ -0,0 +1,348 @@
+package robot;
+import carte.*;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import simulateur.*;
+
+/**
+ * Stratégie du chef pompier « à tout moment » : un premier plan est construit rapidement, puis amélioré par
+ * recherche locale jusqu'à épuisement d'un budget de temps de calcul, le meilleur plan trouvé étant toujours
+ * conservé.
+ *
+ * <p>Un plan donne à chaque robot une suite d'incendies à éteindre. Il est évalué sur un modèle simplifié de la
+ * stratégie gloutonne (trajets, détours par l'eau la plus proche, allers-retours et interventions), dont tous
+ * les temps de trajet sont calculés une fois pour toutes par des champs de distances : entre chaque couple
+ * d'incendies pour chaque type de robot, depuis la position de départ de chaque robot, et vers l'eau la plus
+ * proche. Un plan est jugé sur la date de fin du dernier robot, puis sur la somme des dates de fin.</p>
+ *
+ * <p>Les mouvements essayés sont le 2-opt dans la suite d'un robot, le déplacement d'un incendie d'un robot à
+ * un autre et l'échange de deux incendies entre robots. Seules les suites modifiées sont réévaluées.</p>
+ *
+ * <p>Le budget couvre toute la planification, événements compris. Les événements du plan initial sont construits
+ * avant la recherche locale : le temps de cette construction est réservé pour celle du plan final, et ils sont
+ * conservés tels quels si aucun mouvement n'a été retenu. L'eau la plus proche de chaque incendie est reprise
+ * du modèle plutôt que recherchée à nouveau. Un budget trop court pour construire le plan initial est dépassé
+ * de ce qu'il faut pour le construire.</p>
+ */
+public class StrategieRechercheLocale extends Strategie {
+
+    /**
+     * Budget de calcul par défaut, en millisecondes.
+     */
+    public static final long BUDGET_PAR_DEFAUT = 300;
+
+    private final long budget;
+    private final Random hasard;
+
+    // Statistiques de la dernière planification
+    private double makespanInitial;
+    private double makespanFinal;
+    private long nbMouvements;
+    private long nbAmeliorations;
+
+    // Modèle de coût de la planification en cours
+    private List<Robot> robots;
+    private List<Incendie> feux;
+    private ModeleTrajets modele;
+
+    /**
+     * Constructeur avec le budget de calcul par défaut.
+     */
+    public StrategieRechercheLocale() {
+        this(BUDGET_PAR_DEFAUT);
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param budget Le budget de calcul total de la planification, construction des événements comprise,
+     *               en millisecondes.
+     */
+    public StrategieRechercheLocale(long budget) {
+        this.budget = budget;
+        this.hasard = new Random(0);
+    }
+
+    /**
+     * Construit un plan glouton, l'améliore par recherche locale dans la limite du budget,
+     * puis planifie les déplacements, remplissages et interventions du meilleur plan.
+     * Le temps de construction des événements du plan initial est réservé pour ceux du plan final.
+     *
+     * @param donnes      Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
+     */
+    @Override
+    public void chefPompier(DonneeSimulation donnes, Simulateur simulateur) {
+        demarrerPlanification(donnes);
+        long echeance = System.nanoTime() + budget * 1_000_000;
+        robots = donnes.getRobots();
+        feux = new ArrayList<>();
+        for (Incendie incendie : trierIncendiesParProximite(donnes)) {
+            if (incendie.getIntensite() > 0) {
+                feux.add(incendie);
+            }
+        }
+        for (Robot robot : robots) {
+            robot.setCarte(donnes.getCarte());
+            robot.setSimulateur(simulateur);
+        }
+        modele = new ModeleTrajets(donnes, robots, feux);
+
+        // Plan initial : chaque incendie, dans l'ordre de proximité, au robot qui le finirait le plus tôt
+        List<List<Integer>> plan = new ArrayList<>();
+        double[] fins = new double[robots.size()];
+        for (int r = 0; r < robots.size(); r++) {
+            plan.add(new ArrayList<>());
+        }
+        for (int j = 0; j < feux.size(); j++) {
+            int meilleur = -1;
+            double meilleureFin = Double.MAX_VALUE;
+            for (int r = 0; r < robots.size(); r++) {
+                plan.get(r).add(j);
+                double fin = evaluer(r, plan.get(r));
+                plan.get(r).remove(plan.get(r).size() - 1);
+                if (fin < meilleureFin) {
+                    meilleureFin = fin;
+                    meilleur = r;
+                }
+            }
+            if (meilleur < 0) {
+                System.out.println("Erreur : Aucun robot ne peut atteindre l'incendie " + j + ".");
+                continue;
+            }
+            plan.get(meilleur).add(j);
+            fins[meilleur] = meilleureFin;
+        }
+        makespanInitial = max(fins);
+
+        // Événements du plan initial, dont la durée de construction est réservée pour ceux du plan final
+        long debutEvenements = System.nanoTime();
+        List<Evenement> evenements = planifierPlan(donnes, plan, fins);
+        long reserve = System.nanoTime() - debutEvenements;
+
+        ameliorer(plan, fins, echeance - reserve);
+        makespanFinal = max(fins);
+        if (nbAmeliorations > 0) {
+            evenements = planifierPlan(donnes, plan, fins);
+        }
+        for (Evenement evenement : evenements) {
+            simulateur.ajouteEvenement(evenement);
+        }
+    }
+
+    /**
+     * Planifie les déplacements, remplissages et interventions d'un plan dans une liste d'événements, et remplace
+     * les chronologies des robots par celles de ce plan. L'eau la plus proche de chaque incendie est d'abord
+     * confiée à la mémoire des coûts depuis le modèle, ce qui évite de la rechercher case d'eau par case d'eau.
+     *
+     * @return Les événements du plan, dans l'ordre de leur planification.
+     */
+    private List<Evenement> planifierPlan(DonneeSimulation donnes, List<List<Integer>> plan, double[] fins) {
+        Carte carte = donnes.getCarte();
+        CacheCouts cache = cacheCouts(donnes);
+        for (int r = 0; r < robots.size(); r++) {
+            for (int j : plan.get(r)) {
+                Case eau = modele.caseEau(r, j);
+                if (eau != null) {
+                    SimpleEntry<Case, Double> eauFeu = new SimpleEntry<>(eau, modele.eau(r, j));
+                    Case position = carte.getCase(feux.get(j).getPosition().getLigne(), feux.get(j).getPosition().getColonne());
+                    cache.eauLaPlusProche(robots.get(r), position, () -> eauFeu);
+                }
+            }
+        }
+
+        retirerChronologies();
+        List<Evenement> evenements = new ArrayList<>();
+        Map<Robot, EtatDetails> etat = new HashMap<>();
+        for (Robot robot : robots) {
+            etat.put(robot, new EtatDetails(0.0, robot.getPosition(), robot.getNiveauReservoirEau(), 0));
+        }
+        for (int r = 0; r < robots.size(); r++) {
+            for (int j : plan.get(r)) {
+                planifierIntervention(donnes, evenements::add, etat, robots.get(r), feux.get(j), fins[r]);
+            }
+        }
+        return evenements;
+    }
+
+    /**
+     * Évalue la date de fin d'un robot qui éteint les incendies donnés dans l'ordre, selon le modèle.
+     * Les temps sont comptés comme dans {@link #planifierIntervention} : remplissage à l'eau la plus proche
+     * de la position courante, trajet de cette eau à l'incendie, puis allers-retours vers l'eau la plus proche
+     * de l'incendie.
+     *
+     * @return La date de fin, ou {@link Double#MAX_VALUE} si un trajet est impossible.
+     */
+    private double evaluer(int r, List<Integer> suite) {
+        Robot robot = robots.get(r);
+        int capacite = robot.getCapaciteMaxReservoir();
+        int reservoir = robot.getNiveauReservoirEau();
+        double temps = 0;
+        int position = -1; // -1 : position de départ du robot
+        for (int j : suite) {
+            Incendie feu = feux.get(j);
+            int intensite = feu.getIntensite();
+            if (reservoir >= intensite) {
+                // Comme dans la planification, le temps de remplissage du volume manquant est compté
+                temps += modele.trajet(r, position, j)
+                       + robot.getTempsRemplissage(capacite - reservoir) + feu.tempsIntervention(robot, intensite);
+                reservoir -= intensite;
+            } else {
+                int volume = Math.min(capacite, intensite);
+                temps += modele.eau(r, position) + robot.getTempsRemplissage(capacite - reservoir)
+                       + modele.eauVersFeu(r, position, j) + feu.tempsIntervention(robot, volume);
+                int nbAllersRetours = (int) Math.ceil((double) intensite / capacite);
+                if (nbAllersRetours > 1) {
+                    temps += (modele.eau(r, j) + robot.getTempsRemplissage(capacite) + modele.eauVersFeu(r, j, j)
+                            + feu.tempsIntervention(robot, volume)) * (nbAllersRetours - 1);
+                }
+                reservoir = 0;
+            }
+            if (temps >= Double.MAX_VALUE) {
+                return Double.MAX_VALUE;
+            }
+            position = j;
+        }
+        return temps;
+    }
+
+    /**
+     * Améliore le plan par recherche locale jusqu'à l'échéance. Un mouvement n'est conservé que s'il améliore
+     * le plan ; le plan courant est donc toujours le meilleur trouvé.
+     */
+    private void ameliorer(List<List<Integer>> plan, double[] fins, long echeance) {
+        int nbRobots = plan.size();
+        nbMouvements = 0;
+        nbAmeliorations = 0;
+        if (nbRobots == 0 || feux.isEmpty()) {
+            return;
+        }
+        while (System.nanoTime() < echeance) {
+            nbMouvements++;
+            // Une fois sur deux, le mouvement part du robot qui finit le plus tard
+            int a = hasard.nextBoolean() ? critique(fins) : hasard.nextInt(nbRobots);
+            int b = hasard.nextInt(nbRobots);
+            List<Integer> suiteA = plan.get(a);
+            List<Integer> suiteB = plan.get(b);
+            List<Integer> nouvelleA;
+            List<Integer> nouvelleB = null;
+
+            switch (hasard.nextInt(3)) {
+                case 0 -> {
+                    // 2-opt : inversion d'un segment de la suite de a
+                    if (suiteA.size() < 2) continue;
+                    int i = hasard.nextInt(suiteA.size());
+                    int k = hasard.nextInt(suiteA.size());
+                    if (i == k) continue;
+                    nouvelleA = new ArrayList<>(suiteA);
+                    Collections.reverse(nouvelleA.subList(Math.min(i, k), Math.max(i, k) + 1));
+                }
+                case 1 -> {
+                    // Déplacement d'un incendie de a vers b (éventuellement au sein de a)
+                    if (suiteA.isEmpty()) continue;
+                    nouvelleA = new ArrayList<>(suiteA);
+                    int feu = nouvelleA.remove(hasard.nextInt(nouvelleA.size()));
+                    if (a == b) {
+                        nouvelleA.add(hasard.nextInt(nouvelleA.size() + 1), feu);
+                    } else {
+                        nouvelleB = new ArrayList<>(suiteB);
+                        nouvelleB.add(hasard.nextInt(nouvelleB.size() + 1), feu);
+                    }
+                }
+                default -> {
+                    // Échange d'un incendie de a avec un incendie de b
+                    if (a == b || suiteA.isEmpty() || suiteB.isEmpty()) continue;
+                    nouvelleA = new ArrayList<>(suiteA);
+                    nouvelleB = new ArrayList<>(suiteB);
+                    int i = hasard.nextInt(nouvelleA.size());
+                    int k = hasard.nextInt(nouvelleB.size());
+                    int feu = nouvelleA.get(i);
+                    nouvelleA.set(i, nouvelleB.get(k));
+                    nouvelleB.set(k, feu);
+                }
+            }
+
+            double finA = evaluer(a, nouvelleA);
+            double finB = nouvelleB == null ? 0 : evaluer(b, nouvelleB);
+            if (finA >= Double.MAX_VALUE || finB >= Double.MAX_VALUE) {
+                continue;
+            }
+            if (meilleur(fins, a, finA, nouvelleB == null ? -1 : b, finB)) {
+                plan.set(a, nouvelleA);
+                fins[a] = finA;
+                if (nouvelleB != null) {
+                    plan.set(b, nouvelleB);
+                    fins[b] = finB;
+                }
+                nbAmeliorations++;
+            }
+        }
+    }
+
+    /**
+     * Indique si le plan obtenu en remplaçant les dates de fin de a (et de b si b ≥ 0) est strictement meilleur :
+     * date de fin du dernier robot plus précoce, ou égale avec une somme des dates de fin plus faible.
+     */
+    private static boolean meilleur(double[] fins, int a, double finA, int b, double finB) {
+        double ancienMax = 0, nouveauMax = 0, ancienneSomme = 0, nouvelleSomme = 0;
+        for (int r = 0; r < fins.length; r++) {
+            double fin = r == a ? finA : r == b ? finB : fins[r];
+            ancienMax = Math.max(ancienMax, fins[r]);
+            nouveauMax = Math.max(nouveauMax, fin);
+            ancienneSomme += fins[r];
+            nouvelleSomme += fin;
+        }
+        return nouveauMax < ancienMax || (nouveauMax == ancienMax && nouvelleSomme < ancienneSomme - 1e-9);
+    }
+
+    private static int critique(double[] fins) {
+        int critique = 0;
+        for (int r = 1; r < fins.length; r++) {
+            if (fins[r] > fins[critique]) {
+                critique = r;
+            }
+        }
+        return critique;
+    }
+
+    private static double max(double[] valeurs) {
+        double max = 0;
+        for (double v : valeurs) {
+            max = Math.max(max, v);
+        }
+        return max;
+    }
+
+    /**
+     * @return La date de fin estimée du plan initial lors de la dernière planification.
+     */
+    public double getMakespanInitial() {
+        return makespanInitial;
+    }
+
+    /**
+     * @return La date de fin estimée du meilleur plan lors de la dernière planification.
+     */
+    public double getMakespanFinal() {
+        return makespanFinal;
+    }
+
+    /**
+     * @return Le nombre de mouvements essayés lors de la dernière planification.
+     */
+    public long getNbMouvements() {
+        return nbMouvements;
+    }
+
+    /**
+     * @return Le nombre de mouvements conservés lors de la dernière planification.
+     */
+    public long getNbAmeliorations() {
+        return nbAmeliorations;
+    }
+}
@@ -0,0 +1,325 @@
+package robot;
+import carte.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import simulateur.*;
+
+/**
+ * Stratégie du chef pompier par tournées.
+ * Au lieu de traiter chaque incendie séparément, chaque robot enchaîne des tournées : un remplissage à l'eau la
+ * plus proche, puis plusieurs incendies éteints avec le même réservoir, tant que la somme de leurs intensités
+ * ne dépasse pas sa capacité. Un incendie plus grand que le réservoir du robot forme une tournée à lui seul,
+ * traitée par allers-retours comme dans la stratégie gloutonne.
+ *
+ * <p>Les tournées sont construites par insertion : chaque incendie, dans l'ordre de proximité, est inséré à la
+ * position (robot, tournée, rang), ou dans une nouvelle tournée, qui donne la date de fin du robot la plus
+ * précoce. Les temps de trajet sont lus sur un {@link ModeleTrajets}, et une insertion n'est évaluée que sur
+ * les tournées qu'elle modifie : dès que l'état du robot (position et réservoir) redevient celui du plan
+ * courant, la suite des tournées est simplement décalée.</p>
+ */
+public class StrategieTournees extends Strategie {
+
+    private List<Robot> robots;
+    private List<Incendie> feux;
+    private ModeleTrajets modele;
+
+    // Plan en cours : tournées de chaque robot, et état du robot après chacune d'elles
+    private List<List<List<Integer>>> tournees;
+    private List<double[]> tempsApres;
+    private List<int[]> reservoirApres;
+
+    // Statistiques de la dernière planification
+    private int nbTournees;
+    private double makespan;
+
+    /**
+     * Construit les tournées de chaque robot par insertion,
+     * puis planifie les déplacements, remplissages et interventions.
+     *
+     * @param donnes      Instance de DonneeSimulation contenant la carte, les robots, les incendies et les cases d'eau.
+     * @param simulateur  Instance de Simulateur utilisée pour planifier les événements.
+     */
+    @Override
+    public void chefPompier(DonneeSimulation donnes, Simulateur simulateur) {
+        demarrerPlanification(donnes);
+        robots = donnes.getRobots();
+        feux = new ArrayList<>();
+        for (Incendie incendie : trierIncendiesParProximite(donnes)) {
+            if (incendie.getIntensite() > 0) {
+                feux.add(incendie);
+            }
+        }
+        for (Robot robot : robots) {
+            robot.setCarte(donnes.getCarte());
+            robot.setSimulateur(simulateur);
+        }
+        modele = new ModeleTrajets(donnes, robots, feux);
+
+        tournees = new ArrayList<>();
+        tempsApres = new ArrayList<>();
+        reservoirApres = new ArrayList<>();
+        for (int r = 0; r < robots.size(); r++) {
+            tournees.add(new ArrayList<>());
+            tempsApres.add(new double[0]);
+            reservoirApres.add(new int[0]);
+        }
+        for (int j = 0; j < feux.size(); j++) {
+            if (!inserer(j)) {
+                System.out.println("Erreur : Aucun robot ne peut atteindre l'incendie " + j + ".");
+            }
+        }
+
+        nbTournees = 0;
+        makespan = 0;
+        for (int r = 0; r < robots.size(); r++) {
+            nbTournees += tournees.get(r).size();
+            double[] temps = tempsApres.get(r);
+            makespan = Math.max(makespan, temps.length == 0 ? 0 : temps[temps.length - 1]);
+            planifierTournees(donnes, simulateur, r);
+        }
+    }
+
+    /**
+     * Insère un incendie à la meilleure position du plan : celle qui donne la date de fin la plus précoce
+     * au robot qui le reçoit.
+     *
+     * @return false si aucun robot ne peut éteindre l'incendie.
+     */
+    private boolean inserer(int j) {
+        int meilleurRobot = -1;
+        int meilleureTournee = -1;
+        int meilleurRang = -1; // -1 : nouvelle tournée insérée avant la tournée meilleureTournee
+        double meilleureFin = Double.MAX_VALUE;
+        int intensite = feux.get(j).getIntensite();
+
+        for (int r = 0; r < robots.size(); r++) {
+            List<List<Integer>> plan = tournees.get(r);
+            int capacite = robots.get(r).getCapaciteMaxReservoir();
+            for (int k = 0; k <= plan.size(); k++) {
+                // Nouvelle tournée avant la tournée k (ou à la fin)
+                List<Integer> seule = new ArrayList<>();
+                seule.add(j);
+                double fin = evaluer(r, k, seule, true);
+                if (fin < meilleureFin) {
+                    meilleureFin = fin;
+                    meilleurRobot = r;
+                    meilleureTournee = k;
+                    meilleurRang = -1;
+                }
+                // Ajout dans la tournée k, si son réservoir peut encore le contenir
+                if (k == plan.size() || intensite > capacite || estGrandeTournee(r, plan.get(k))
+                        || charge(plan.get(k)) + intensite > capacite) {
+                    continue;
+                }
+                for (int p = 0; p <= plan.get(k).size(); p++) {
+                    List<Integer> tournee = new ArrayList<>(plan.get(k));
+                    tournee.add(p, j);
+                    fin = evaluer(r, k, tournee, false);
+                    if (fin < meilleureFin) {
+                        meilleureFin = fin;
+                        meilleurRobot = r;
+                        meilleureTournee = k;
+                        meilleurRang = p;
+                    }
+                }
+            }
+        }
+        if (meilleurRobot < 0) {
+            return false;
+        }
+
+        List<List<Integer>> plan = tournees.get(meilleurRobot);
+        if (meilleurRang < 0) {
+            List<Integer> seule = new ArrayList<>();
+            seule.add(j);
+            plan.add(meilleureTournee, seule);
+        } else {
+            plan.get(meilleureTournee).add(meilleurRang, j);
+        }
+        recalculer(meilleurRobot);
+        return true;
+    }
+
+    /**
+     * Évalue la date de fin du robot r lorsque sa tournée k est remplacée par la tournée donnée, ou lorsque la
+     * tournée donnée est insérée avant sa tournée k. Seules les tournées dont l'état de départ change sont
+     * réévaluées.
+     *
+     * @return La date de fin, ou {@link Double#MAX_VALUE} si un trajet est impossible.
+     */
+    private double evaluer(int r, int k, List<Integer> tournee, boolean insertion) {
+        List<List<Integer>> plan = tournees.get(r);
+        double[] temps = tempsApres.get(r);
+        int[] reservoirs = reservoirApres.get(r);
+        double t = k == 0 ? 0 : temps[k - 1];
+        int reservoir = k == 0 ? robots.get(r).getNiveauReservoirEau() : reservoirs[k - 1];
+        int origine = k == 0 ? -1 : dernier(plan.get(k - 1));
+
+        t = avancer(r, origine, t, reservoir, tournee);
+        if (t >= Double.MAX_VALUE) {
+            return Double.MAX_VALUE;
+        }
+        reservoir = reservoirApres(r, reservoir, tournee);
+        origine = dernier(tournee);
+        for (int q = insertion ? k : k + 1; q < plan.size(); q++) {
+            if (q > 0 && origine == dernier(plan.get(q - 1)) && reservoir == reservoirs[q - 1]) {
+                // Même état qu'avant la tournée q dans le plan courant : la suite est décalée
+                return t + (temps[temps.length - 1] - temps[q - 1]);
+            }
+            t = avancer(r, origine, t, reservoir, plan.get(q));
+            if (t >= Double.MAX_VALUE) {
+                return Double.MAX_VALUE;
+            }
+            reservoir = reservoirApres(r, reservoir, plan.get(q));
+            origine = dernier(plan.get(q));
+        }
+        return t;
+    }
+
+    /**
+     * Recalcule la date et le réservoir du robot r après chacune de ses tournées.
+     */
+    private void recalculer(int r) {
+        List<List<Integer>> plan = tournees.get(r);
+        double[] temps = new double[plan.size()];
+        int[] reservoirs = new int[plan.size()];
+        double t = 0;
+        int reservoir = robots.get(r).getNiveauReservoirEau();
+        int origine = -1;
+        for (int k = 0; k < plan.size(); k++) {
+            t = avancer(r, origine, t, reservoir, plan.get(k));
+            reservoir = reservoirApres(r, reservoir, plan.get(k));
+            origine = dernier(plan.get(k));
+            temps[k] = t;
+            reservoirs[k] = reservoir;
+        }
+        tempsApres.set(r, temps);
+        reservoirApres.set(r, reservoirs);
+    }
+
+    /**
+     * Retourne la date de fin d'une tournée du robot r, partie d'une origine à la date t avec le réservoir donné.
+     * Le robot ne se remplit que si son réservoir ne suffit pas pour toute la tournée.
+     */
+    private double avancer(int r, int origine, double t, int reservoir, List<Integer> tournee) {
+        Robot robot = robots.get(r);
+        int capacite = robot.getCapaciteMaxReservoir();
+        if (estGrandeTournee(r, tournee)) {
+            // Incendie plus grand que le réservoir : remplissage puis allers-retours, comme planifierIntervention
+            int j = tournee.get(0);
+            Incendie feu = feux.get(j);
+            int volume = Math.min(capacite, feu.getIntensite());
+            int nbAllersRetours = (int) Math.ceil((double) feu.getIntensite() / capacite);
+            t += modele.eau(r, origine) + robot.getTempsRemplissage(capacite - reservoir)
+               + modele.eauVersFeu(r, origine, j) + feu.tempsIntervention(robot, volume);
+            t += (modele.eau(r, j) + robot.getTempsRemplissage(capacite) + modele.eauVersFeu(r, j, j)
+                  + feu.tempsIntervention(robot, volume)) * (nbAllersRetours - 1);
+            return t >= Double.MAX_VALUE ? Double.MAX_VALUE : t;
+        }
+
+        int premier = tournee.get(0);
+        if (reservoir < charge(tournee)) {
+            t += modele.eau(r, origine) + robot.getTempsRemplissage(capacite - reservoir)
+               + modele.eauVersFeu(r, origine, premier);
+        } else {
+            t += modele.trajet(r, origine, premier);
+        }
+        int position = premier;
+        for (int j : tournee) {
+            if (j != premier) {
+                t += modele.trajet(r, position, j);
+            }
+            t += feux.get(j).tempsIntervention(robot, feux.get(j).getIntensite());
+            position = j;
+        }
+        return t >= Double.MAX_VALUE ? Double.MAX_VALUE : t;
+    }
+
+    /**
+     * Retourne le réservoir du robot r après une tournée commencée avec le réservoir donné.
+     */
+    private int reservoirApres(int r, int reservoir, List<Integer> tournee) {
+        if (estGrandeTournee(r, tournee)) {
+            return 0;
+        }
+        long charge = charge(tournee);
+        return (int) ((reservoir < charge ? robots.get(r).getCapaciteMaxReservoir() : reservoir) - charge);
+    }
+
+    private boolean estGrandeTournee(int r, List<Integer> tournee) {
+        return feux.get(tournee.get(0)).getIntensite() > robots.get(r).getCapaciteMaxReservoir();
+    }
+
+    private long charge(List<Integer> tournee) {
+        long charge = 0;
+        for (int j : tournee) {
+            charge += feux.get(j).getIntensite();
+        }
+        return charge;
+    }
+
+    private static int dernier(List<Integer> tournee) {
+        return tournee.get(tournee.size() - 1);
+    }
+
+    /**
+     * Planifie dans le simulateur les tournées du robot r : remplissage complet à l'eau la plus proche lorsque le
+     * réservoir ne suffit pas pour la tournée, puis trajet et intervention sur chacun de ses incendies.
+     */
+    private void planifierTournees(DonneeSimulation donnes, Simulateur simulateur, int r) {
+        Robot robot = robots.get(r);
+        Carte carte = donnes.getCarte();
+        int capacite = robot.getCapaciteMaxReservoir();
+        long t = 0;
+        Case position = robot.getPosition();
+        int reservoir = robot.getNiveauReservoirEau();
+        int origine = -1;
+        for (List<Integer> tournee : tournees.get(r)) {
+            if (estGrandeTournee(r, tournee)) {
+                Map<Robot, EtatDetails> etat = new HashMap<>();
+                etat.put(robot, new EtatDetails(0.0, position, reservoir, t));
+                planifierIntervention(donnes, simulateur, etat, robot, feux.get(tournee.get(0)), 0.0);
+                t = etat.get(robot).getTempsCour();
+                position = etat.get(robot).getCaseAssociee();
+                reservoir = 0;
+                origine = tournee.get(0);
+                continue;
+            }
+
+            if (reservoir < charge(tournee)) {
+                Case eau = modele.caseEau(r, origine);
+                t += robot.deplacerVersCase(position, eau, t + 1, simulateur);
+                t += robot.getTempsRemplissage(capacite - reservoir);
+                simulateur.ajouteEvenement(new Remplissage(robot, t, capacite - reservoir));
+                reservoir = capacite;
+                position = eau;
+            }
+            for (int j : tournee) {
+                Incendie feu = feux.get(j);
+                Case destination = carte.getCase(feu.getPosition().getLigne(), feu.getPosition().getColonne());
+                t += robot.deplacerVersCase(position, destination, t + 1, simulateur);
+                t += feu.tempsIntervention(robot, feu.getIntensite());
+                simulateur.ajouteEvenement(new Intervention(robot, feu, t));
+                reservoir -= feu.getIntensite();
+                position = destination;
+            }
+            origine = dernier(tournee);
+        }
+    }
+
+    /**
+     * @return Le nombre de tournées de la dernière planification.
+     */
+    public int getNbTournees() {
+        return nbTournees;
+    }
+
+    /**
+     * @return La date de fin estimée du plan lors de la dernière planification.
+     */
+    public double getMakespan() {
+        return makespan;
+    }
+}
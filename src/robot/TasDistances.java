@@ -0,0 +1,71 @@
+package robot;
+import java.util.Arrays;
+
+/**
+ * Tas binaire de nœuds (cases ou états) indexé par leur distance, avec doublons : un nœud peut y figurer
+ * plusieurs fois, et c'est à l'appelant d'écarter ses entrées périmées. Utilisé par les recherches de
+ * Dijkstra de {@link ChampDistance} et de {@link RechercheRemplissage}.
+ */
+final class TasDistances {
+    private int[] noeuds;
+    private double[] distances;
+    private int taille;
+
+    TasDistances(int capacite) {
+        this.noeuds = new int[Math.max(16, capacite / 4)];
+        this.distances = new double[noeuds.length];
+    }
+
+    boolean estVide() {
+        return taille == 0;
+    }
+
+    /**
+     * @return La distance du nœud au sommet du tas, qui doit être non vide.
+     */
+    double distanceSommet() {
+        return distances[0];
+    }
+
+    void inserer(int n, double d) {
+        if (taille == noeuds.length) {
+            noeuds = Arrays.copyOf(noeuds, taille * 2);
+            distances = Arrays.copyOf(distances, taille * 2);
+        }
+        int i = taille++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] <= d) {
+                break;
+            }
+            noeuds[i] = noeuds[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        noeuds[i] = n;
+        distances[i] = d;
+    }
+
+    int retirer() {
+        int sommet = noeuds[0];
+        taille--;
+        int n = noeuds[taille];
+        double d = distances[taille];
+        int i = 0;
+        while (2 * i + 1 < taille) {
+            int enfant = 2 * i + 1;
+            if (enfant + 1 < taille && distances[enfant + 1] < distances[enfant]) {
+                enfant++;
+            }
+            if (distances[enfant] >= d) {
+                break;
+            }
+            noeuds[i] = noeuds[enfant];
+            distances[i] = distances[enfant];
+            i = enfant;
+        }
+        noeuds[i] = n;
+        distances[i] = d;
+        return sommet;
+    }
+}
@@ -0,0 +1,128 @@
+package simulateur;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+
+/**
+ * Atlas des images de la simulation.
+ * Toutes les images PNG du dossier des ressources sont lues une seule fois, puis mises à l'échelle
+ * de la taille d'une case. Les images sont ensuite obtenues par l'ordinal d'un {@link Sprite},
+ * sans lecture de fichier ni redimensionnement au moment de l'affichage.
+ */
+public final class AtlasSprites {
+
+    /**
+     * Dossier par défaut des ressources graphiques.
+     */
+    public static final String DOSSIER_RESSOURCES = "ressources";
+
+    private final Map<String, BufferedImage> originaux; // Images lues, indexées par nom de fichier
+    private final BufferedImage[] images;                // Images à l'échelle, indexées par ordinal
+    private final int largeurCase;
+    private final int hauteurCase;
+
+    /**
+     * Charge toutes les images PNG d'un dossier et les met à l'échelle d'une case.
+     *
+     * @param dossier     Le dossier des ressources.
+     * @param largeurCase Largeur d'une case en pixels.
+     * @param hauteurCase Hauteur d'une case en pixels.
+     */
+    public AtlasSprites(String dossier, int largeurCase, int hauteurCase) {
+        this(lireImages(dossier), largeurCase, hauteurCase);
+    }
+
+    private AtlasSprites(Map<String, BufferedImage> originaux, int largeurCase, int hauteurCase) {
+        this.originaux = originaux;
+        this.largeurCase = Math.max(1, largeurCase);
+        this.hauteurCase = Math.max(1, hauteurCase);
+        this.images = new BufferedImage[Sprite.values().length];
+        for (Sprite sprite : Sprite.values()) {
+            BufferedImage original = originaux.get(sprite.getFichier());
+            if (original == null) {
+                System.err.println("Image introuvable : " + sprite.getFichier());
+            }
+            images[sprite.ordinal()] = redimensionner(original, this.largeurCase, this.hauteurCase);
+        }
+    }
+
+    /**
+     * Retourne un atlas pour une autre taille de case, sans relire les fichiers.
+     *
+     * @param largeur Largeur d'une case en pixels.
+     * @param hauteur Hauteur d'une case en pixels.
+     * @return Cet atlas si la taille est inchangée, sinon un nouvel atlas partageant les images lues.
+     */
+    public AtlasSprites aLaTaille(int largeur, int hauteur) {
+        if (Math.max(1, largeur) == largeurCase && Math.max(1, hauteur) == hauteurCase) {
+            return this;
+        }
+        return new AtlasSprites(originaux, largeur, hauteur);
+    }
+
+    /**
+     * Retourne l'image à l'échelle d'un sprite.
+     *
+     * @param ordinal L'ordinal du {@link Sprite}.
+     * @return L'image à l'échelle d'une case.
+     */
+    public BufferedImage getImage(int ordinal) {
+        return images[ordinal];
+    }
+
+    /**
+     * @return Largeur d'une case en pixels.
+     */
+    public int getLargeurCase() {
+        return largeurCase;
+    }
+
+    /**
+     * @return Hauteur d'une case en pixels.
+     */
+    public int getHauteurCase() {
+        return hauteurCase;
+    }
+
+    /**
+     * Lit toutes les images PNG d'un dossier.
+     */
+    private static Map<String, BufferedImage> lireImages(String dossier) {
+        Map<String, BufferedImage> lues = new HashMap<>();
+        File[] fichiers = new File(dossier).listFiles((d, nom) -> nom.toLowerCase().endsWith(".png"));
+        if (fichiers == null) {
+            System.err.println("Dossier de ressources introuvable : " + dossier);
+            return lues;
+        }
+        for (File fichier : fichiers) {
+            try {
+                BufferedImage image = ImageIO.read(fichier);
+                if (image != null) {
+                    lues.put(fichier.getName(), image);
+                }
+            } catch (IOException e) {
+                System.err.println("Image illisible : " + fichier + " (" + e.getMessage() + ")");
+            }
+        }
+        return lues;
+    }
+
+    /**
+     * Met une image à l'échelle d'une case. Une image absente est remplacée par une case transparente.
+     */
+    private static BufferedImage redimensionner(BufferedImage original, int largeur, int hauteur) {
+        BufferedImage image = new BufferedImage(largeur, hauteur, BufferedImage.TYPE_INT_ARGB);
+        if (original != null) {
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(original, 0, 0, largeur, hauteur, null);
+            g.dispose();
+        }
+        return image;
+    }
+}
@@ -0,0 +1,342 @@
+package simulateur;
+import carte.Case;
+import carte.Carte;
+import java.util.Arrays;
+import robot.*;
+
+/**
+ * Bifurcation légère d'une simulation, destinée aux planificateurs par simulation (« et si ? »).
+ * Une bifurcation rejoue les événements sur une copie de l'état en tableaux primitifs, sans jamais modifier
+ * les robots ni les incendies de la simulation d'origine.
+ *
+ * <p>La copie est paresseuse (copie sur écriture) : une nouvelle bifurcation partage les tableaux de son
+ * parent et ne copie un tableau qu'au moment de le modifier. Les événements hérités du simulateur sont
+ * rangés une fois pour toutes dans un tableau trié partagé, que chaque bifurcation parcourt avec son propre
+ * curseur ; seuls les événements ajoutés après la bifurcation sont stockés dans un petit tas local.
+ * Bifurquer coûte donc O(1), quel que soit le nombre d'événements en attente.</p>
+ *
+ * <p>Une bifurcation n'est pas protégée contre les accès concurrents, mais des bifurcations distinctes
+ * peuvent être simulées en parallèle sur des fils différents, les données partagées n'étant jamais
+ * modifiées. Les bifurcations doivent être créées depuis un seul fil avant d'être confiées aux autres.</p>
+ */
+public final class Bifurcation implements Ordonnanceur {
+
+    private final Carte carte;
+    private final Robot[] robots;
+    private final CodecEvenement codec;
+
+    private long date;
+    private long intensiteRestante;
+    private long dateExtinction;
+
+    // État des robots et des incendies, copiés à la première écriture
+    private int[] robotLigne;
+    private int[] robotColonne;
+    private int[] robotReservoir;
+    private int[] intensites;
+    private boolean etatPartage;
+
+    // Événements hérités du simulateur : tableaux triés partagés et curseur propre à la bifurcation
+    private final byte[] baseType;
+    private final long[] baseDate;
+    private final int[] baseRobot;
+    private final int[] baseArgument;
+    private int curseur;
+
+    // Événements ajoutés depuis la création : tas local, copié à la première écriture
+    private byte[] localType;
+    private long[] localDate;
+    private int[] localRobot;
+    private int[] localArgument;
+    private long[] localOrdre;
+    private int nbLocaux;
+    private long prochainOrdre;
+    private boolean localPartage;
+
+    /**
+     * Constructeur d'une bifurcation à partir de l'état d'un simulateur.
+     */
+    Bifurcation(Carte carte, Robot[] robots, CodecEvenement codec, EtatSimulation etat,
+                byte[] baseType, long[] baseDate, int[] baseRobot, int[] baseArgument) {
+        this.carte = carte;
+        this.robots = robots;
+        this.codec = codec;
+        this.date = etat.getDate();
+        this.robotLigne = etat.getRobotLigne();
+        this.robotColonne = etat.getRobotColonne();
+        this.robotReservoir = etat.getRobotReservoir();
+        this.intensites = etat.getIntensites();
+        this.etatPartage = true;
+        this.baseType = baseType;
+        this.baseDate = baseDate;
+        this.baseRobot = baseRobot;
+        this.baseArgument = baseArgument;
+        this.curseur = 0;
+        this.localType = new byte[0];
+        this.localDate = new long[0];
+        this.localRobot = new int[0];
+        this.localArgument = new int[0];
+        this.localOrdre = new long[0];
+        this.nbLocaux = 0;
+        this.prochainOrdre = 0;
+        this.localPartage = true;
+        for (int intensite : intensites) {
+            intensiteRestante += intensite;
+        }
+        this.dateExtinction = intensiteRestante == 0 ? date : -1;
+    }
+
+    /**
+     * Constructeur de copie utilisé par {@link #bifurquer()} : tous les tableaux sont partagés.
+     */
+    private Bifurcation(Bifurcation parent) {
+        this.carte = parent.carte;
+        this.robots = parent.robots;
+        this.codec = parent.codec;
+        this.date = parent.date;
+        this.intensiteRestante = parent.intensiteRestante;
+        this.dateExtinction = parent.dateExtinction;
+        this.robotLigne = parent.robotLigne;
+        this.robotColonne = parent.robotColonne;
+        this.robotReservoir = parent.robotReservoir;
+        this.intensites = parent.intensites;
+        this.etatPartage = true;
+        this.baseType = parent.baseType;
+        this.baseDate = parent.baseDate;
+        this.baseRobot = parent.baseRobot;
+        this.baseArgument = parent.baseArgument;
+        this.curseur = parent.curseur;
+        this.localType = parent.localType;
+        this.localDate = parent.localDate;
+        this.localRobot = parent.localRobot;
+        this.localArgument = parent.localArgument;
+        this.localOrdre = parent.localOrdre;
+        this.nbLocaux = parent.nbLocaux;
+        this.prochainOrdre = parent.prochainOrdre;
+        this.localPartage = true;
+    }
+
+    /**
+     * Crée une nouvelle bifurcation à partir de l'état courant de celle-ci, en O(1).
+     *
+     * @return La nouvelle bifurcation.
+     */
+    public Bifurcation bifurquer() {
+        // Le parent ne doit plus écrire dans les tableaux désormais partagés
+        this.etatPartage = true;
+        this.localPartage = true;
+        return new Bifurcation(this);
+    }
+
+    /**
+     * Ajoute un événement à exécuter dans cette bifurcation uniquement.
+     * Le robot et l'incendie éventuel de l'événement doivent appartenir à la simulation d'origine.
+     *
+     * @param e L'événement à ajouter.
+     */
+    @Override
+    public void ajouteEvenement(Evenement e) {
+        if (localPartage || nbLocaux == localType.length) {
+            int capacite = nbLocaux == localType.length ? Math.max(8, nbLocaux * 2) : localType.length;
+            localType = Arrays.copyOf(localType, capacite);
+            localDate = Arrays.copyOf(localDate, capacite);
+            localRobot = Arrays.copyOf(localRobot, capacite);
+            localArgument = Arrays.copyOf(localArgument, capacite);
+            localOrdre = Arrays.copyOf(localOrdre, capacite);
+            localPartage = false;
+        }
+        int i = nbLocaux++;
+        localType[i] = CodecEvenement.type(e);
+        localDate[i] = e.getDate();
+        localRobot[i] = codec.indiceRobot(CodecEvenement.robot(e));
+        localArgument[i] = codec.argument(e);
+        localOrdre[i] = prochainOrdre++;
+        monterLocal(i);
+    }
+
+    /**
+     * Exécute tous les événements dont la date est inférieure ou égale à la date donnée.
+     *
+     * @param dateLimite La date jusqu'à laquelle simuler.
+     */
+    public void avancerJusqua(long dateLimite) {
+        while (true) {
+            boolean baseDisponible = curseur < baseDate.length;
+            boolean localDisponible = nbLocaux > 0;
+            if (!baseDisponible && !localDisponible) {
+                break;
+            }
+            // À date égale, les événements hérités passent avant ceux ajoutés ensuite
+            boolean depuisBase = baseDisponible && (!localDisponible || baseDate[curseur] <= localDate[0]);
+            long dateEvenement = depuisBase ? baseDate[curseur] : localDate[0];
+            if (dateEvenement > dateLimite) {
+                break;
+            }
+            date = Math.max(date, dateEvenement);
+            if (depuisBase) {
+                executer(baseType[curseur], baseRobot[curseur], baseArgument[curseur]);
+                curseur++;
+            } else {
+                byte type = localType[0];
+                int robot = localRobot[0];
+                int argument = localArgument[0];
+                retirerLocal();
+                executer(type, robot, argument);
+            }
+        }
+    }
+
+    /**
+     * Exécute tous les événements restants.
+     */
+    public void terminer() {
+        avancerJusqua(Long.MAX_VALUE);
+    }
+
+    /**
+     * @return La date du dernier événement exécuté dans la bifurcation.
+     */
+    public long getDate() {
+        return date;
+    }
+
+    /**
+     * @return Le nombre d'événements encore en attente.
+     */
+    public int getNbEvenementsEnAttente() {
+        return baseDate.length - curseur + nbLocaux;
+    }
+
+    /**
+     * @return La somme des intensités des incendies non éteints.
+     */
+    public long getIntensiteRestante() {
+        return intensiteRestante;
+    }
+
+    /**
+     * @return La date à laquelle le dernier incendie a été éteint, ou -1 s'il en reste.
+     */
+    public long getDateExtinction() {
+        return dateExtinction;
+    }
+
+    /**
+     * @param incendie L'indice de l'incendie dans la simulation d'origine.
+     * @return L'intensité de l'incendie dans cette bifurcation.
+     */
+    public int getIntensite(int incendie) {
+        return intensites[incendie];
+    }
+
+    /**
+     * @param robot L'indice du robot dans la simulation d'origine.
+     * @return La position du robot dans cette bifurcation.
+     */
+    public Case getPositionRobot(int robot) {
+        return carte.getCase(robotLigne[robot], robotColonne[robot]);
+    }
+
+    /**
+     * @param robot L'indice du robot dans la simulation d'origine.
+     * @return Le niveau du réservoir du robot dans cette bifurcation.
+     */
+    public int getReservoirRobot(int robot) {
+        return robotReservoir[robot];
+    }
+
+    /**
+     * Applique un événement à l'état de la bifurcation, avec la même sémantique que
+     * {@link Evenement#execute()} sur les robots et incendies réels.
+     */
+    private void executer(byte type, int robot, int argument) {
+        if (etatPartage) {
+            robotLigne = robotLigne.clone();
+            robotColonne = robotColonne.clone();
+            robotReservoir = robotReservoir.clone();
+            intensites = intensites.clone();
+            etatPartage = false;
+        }
+        switch (type) {
+            case CodecEvenement.DEPLACEMENT -> {
+                Case position = carte.getCase(robotLigne[robot], robotColonne[robot]);
+                Case nouvellePosition = carte.getVoisin(position, Direction.values()[argument]);
+                if (!robots[robot].peutSeDeplacerSur(nouvellePosition.getNature())) {
+                    throw new IllegalArgumentException("Le robot ne peut pas se déplacer sur ce type de terrain.");
+                }
+                robotLigne[robot] = nouvellePosition.getLigne();
+                robotColonne[robot] = nouvellePosition.getColonne();
+            }
+            case CodecEvenement.REMPLISSAGE -> {
+                if (argument < 0) {
+                    throw new IllegalArgumentException("Le volume d'eau ne peut pas être négatif.");
+                }
+                int niv = robotReservoir[robot];
+                int capacite = robots[robot].getCapaciteMaxReservoir();
+                robotReservoir[robot] = niv + argument > capacite ? capacite : niv + argument;
+            }
+            default -> {
+                int vol = intensites[argument];
+                int reservoir = robotReservoir[robot];
+                robotReservoir[robot] = vol > reservoir ? 0 : reservoir - vol;
+                int eau = Math.min(reservoir, vol);
+                if (eau > 0) {
+                    int restante = Math.max(0, vol - eau);
+                    intensiteRestante -= vol - restante;
+                    intensites[argument] = restante;
+                    if (intensiteRestante == 0 && dateExtinction < 0) {
+                        dateExtinction = date;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean avantLocal(int a, int b) {
+        return localDate[a] < localDate[b] || (localDate[a] == localDate[b] && localOrdre[a] < localOrdre[b]);
+    }
+
+    private void echangerLocal(int a, int b) {
+        byte t = localType[a]; localType[a] = localType[b]; localType[b] = t;
+        long d = localDate[a]; localDate[a] = localDate[b]; localDate[b] = d;
+        int r = localRobot[a]; localRobot[a] = localRobot[b]; localRobot[b] = r;
+        int g = localArgument[a]; localArgument[a] = localArgument[b]; localArgument[b] = g;
+        long o = localOrdre[a]; localOrdre[a] = localOrdre[b]; localOrdre[b] = o;
+    }
+
+    private void monterLocal(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!avantLocal(i, parent)) {
+                break;
+            }
+            echangerLocal(i, parent);
+            i = parent;
+        }
+    }
+
+    private void retirerLocal() {
+        if (localPartage) {
+            localType = localType.clone();
+            localDate = localDate.clone();
+            localRobot = localRobot.clone();
+            localArgument = localArgument.clone();
+            localOrdre = localOrdre.clone();
+            localPartage = false;
+        }
+        nbLocaux--;
+        echangerLocal(0, nbLocaux);
+        int i = 0;
+        while (2 * i + 1 < nbLocaux) {
+            int enfant = 2 * i + 1;
+            if (enfant + 1 < nbLocaux && avantLocal(enfant + 1, enfant)) {
+                enfant++;
+            }
+            if (!avantLocal(enfant, i)) {
+                break;
+            }
+            echangerLocal(i, enfant);
+            i = enfant;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package simulateur;
+import carte.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import robot.*;
+
+/**
+ * Encodage binaire compact des événements de la simulation.
+ * Chaque événement est écrit sous la forme (type, date, indice du robot, argument), où l'argument est
+ * l'ordinal de la direction pour un déplacement, le volume pour un remplissage et l'indice de l'incendie
+ * pour une intervention. Les robots et les incendies sont désignés par leur indice dans les listes
+ * de la simulation.
+ */
+final class CodecEvenement {
+
+    static final byte DEPLACEMENT = 0;
+    static final byte REMPLISSAGE = 1;
+    static final byte INTERVENTION = 2;
+
+    private final Carte carte;
+    private final List<Robot> robots;
+    private final List<Incendie> incendies;
+    private final Map<Robot, Integer> indicesRobots;
+    private final Map<Incendie, Integer> indicesIncendies;
+
+    /**
+     * Constructeur du codec pour une simulation donnée.
+     *
+     * @param carte     La carte de la simulation.
+     * @param robots    Les robots de la simulation.
+     * @param incendies Les incendies de la simulation.
+     */
+    CodecEvenement(Carte carte, List<Robot> robots, List<Incendie> incendies) {
+        this.carte = carte;
+        this.robots = robots;
+        this.incendies = incendies;
+        this.indicesRobots = new IdentityHashMap<>();
+        this.indicesIncendies = new IdentityHashMap<>();
+        for (int i = 0; i < robots.size(); i++) {
+            indicesRobots.put(robots.get(i), i);
+        }
+        for (int i = 0; i < incendies.size(); i++) {
+            indicesIncendies.put(incendies.get(i), i);
+        }
+    }
+
+    /**
+     * Retourne le type d'un événement.
+     *
+     * @param e L'événement.
+     * @return Le code du type de l'événement.
+     * @throws IllegalArgumentException Si le type d'événement n'est pas pris en charge.
+     */
+    static byte type(Evenement e) {
+        if (e instanceof Deplacement) return DEPLACEMENT;
+        if (e instanceof Remplissage) return REMPLISSAGE;
+        if (e instanceof Intervention) return INTERVENTION;
+        throw new IllegalArgumentException("Type d'événement non pris en charge : " + e.getClass().getName());
+    }
+
+    /**
+     * Retourne le robot concerné par un événement.
+     *
+     * @param e L'événement.
+     * @return Le robot concerné.
+     */
+    static Robot robot(Evenement e) {
+        return switch (type(e)) {
+            case DEPLACEMENT -> ((Deplacement) e).getRobot();
+            case REMPLISSAGE -> ((Remplissage) e).getRobot();
+            default -> ((Intervention) e).getRobot();
+        };
+    }
+
+    /**
+     * Retourne l'indice d'un robot dans la liste des robots de la simulation.
+     *
+     * @param robot Le robot.
+     * @return L'indice du robot.
+     * @throws IllegalArgumentException Si le robot n'appartient pas à la simulation.
+     */
+    int indiceRobot(Robot robot) {
+        Integer indice = indicesRobots.get(robot);
+        if (indice == null) {
+            throw new IllegalArgumentException("Robot inconnu de la simulation : " + robot);
+        }
+        return indice;
+    }
+
+    /**
+     * Retourne l'argument encodé d'un événement (direction, volume ou incendie).
+     *
+     * @param e L'événement.
+     * @return L'argument de l'événement.
+     */
+    int argument(Evenement e) {
+        return switch (type(e)) {
+            case DEPLACEMENT -> ((Deplacement) e).getDirection().ordinal();
+            case REMPLISSAGE -> ((Remplissage) e).getVolume();
+            default -> {
+                Integer indice = indicesIncendies.get(((Intervention) e).getIncendie());
+                if (indice == null) {
+                    throw new IllegalArgumentException("Incendie inconnu de la simulation.");
+                }
+                yield indice;
+            }
+        };
+    }
+
+    /**
+     * Écrit un événement.
+     *
+     * @param out Le flux de sortie.
+     * @param e   L'événement à écrire.
+     * @throws IOException En cas d'erreur d'écriture.
+     */
+    void ecrire(DataOutput out, Evenement e) throws IOException {
+        out.writeByte(type(e));
+        out.writeLong(e.getDate());
+        out.writeInt(indiceRobot(robot(e)));
+        out.writeInt(argument(e));
+    }
+
+    /**
+     * Lit un événement écrit par {@link #ecrire(DataOutput, Evenement)}.
+     *
+     * @param in Le flux d'entrée.
+     * @return L'événement reconstruit.
+     * @throws IOException En cas d'erreur de lecture ou de données invalides.
+     */
+    Evenement lire(DataInput in) throws IOException {
+        byte type = in.readByte();
+        long date = in.readLong();
+        int robot = in.readInt();
+        int argument = in.readInt();
+        return creer(type, date, robot, argument);
+    }
+
+    /**
+     * Reconstruit un événement à partir de ses champs encodés.
+     *
+     * @param type     Le type de l'événement.
+     * @param date     La date de l'événement.
+     * @param robot    L'indice du robot.
+     * @param argument L'argument de l'événement.
+     * @return L'événement reconstruit.
+     * @throws IOException Si les champs ne désignent pas un événement valide.
+     */
+    Evenement creer(byte type, long date, int robot, int argument) throws IOException {
+        if (robot < 0 || robot >= robots.size()) {
+            throw new IOException("Indice de robot invalide : " + robot);
+        }
+        Robot r = robots.get(robot);
+        return switch (type) {
+            case DEPLACEMENT -> {
+                if (argument < 0 || argument >= Direction.values().length) {
+                    throw new IOException("Direction invalide : " + argument);
+                }
+                yield new Deplacement(carte, r, Direction.values()[argument], date);
+            }
+            case REMPLISSAGE -> new Remplissage(r, date, argument);
+            case INTERVENTION -> {
+                if (argument < 0 || argument >= incendies.size()) {
+                    throw new IOException("Indice d'incendie invalide : " + argument);
+                }
+                yield new Intervention(r, incendies.get(argument), date);
+            }
+            default -> throw new IOException("Type d'événement inconnu : " + type);
+        };
+    }
+}
@@ -0,0 +1,239 @@
+package simulateur;
+import carte.*;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import robot.*;
+
+/**
+ * Comparaison de plusieurs stratégies du chef pompier sur un ensemble de cartes, sans interface graphique.
+ * Chaque carte est lue une seule fois ; chaque stratégie enregistrée planifie puis simule jusqu'au bout une
+ * copie indépendante des données ({@link DonneeSimulation#copie}), et toutes ces simulations sont exécutées
+ * en parallèle. On relève pour chacune le temps de planification, la date d'extinction du dernier incendie
+ * et le volume d'eau puisé par les robots.
+ *
+ * <p>Les temps de planification sont des temps réels : avec plusieurs stratégies simultanées, ils peuvent être
+ * allongés par la concurrence entre les fils ; un parallélisme de 1 donne des temps sans perturbation.</p>
+ */
+public final class ComparaisonStrategies {
+
+    private final List<Supplier<? extends StrategiePlanification>> fabriques = new ArrayList<>();
+    private final int parallelisme;
+
+    /**
+     * Résultat d'une stratégie sur une carte.
+     */
+    public static final class Resultat {
+        private final String carte;
+        private final String strategie;
+        private final long dureePlanification; // En nanosecondes
+        private final long dateExtinction;     // -1 si des incendies brûlent encore à la fin
+        private final long eauPuisee;
+        private final int intensiteRestante;
+        private final String erreur;           // null si la stratégie s'est exécutée normalement
+
+        Resultat(String carte, String strategie, long dureePlanification, long dateExtinction,
+                 long eauPuisee, int intensiteRestante, String erreur) {
+            this.carte = carte;
+            this.strategie = strategie;
+            this.dureePlanification = dureePlanification;
+            this.dateExtinction = dateExtinction;
+            this.eauPuisee = eauPuisee;
+            this.intensiteRestante = intensiteRestante;
+            this.erreur = erreur;
+        }
+
+        /**
+         * @return Le fichier de la carte.
+         */
+        public String getCarte() {
+            return carte;
+        }
+
+        /**
+         * @return Le nom de la stratégie.
+         */
+        public String getStrategie() {
+            return strategie;
+        }
+
+        /**
+         * @return Le temps de planification, en millisecondes.
+         */
+        public double getDureePlanificationMs() {
+            return dureePlanification / 1e6;
+        }
+
+        /**
+         * @return La date de simulation à laquelle le dernier incendie est éteint, ou -1 s'il en reste.
+         */
+        public long getDateExtinction() {
+            return dateExtinction;
+        }
+
+        /**
+         * @return Le volume d'eau puisé par l'ensemble des robots pendant la simulation.
+         */
+        public long getEauPuisee() {
+            return eauPuisee;
+        }
+
+        /**
+         * @return La somme des intensités des incendies à la fin de la simulation.
+         */
+        public int getIntensiteRestante() {
+            return intensiteRestante;
+        }
+
+        /**
+         * @return Le message de l'erreur survenue pendant la planification ou la simulation, ou null.
+         */
+        public String getErreur() {
+            return erreur;
+        }
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param parallelisme Le nombre maximal de stratégies exécutées simultanément.
+     */
+    public ComparaisonStrategies(int parallelisme) {
+        if (parallelisme <= 0) {
+            throw new IllegalArgumentException("Le parallélisme doit être strictement positif.");
+        }
+        this.parallelisme = parallelisme;
+    }
+
+    /**
+     * Enregistre une stratégie à comparer. Une nouvelle instance est créée pour chaque carte,
+     * les stratégies conservant un état entre deux planifications.
+     *
+     * @param fabrique La fabrique de la stratégie, par exemple {@code StrategieTournees::new}.
+     */
+    public void enregistrer(Supplier<? extends StrategiePlanification> fabrique) {
+        fabriques.add(fabrique);
+    }
+
+    /**
+     * Compare les stratégies enregistrées sur chacune des cartes.
+     *
+     * @param cartes Les fichiers des cartes.
+     * @return Les résultats, carte par carte, dans l'ordre d'enregistrement des stratégies.
+     * @throws FileNotFoundException si un fichier de carte est introuvable.
+     * @throws InterruptedException  si le fil appelant est interrompu pendant la comparaison.
+     */
+    public List<Resultat> comparer(List<String> cartes) throws FileNotFoundException, InterruptedException {
+        List<Resultat> resultats = new ArrayList<>();
+        ExecutorService executeur = Executors.newFixedThreadPool(parallelisme, r -> {
+            Thread fil = new Thread(r, "comparaison-strategies");
+            fil.setDaemon(true);
+            return fil;
+        });
+        try {
+            List<Callable<Resultat>> taches = new ArrayList<>();
+            for (String fichier : cartes) {
+                DonneeSimulation donnes = LectureDonnee.lire(fichier);
+                for (Supplier<? extends StrategiePlanification> fabrique : fabriques) {
+                    StrategiePlanification strategie = fabrique.get();
+                    DonneeSimulation copie = donnes.copie();
+                    taches.add(() -> executer(fichier, strategie, copie));
+                }
+            }
+            for (Future<Resultat> futur : executeur.invokeAll(taches)) {
+                try {
+                    resultats.add(futur.get());
+                } catch (ExecutionException e) {
+                    // executer rattrape déjà les erreurs des stratégies
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executeur.shutdownNow();
+        }
+        return resultats;
+    }
+
+    /**
+     * Planifie une stratégie sur ses propres données, puis exécute tous les événements de la simulation
+     * sur le fil appelant. Les erreurs de la stratégie sont rattrapées et rapportées dans le résultat.
+     *
+     * @param fichier   Le fichier de la carte, rapporté dans le résultat.
+     * @param strategie La stratégie, qui n'est utilisée que pour cette simulation.
+     * @param donnes    Les données propres à cette simulation.
+     * @return Le résultat de la stratégie.
+     */
+    static Resultat executer(String fichier, StrategiePlanification strategie, DonneeSimulation donnes) {
+        String nom = strategie.getNom();
+        long duree = 0;
+        try {
+            Simulateur simulateur = new Simulateur(donnes, false);
+            long debut = System.nanoTime();
+            strategie.planifier(donnes, simulateur);
+            duree = System.nanoTime() - debut;
+
+            int restant = intensiteTotale(donnes);
+            long extinction = restant == 0 ? 0 : -1;
+            long date;
+            while ((date = simulateur.dateProchainEvenement()) >= 0) {
+                simulateur.executerJusqua(date);
+                if (extinction < 0 && intensiteTotale(donnes) == 0) {
+                    extinction = date;
+                }
+            }
+            long eau = 0;
+            for (Robot robot : donnes.getRobots()) {
+                eau += robot.getEauPuisee();
+            }
+            return new Resultat(fichier, nom, duree, extinction, eau, intensiteTotale(donnes), null);
+        } catch (RuntimeException e) {
+            System.err.println("Erreur de la stratégie " + nom + " sur " + fichier + " : " + e);
+            return new Resultat(fichier, nom, duree, -1, 0, intensiteTotale(donnes), e.toString());
+        }
+    }
+
+    private static int intensiteTotale(DonneeSimulation donnes) {
+        int total = 0;
+        for (Incendie incendie : donnes.getIncendies()) {
+            total += incendie.getIntensite();
+        }
+        return total;
+    }
+
+    /**
+     * Affiche les résultats côte à côte, sous forme d'un tableau par carte.
+     *
+     * @param resultats Les résultats de {@link #comparer}.
+     * @param sortie    Le flux sur lequel écrire le tableau.
+     */
+    public static void afficher(List<Resultat> resultats, PrintStream sortie) {
+        int largeur = "Stratégie".length();
+        for (Resultat r : resultats) {
+            largeur = Math.max(largeur, r.getStrategie().length());
+        }
+        String format = "%-" + largeur + "s  %14s  %12s  %12s  %10s%n";
+        String carte = null;
+        for (Resultat r : resultats) {
+            if (!r.getCarte().equals(carte)) {
+                carte = r.getCarte();
+                sortie.println();
+                sortie.println(carte);
+                sortie.printf(format, "Stratégie", "Planif. (ms)", "Extinction", "Eau puisée", "Restant");
+            }
+            if (r.getErreur() != null) {
+                sortie.printf("%-" + largeur + "s  erreur : %s%n", r.getStrategie(), r.getErreur());
+                continue;
+            }
+            sortie.printf(format, r.getStrategie(), String.format("%.1f", r.getDureePlanificationMs()),
+                          r.getDateExtinction() < 0 ? "-" : Long.toString(r.getDateExtinction()),
+                          r.getEauPuisee(), r.getIntensiteRestante());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package simulateur;
 import carte.*;
+import java.util.ArrayList;
 import java.util.List;
 import robot.*;
 
@@ -29,6 +30,25 @@ public class DonneeSimulation {
         this.casesEau = casesEau;
     }
 
+    /**
+     * Crée une copie indépendante des données, pour simuler la même situation dans un autre simulateur :
+     * les robots et les incendies sont recopiés, la carte et les cases d'eau, qui ne changent pas pendant
+     * une simulation, sont partagées.
+     *
+     * @return La copie des données.
+     */
+    public DonneeSimulation copie() {
+        List<Incendie> copieIncendies = new ArrayList<>();
+        for (Incendie incendie : incendies) {
+            copieIncendies.add(new Incendie(incendie.getPosition(), incendie.getIntensite()));
+        }
+        List<Robot> copieRobots = new ArrayList<>();
+        for (Robot robot : robots) {
+            copieRobots.add(robot.copie());
+        }
+        return new DonneeSimulation(carte, copieIncendies, copieRobots, casesEau);
+    }
+
     /**
      * Ajoute un incendie à la liste des incendies.
      *
@@ -0,0 +1,57 @@
+package simulateur;
+import gui.GraphicalElement;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Élément graphique affichant une image de l'atlas, déjà à l'échelle, à une position donnée.
+ */
+public class ElementSprite implements GraphicalElement {
+
+    private static final int TAILLE_MIN_MARQUE = 3;
+
+    private final int x;
+    private final int y;
+    private final BufferedImage image;
+
+    /**
+     * Constructeur de l'élément.
+     *
+     * @param x     Abscisse du coin supérieur gauche, en pixels.
+     * @param y     Ordonnée du coin supérieur gauche, en pixels.
+     * @param image L'image à afficher.
+     */
+    public ElementSprite(int x, int y, BufferedImage image) {
+        this.x = x;
+        this.y = y;
+        this.image = image;
+    }
+
+    /**
+     * Dessine l'image.
+     *
+     * @param g2d Le contexte graphique.
+     */
+    @Override
+    public void paint(Graphics2D g2d) {
+        g2d.drawImage(image, x, y, null);
+    }
+
+    /**
+     * Crée une marque carrée de couleur unie, utilisée à la place des images en détail réduit.
+     *
+     * @param couleur    La couleur de la marque.
+     * @param tailleCase La taille d'une case en pixels.
+     * @return L'image de la marque, d'au moins quelques pixels de côté.
+     */
+    static BufferedImage marque(Color couleur, int tailleCase) {
+        int taille = Math.max(TAILLE_MIN_MARQUE, tailleCase);
+        BufferedImage marque = new BufferedImage(taille, taille, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = marque.createGraphics();
+        g.setColor(couleur);
+        g.fillRect(0, 0, taille, taille);
+        g.dispose();
+        return marque;
+    }
+}
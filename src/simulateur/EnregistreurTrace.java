@@ -0,0 +1,114 @@
+package simulateur;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import carte.Case;
+import robot.*;
+
+/**
+ * Enregistreur de la trace d'exécution d'une simulation.
+ * Chaque événement exécuté est ajouté en fin de fichier (type, date, robot, argument et case visée),
+ * et une image clé de l'état complet de la simulation est écrite à intervalle régulier de temps simulé.
+ * La trace peut ensuite être parcourue avec {@link LecteurTrace}.
+ *
+ * <p>Format du fichier :</p>
+ * <pre>
+ * MAGIC VERSION
+ * (EVENEMENT type date robot argument ligne colonne | IMAGE_CLE date taille pointDeReprise)*
+ * </pre>
+ */
+public final class EnregistreurTrace implements Closeable {
+
+    static final int MAGIC = 0x52425452; // "RBTR"
+    static final int VERSION = 1;
+    static final byte EVENEMENT = 0;
+    static final byte IMAGE_CLE = 1;
+
+    private final DataOutputStream out;
+    private final long intervalleImagesCles;
+    private long prochaineImageCle;
+
+    /**
+     * Crée un nouvel enregistreur. Le fichier est créé ou remplacé.
+     *
+     * @param fichier              Le fichier de trace.
+     * @param intervalleImagesCles L'intervalle de temps simulé entre deux images clés.
+     * @throws IOException Si le fichier ne peut pas être créé.
+     */
+    public EnregistreurTrace(Path fichier, long intervalleImagesCles) throws IOException {
+        if (intervalleImagesCles <= 0) {
+            throw new IllegalArgumentException("L'intervalle entre images clés doit être positif.");
+        }
+        OutputStream flux = Files.newOutputStream(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(flux, 1 << 16));
+        this.intervalleImagesCles = intervalleImagesCles;
+        this.prochaineImageCle = Long.MIN_VALUE;
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Indique si une image clé doit être écrite à la date donnée.
+     *
+     * @param date La date de simulation.
+     * @return true si une image clé est attendue.
+     */
+    boolean imageCleAttendue(long date) {
+        return date >= prochaineImageCle;
+    }
+
+    /**
+     * Écrit une image clé. Le flux est vidé afin que la trace reste exploitable en cas d'arrêt brutal.
+     *
+     * @param date           La date de l'image clé.
+     * @param pointDeReprise L'état encodé par {@link PointDeReprise}.
+     * @throws IOException En cas d'erreur d'écriture.
+     */
+    void ecrireImageCle(long date, byte[] pointDeReprise) throws IOException {
+        out.writeByte(IMAGE_CLE);
+        out.writeLong(date);
+        out.writeInt(pointDeReprise.length);
+        out.write(pointDeReprise);
+        out.flush();
+        prochaineImageCle = date + intervalleImagesCles;
+    }
+
+    /**
+     * Écrit un événement qui vient d'être exécuté.
+     *
+     * @param e     L'événement exécuté.
+     * @param codec Le codec des événements de la simulation.
+     * @throws IOException En cas d'erreur d'écriture.
+     */
+    void ecrireEvenement(Evenement e, CodecEvenement codec) throws IOException {
+        byte type = CodecEvenement.type(e);
+        Robot robot = CodecEvenement.robot(e);
+        // Case visée : position du robot après l'événement, ou position de l'incendie
+        Case cible = type == CodecEvenement.INTERVENTION
+                ? ((Intervention) e).getIncendie().getPosition()
+                : robot.getPosition();
+        out.writeByte(EVENEMENT);
+        out.writeByte(type);
+        out.writeLong(e.getDate());
+        out.writeInt(codec.indiceRobot(robot));
+        out.writeInt(codec.argument(e));
+        out.writeInt(cible.getLigne());
+        out.writeInt(cible.getColonne());
+    }
+
+    /**
+     * Vide le tampon et ferme le fichier de trace.
+     *
+     * @throws IOException En cas d'erreur d'écriture.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,171 @@
+package simulateur;
+import java.util.Arrays;
+
+/**
+ * Instantané compact de l'état d'une simulation : date courante, état des robots, intensité des incendies
+ * et contenu de la file d'événements.
+ * Toutes les données sont stockées dans des tableaux de types primitifs, de sorte que la restauration
+ * se résume à des copies de tableaux. Un instantané n'est jamais modifié après sa création.
+ */
+public final class EtatSimulation {
+
+    /**
+     * Version du format de l'instantané. À incrémenter à chaque modification des champs sauvegardés.
+     */
+    public static final int VERSION = 2;
+
+    private final long date;
+    private final int[] robotLigne;       // Ligne de la position de chaque robot
+    private final int[] robotColonne;     // Colonne de la position de chaque robot
+    private final double[] robotVitesse;  // Vitesse courante de chaque robot
+    private final int[] robotReservoir;   // Niveau du réservoir de chaque robot
+    private final long[] robotEauPuisee;  // Volume d'eau puisé par chaque robot
+    private final int[] intensites;       // Intensité de chaque incendie
+    private final int[] file;             // Tas d'indices des événements en attente
+    private final int nbEvenements;       // Taille du registre d'événements au moment de la capture
+    private final int generation;         // Génération du registre d'événements au moment de la capture
+
+    /**
+     * Constructeur d'un instantané. Les tableaux fournis ne doivent plus être modifiés par l'appelant.
+     *
+     * @param date           La date de simulation.
+     * @param robotLigne     Les lignes des positions des robots.
+     * @param robotColonne   Les colonnes des positions des robots.
+     * @param robotVitesse   Les vitesses des robots.
+     * @param robotReservoir Les niveaux des réservoirs des robots.
+     * @param robotEauPuisee Les volumes d'eau puisés par les robots.
+     * @param intensites     Les intensités des incendies.
+     * @param file           Le tas d'indices des événements en attente.
+     * @param nbEvenements   La taille du registre d'événements.
+     * @param generation     La génération du registre d'événements.
+     */
+    EtatSimulation(long date, int[] robotLigne, int[] robotColonne, double[] robotVitesse, int[] robotReservoir,
+                   long[] robotEauPuisee, int[] intensites, int[] file, int nbEvenements, int generation) {
+        this.date = date;
+        this.robotLigne = robotLigne;
+        this.robotColonne = robotColonne;
+        this.robotVitesse = robotVitesse;
+        this.robotReservoir = robotReservoir;
+        this.robotEauPuisee = robotEauPuisee;
+        this.intensites = intensites;
+        this.file = file;
+        this.nbEvenements = nbEvenements;
+        this.generation = generation;
+    }
+
+    /**
+     * Retourne une copie de cet instantané dont la file d'événements est remplacée.
+     *
+     * @param file         Le nouveau tas d'indices.
+     * @param nbEvenements La nouvelle taille du registre d'événements.
+     * @param generation   La nouvelle génération du registre d'événements.
+     * @return Le nouvel instantané.
+     */
+    EtatSimulation avecFile(int[] file, int nbEvenements, int generation) {
+        return new EtatSimulation(date, robotLigne, robotColonne, robotVitesse, robotReservoir, robotEauPuisee,
+                                  intensites, file, nbEvenements, generation);
+    }
+
+    /**
+     * Retourne une copie de cet instantané avec un incendie de plus, d'intensité donnée.
+     *
+     * @param intensite L'intensité du nouvel incendie.
+     * @return Le nouvel instantané.
+     */
+    EtatSimulation avecIncendie(int intensite) {
+        int[] nouvelles = Arrays.copyOf(intensites, intensites.length + 1);
+        nouvelles[intensites.length] = intensite;
+        return new EtatSimulation(date, robotLigne, robotColonne, robotVitesse, robotReservoir, robotEauPuisee,
+                                  nouvelles, file, nbEvenements, generation);
+    }
+
+    /**
+     * Retourne une copie de cet instantané avec un robot de plus.
+     *
+     * @param ligne     La ligne de la position du robot.
+     * @param colonne   La colonne de la position du robot.
+     * @param vitesse   La vitesse du robot.
+     * @param reservoir Le niveau du réservoir du robot.
+     * @param eauPuisee Le volume d'eau déjà puisé par le robot.
+     * @return Le nouvel instantané.
+     */
+    EtatSimulation avecRobot(int ligne, int colonne, double vitesse, int reservoir, long eauPuisee) {
+        int n = robotLigne.length;
+        int[] lignes = Arrays.copyOf(robotLigne, n + 1);
+        int[] colonnes = Arrays.copyOf(robotColonne, n + 1);
+        double[] vitesses = Arrays.copyOf(robotVitesse, n + 1);
+        int[] reservoirs = Arrays.copyOf(robotReservoir, n + 1);
+        long[] eau = Arrays.copyOf(robotEauPuisee, n + 1);
+        lignes[n] = ligne;
+        colonnes[n] = colonne;
+        vitesses[n] = vitesse;
+        reservoirs[n] = reservoir;
+        eau[n] = eauPuisee;
+        return new EtatSimulation(date, lignes, colonnes, vitesses, reservoirs, eau, intensites, file, nbEvenements,
+                                  generation);
+    }
+
+    /**
+     * @return La date de simulation de l'instantané.
+     */
+    public long getDate() {
+        return date;
+    }
+
+    /**
+     * @return Le nombre de robots sauvegardés.
+     */
+    public int getNbRobots() {
+        return robotLigne.length;
+    }
+
+    /**
+     * @return Le nombre d'incendies sauvegardés.
+     */
+    public int getNbIncendies() {
+        return intensites.length;
+    }
+
+    /**
+     * @return Le nombre d'événements en attente dans l'instantané.
+     */
+    public int getNbEvenementsEnAttente() {
+        return file.length;
+    }
+
+    int[] getRobotLigne() {
+        return robotLigne;
+    }
+
+    int[] getRobotColonne() {
+        return robotColonne;
+    }
+
+    double[] getRobotVitesse() {
+        return robotVitesse;
+    }
+
+    int[] getRobotReservoir() {
+        return robotReservoir;
+    }
+
+    long[] getRobotEauPuisee() {
+        return robotEauPuisee;
+    }
+
+    int[] getIntensites() {
+        return intensites;
+    }
+
+    int[] getFile() {
+        return file;
+    }
+
+    int getNbEvenements() {
+        return nbEvenements;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+}
@@ -0,0 +1,151 @@
+package simulateur;
+import carte.*;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.imageio.ImageIO;
+
+/**
+ * Export d'une simulation sous la forme d'une suite d'images PNG, sans interface graphique.
+ * La simulation est avancée par pas de temps simulé fixes ; à chaque pas, une image de l'état de la
+ * simulation est capturée puis confiée à un groupe de fils qui la dessinent et l'encodent en PNG.
+ * La simulation continue d'avancer pendant l'encodage, dans la limite d'un nombre borné d'images en attente.
+ * Les images sont numérotées dans l'ordre ({@code image_000000.png}, {@code image_000001.png}, ...),
+ * ce qui permet de les assembler en vidéo avec un outil externe.
+ */
+public final class ExportImages {
+
+    private final Simulateur simulateur;
+    private final Carte carte;
+    private final Path dossier;
+    private final long intervalle;
+    private final VueCarte vue;
+
+    // Données fixes partagées en lecture seule par les fils d'encodage ; la position des incendies
+    // et le sprite des robots sont lus dans chaque image, des incendies ou des robots pouvant être ajoutés
+    private final FondCarte fond;
+    private final BufferedImage imageIncendie;
+    private final BufferedImage[] imagesSprites; // Image de chaque sprite, indexée par ordinal
+
+    /**
+     * Constructeur de l'export. Le terrain est dessiné une seule fois, pour la carte entière.
+     *
+     * @param simulateur La simulation à exporter, de préférence créée sans interface graphique.
+     * @param donnes     Les données de la simulation.
+     * @param dossier    Le dossier dans lequel écrire les images.
+     * @param intervalle Le temps simulé entre deux images.
+     * @param largeur    Largeur des images en pixels.
+     * @param hauteur    Hauteur des images en pixels.
+     */
+    public ExportImages(Simulateur simulateur, DonneeSimulation donnes, Path dossier, long intervalle,
+                        int largeur, int hauteur) {
+        if (intervalle <= 0) {
+            throw new IllegalArgumentException("L'intervalle entre deux images doit être strictement positif.");
+        }
+        this.simulateur = simulateur;
+        this.carte = donnes.getCarte();
+        this.dossier = dossier;
+        this.intervalle = intervalle;
+        this.vue = new VueCarte(largeur, hauteur, carte.getNbLignes(), carte.getNbColonnes());
+
+        int tailleCase = vue.getTailleCase();
+        AtlasSprites atlas = vue.detailReduit() ? null
+                : new AtlasSprites(AtlasSprites.DOSSIER_RESSOURCES, tailleCase, tailleCase);
+        this.fond = new FondCarte(carte, vue, atlas);
+
+        this.imageIncendie = atlas == null ? ElementSprite.marque(Simulateur.COULEUR_INCENDIE, tailleCase)
+                                           : atlas.getImage(Sprite.INCENDIE.ordinal());
+
+        this.imagesSprites = new BufferedImage[Sprite.values().length];
+        BufferedImage marqueRobot = ElementSprite.marque(Simulateur.COULEUR_ROBOT, tailleCase);
+        for (Sprite sprite : Sprite.values()) {
+            imagesSprites[sprite.ordinal()] = atlas == null ? marqueRobot : atlas.getImage(sprite.ordinal());
+        }
+    }
+
+    /**
+     * Avance la simulation jusqu'à épuisement des événements en écrivant une image tous les
+     * {@code intervalle} de temps simulé, à partir de la date courante.
+     * La simulation ne doit pas être avancée par ailleurs pendant l'export.
+     *
+     * @param nbFils Nombre de fils dessinant et encodant les images.
+     * @return Le nombre d'images écrites.
+     * @throws IOException Si une image n'a pas pu être écrite.
+     * @throws InterruptedException Si le fil appelant est interrompu.
+     */
+    public int exporter(int nbFils) throws IOException, InterruptedException {
+        Files.createDirectories(dossier);
+        simulateur.attendre();
+
+        // Au plus deux images en attente par fil : la simulation ne prend pas trop d'avance sur l'encodage
+        Semaphore places = new Semaphore(2 * nbFils);
+        AtomicReference<IOException> erreur = new AtomicReference<>();
+        ExecutorService encodeurs = Executors.newFixedThreadPool(nbFils, r -> {
+            Thread fil = new Thread(r, "export-images");
+            fil.setDaemon(true);
+            return fil;
+        });
+
+        int numero = 0;
+        try {
+            long date = simulateur.getDateSimulation();
+            while (erreur.get() == null) {
+                simulateur.executerJusqua(date);
+                ImageSimulation image = simulateur.capturerImage(null);
+                Path fichier = dossier.resolve(String.format("image_%06d.png", numero++));
+                places.acquire();
+                encodeurs.execute(() -> {
+                    try {
+                        ImageIO.write(dessiner(image), "png", fichier.toFile());
+                    } catch (IOException e) {
+                        erreur.compareAndSet(null, e);
+                    } finally {
+                        places.release();
+                    }
+                });
+                if (!simulateur.resteEvenements()) {
+                    break;
+                }
+                date += intervalle;
+            }
+        } finally {
+            encodeurs.shutdown();
+            encodeurs.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        if (erreur.get() != null) {
+            throw erreur.get();
+        }
+        return numero;
+    }
+
+    /**
+     * Dessine une image de la simulation : le terrain, les incendies non éteints et les robots.
+     *
+     * @param image L'image de l'état de la simulation.
+     * @return L'image dessinée.
+     */
+    private BufferedImage dessiner(ImageSimulation image) {
+        BufferedImage rendu = new BufferedImage(vue.getLargeur(), vue.getHauteur(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rendu.createGraphics();
+        fond.paint(g);
+        for (int i = 0; i < image.getNbIncendies(); i++) {
+            if (image.getIntensite(i) > 0) {
+                g.drawImage(imageIncendie, vue.versX(image.getIncendieColonne(i)),
+                            vue.versY(image.getIncendieLigne(i)), null);
+            }
+        }
+        for (int i = 0; i < image.getNbRobots(); i++) {
+            g.drawImage(imagesSprites[image.getSpriteRobot(i)], vue.versX(image.getRobotColonne(i)),
+                        vue.versY(image.getRobotLigne(i)), null);
+        }
+        g.dispose();
+        return rendu;
+    }
+}
@@ -0,0 +1,265 @@
+package simulateur;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import robot.Evenement;
+
+/**
+ * File de priorité des événements de la simulation.
+ * Chaque événement n'est stocké qu'une seule fois dans un registre ; la file elle-même est un tas binaire
+ * d'indices (entiers) dans ce registre, ce qui permet de sauvegarder et de restaurer son contenu
+ * par simple copie de tableau.
+ * Les événements sont ordonnés par date, puis par ordre d'ajout en cas d'égalité.
+ * Chaque troncature du registre ouvre une nouvelle génération ; un instantané dont des événements ont été retirés
+ * du registre ne peut plus être restauré, même si le registre a depuis retrouvé sa taille.
+ */
+final class FileEvenements {
+
+    private final List<Evenement> registre; // Tous les événements planifiés, chacun une seule fois
+    private int[] tas;                       // Tas binaire d'indices dans le registre
+    private int taille;                      // Nombre d'indices présents dans le tas
+    private int[] generationAjout;           // Génération à laquelle chaque événement du registre a été ajouté
+    private int generation;                  // Génération courante, incrémentée à chaque troncature du registre
+
+    /**
+     * Constructeur d'une file vide.
+     */
+    FileEvenements() {
+        this.registre = new ArrayList<>();
+        this.tas = new int[16];
+        this.taille = 0;
+        this.generationAjout = new int[16];
+        this.generation = 0;
+    }
+
+    /**
+     * Ajoute un événement au registre et l'insère dans la file.
+     *
+     * @param e L'événement à ajouter.
+     */
+    void ajouter(Evenement e) {
+        if (registre.size() == generationAjout.length) {
+            generationAjout = Arrays.copyOf(generationAjout, registre.size() * 2);
+        }
+        generationAjout[registre.size()] = generation;
+        registre.add(e);
+        if (taille == tas.length) {
+            tas = Arrays.copyOf(tas, taille * 2);
+        }
+        tas[taille] = registre.size() - 1;
+        monter(taille++);
+    }
+
+    /**
+     * @return true si aucun événement n'est en attente.
+     */
+    boolean estVide() {
+        return taille == 0;
+    }
+
+    /**
+     * @return Le nombre d'événements en attente.
+     */
+    int taille() {
+        return taille;
+    }
+
+    /**
+     * Retourne le prochain événement sans le retirer de la file.
+     *
+     * @return Le prochain événement, ou null si la file est vide.
+     */
+    Evenement premier() {
+        return taille == 0 ? null : registre.get(tas[0]);
+    }
+
+    /**
+     * Retire et retourne le prochain événement de la file.
+     *
+     * @return Le prochain événement, ou null si la file est vide.
+     */
+    Evenement retirer() {
+        if (taille == 0) {
+            return null;
+        }
+        Evenement e = registre.get(tas[0]);
+        tas[0] = tas[--taille];
+        if (taille > 0) {
+            descendre(0);
+        }
+        return e;
+    }
+
+    /**
+     * Retire de la file les événements en attente qui vérifient un filtre ; ils restent dans le registre.
+     * Le tas est reconstruit en temps linéaire.
+     *
+     * @param filtre Le filtre des événements à retirer.
+     * @return Les événements retirés.
+     */
+    List<Evenement> retirerSi(Predicate<Evenement> filtre) {
+        List<Evenement> retires = new ArrayList<>();
+        int n = 0;
+        for (int i = 0; i < taille; i++) {
+            Evenement e = registre.get(tas[i]);
+            if (filtre.test(e)) {
+                retires.add(e);
+            } else {
+                tas[n++] = tas[i];
+            }
+        }
+        taille = n;
+        for (int i = (taille >>> 1) - 1; i >= 0; i--) {
+            descendre(i);
+        }
+        return retires;
+    }
+
+    /**
+     * Vide la file et le registre.
+     */
+    void vider() {
+        registre.clear();
+        taille = 0;
+        generation++;
+    }
+
+    /**
+     * @return Le nombre d'événements enregistrés dans le registre (en attente ou déjà exécutés).
+     */
+    int nbEvenements() {
+        return registre.size();
+    }
+
+    /**
+     * @return La génération courante du registre.
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Retourne l'événement enregistré à l'indice donné du registre.
+     *
+     * @param indice L'indice dans le registre.
+     * @return L'événement correspondant.
+     */
+    Evenement getEvenement(int indice) {
+        return registre.get(indice);
+    }
+
+    /**
+     * Copie le contenu actuel du tas.
+     *
+     * @return Un tableau contenant les indices des événements en attente, dans l'ordre du tas.
+     */
+    int[] copieTas() {
+        return Arrays.copyOf(tas, taille);
+    }
+
+    /**
+     * Retourne les indices des événements en attente dans leur ordre d'exécution.
+     *
+     * @return Les indices triés par date puis par ordre d'ajout.
+     */
+    int[] indicesOrdonnes() {
+        int[] copie = copieTas();
+        int n = copie.length;
+        // Tri par tas sur la copie : on retire successivement le minimum de la copie
+        int[] resultat = new int[n];
+        for (int k = 0; k < n; k++) {
+            resultat[k] = copie[0];
+            copie[0] = copie[n - 1 - k];
+            descendre(copie, 0, n - 1 - k);
+        }
+        return resultat;
+    }
+
+    /**
+     * Vérifie qu'une file sauvegardée peut être restaurée : les événements enregistrés au moment de la sauvegarde
+     * sont toujours les premiers du registre, et le tas ne référence que ceux-là.
+     * Les générations d'ajout ne décroissant jamais le long du registre, il suffit de vérifier celle du dernier
+     * événement sauvegardé.
+     *
+     * @param tasSauvegarde Le tas sauvegardé par {@link #copieTas()}.
+     * @param nbEvenements  La taille du registre au moment de la sauvegarde.
+     * @param generation    La génération du registre au moment de la sauvegarde.
+     * @return true si la file peut être restaurée.
+     */
+    boolean estRestaurable(int[] tasSauvegarde, int nbEvenements, int generation) {
+        if (nbEvenements > registre.size() || (nbEvenements > 0 && generationAjout[nbEvenements - 1] > generation)) {
+            return false;
+        }
+        for (int i : tasSauvegarde) {
+            if (i < 0 || i >= nbEvenements) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restaure la file à partir d'un tas sauvegardé.
+     * Les événements enregistrés après la sauvegarde sont retirés du registre, puisqu'aucun indice du tas
+     * restauré ne peut les référencer ; le registre ne grossit donc pas d'une restauration à l'autre.
+     * La file sauvegardée doit avoir été vérifiée par {@link #estRestaurable(int[], int, int)}.
+     *
+     * @param tasSauvegarde Le tas sauvegardé par {@link #copieTas()}.
+     * @param nbEvenements  La taille du registre au moment de la sauvegarde.
+     */
+    void restaurer(int[] tasSauvegarde, int nbEvenements) {
+        if (registre.size() > nbEvenements) {
+            registre.subList(nbEvenements, registre.size()).clear();
+            generation++;
+        }
+        if (tas.length < tasSauvegarde.length) {
+            tas = new int[Math.max(16, tasSauvegarde.length)];
+        }
+        System.arraycopy(tasSauvegarde, 0, tas, 0, tasSauvegarde.length);
+        taille = tasSauvegarde.length;
+    }
+
+    /**
+     * Compare deux entrées du tas : par date, puis par ordre d'ajout.
+     */
+    private boolean avant(int a, int b) {
+        long da = registre.get(a).getDate();
+        long db = registre.get(b).getDate();
+        return da < db || (da == db && a < b);
+    }
+
+    private void monter(int i) {
+        int valeur = tas[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!avant(valeur, tas[parent])) {
+                break;
+            }
+            tas[i] = tas[parent];
+            i = parent;
+        }
+        tas[i] = valeur;
+    }
+
+    private void descendre(int i) {
+        descendre(tas, i, taille);
+    }
+
+    private void descendre(int[] t, int i, int n) {
+        int valeur = t[i];
+        int moitie = n >>> 1;
+        while (i < moitie) {
+            int enfant = 2 * i + 1;
+            if (enfant + 1 < n && avant(t[enfant + 1], t[enfant])) {
+                enfant++;
+            }
+            if (!avant(t[enfant], valeur)) {
+                break;
+            }
+            t[i] = t[enfant];
+            i = enfant;
+        }
+        t[i] = valeur;
+    }
+}
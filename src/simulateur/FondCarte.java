@@ -0,0 +1,120 @@
+package simulateur;
+import carte.*;
+import gui.GraphicalElement;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Élément graphique représentant le terrain visible de la carte.
+ * Le terrain ne change pas au cours de la simulation : la zone visible est dessinée une seule fois dans une
+ * image hors écran de la taille de la fenêtre, qui est ensuite affichée telle quelle à chaque
+ * rafraîchissement, jusqu'au prochain changement de la vue.
+ * Lorsque les cases sont trop petites, le terrain est dessiné en blocs de couleur agrégeant plusieurs cases.
+ */
+public class FondCarte implements GraphicalElement {
+
+    // Échantillons lus au plus par dimension d'un bloc, pour borner le coût des vues très éloignées
+    private static final int ECHANTILLONS_PAR_BLOC = 4;
+
+    private static final Color COULEUR_EAU = new Color(40, 90, 200);
+    private static final Color COULEUR_FORET = new Color(20, 110, 40);
+    private static final Color COULEUR_ROCHE = new Color(120, 110, 100);
+    private static final Color COULEUR_HABITAT = new Color(190, 140, 90);
+    private static final Color COULEUR_TERRAIN_LIBRE = new Color(120, 190, 80);
+
+    private final BufferedImage image;
+    private final int version;
+
+    /**
+     * Constructeur du fond : dessine toutes les cases visibles de la carte dans l'image hors écran.
+     *
+     * @param carte La carte à dessiner.
+     * @param vue   La vue courante sur la carte.
+     * @param atlas L'atlas des images, à l'échelle d'une case de la vue. Ignoré en détail réduit.
+     */
+    public FondCarte(Carte carte, VueCarte vue, AtlasSprites atlas) {
+        this.version = vue.getVersion();
+        this.image = new BufferedImage(vue.getLargeur(), vue.getHauteur(), BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D g = image.createGraphics();
+        if (vue.detailReduit()) {
+            dessinerBlocs(g, carte, vue);
+        } else {
+            for (int i = vue.getPremiereLigne(); i <= vue.getDerniereLigne(); i++) {
+                for (int j = vue.getPremiereColonne(); j <= vue.getDerniereColonne(); j++) {
+                    int sprite = Sprite.terrain(carte.getCase(i, j).getNature()).ordinal();
+                    g.drawImage(atlas.getImage(sprite), vue.versX(j), vue.versY(i), null);
+                }
+            }
+        }
+        g.dispose();
+    }
+
+    /**
+     * Dessine le terrain visible en blocs carrés de cases, chaque bloc prenant la couleur moyenne
+     * des terrains qu'il contient.
+     */
+    private static void dessinerBlocs(Graphics2D g, Carte carte, VueCarte vue) {
+        int k = vue.casesParBloc();
+        int pas = Math.max(1, k / ECHANTILLONS_PAR_BLOC);
+        int premiereLigne = vue.getPremiereLigne() / k * k;
+        int premiereColonne = vue.getPremiereColonne() / k * k;
+        for (int i = premiereLigne; i <= vue.getDerniereLigne(); i += k) {
+            int finLigne = Math.min(i + k, carte.getNbLignes());
+            for (int j = premiereColonne; j <= vue.getDerniereColonne(); j += k) {
+                int finColonne = Math.min(j + k, carte.getNbColonnes());
+                int rouge = 0, vert = 0, bleu = 0, n = 0;
+                for (int a = i; a < finLigne; a += pas) {
+                    for (int b = j; b < finColonne; b += pas) {
+                        Color c = couleur(carte.getCase(a, b).getNature());
+                        rouge += c.getRed();
+                        vert += c.getGreen();
+                        bleu += c.getBlue();
+                        n++;
+                    }
+                }
+                g.setColor(new Color(rouge / n, vert / n, bleu / n));
+                int x = vue.versX(j);
+                int y = vue.versY(i);
+                g.fillRect(x, y, Math.max(1, vue.versX(j + k) - x), Math.max(1, vue.versY(i + k) - y));
+            }
+        }
+    }
+
+    /**
+     * Retourne la couleur représentant un type de terrain en détail réduit.
+     *
+     * @param nature Le type de terrain.
+     * @return La couleur correspondante.
+     */
+    public static Color couleur(NatureTerrain nature) {
+        return switch (nature) {
+            case EAU -> COULEUR_EAU;
+            case FORET -> COULEUR_FORET;
+            case ROCHE -> COULEUR_ROCHE;
+            case HABITAT -> COULEUR_HABITAT;
+            default -> COULEUR_TERRAIN_LIBRE;
+        };
+    }
+
+    /**
+     * Indique si ce fond a été dessiné pour l'état courant de la vue.
+     *
+     * @param vue La vue sur la carte.
+     * @return true si la vue n'a pas changé depuis que le fond a été dessiné.
+     */
+    public boolean correspondA(VueCarte vue) {
+        return vue.getVersion() == version;
+    }
+
+    /**
+     * Dessine le fond de carte.
+     *
+     * @param g2d Le contexte graphique.
+     */
+    @Override
+    public void paint(Graphics2D g2d) {
+        g2d.drawImage(image, 0, 0, null);
+    }
+}
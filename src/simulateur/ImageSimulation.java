@@ -0,0 +1,103 @@
+package simulateur;
+
+/**
+ * Image immuable de l'état visible de la simulation, publiée par le fil de simulation et lue par le fil
+ * d'affichage.
+ * Chaque image conserve aussi la position des robots dans l'image précédente, afin que l'affichage
+ * puisse interpoler le déplacement des robots d'une case à l'autre.
+ * La position des incendies et l'apparence des robots y sont recopiées elles aussi : des incendies ou des robots
+ * peuvent être ajoutés en cours de simulation, et le fil d'affichage ne lit jamais les listes du simulateur.
+ */
+final class ImageSimulation {
+
+    private final long date;
+    private final long instantPublication; // System.nanoTime() au moment de la publication
+    private final int[] robotLigne;
+    private final int[] robotColonne;
+    private final int[] precedentLigne;
+    private final int[] precedentColonne;
+    private final int[] intensites;
+    private final int[] incendieLigne;
+    private final int[] incendieColonne;
+    private final int[] spritesRobots; // Indice dans l'atlas du sprite de chaque robot
+
+    /**
+     * Constructeur d'une image. Les tableaux fournis ne doivent plus être modifiés par l'appelant.
+     */
+    ImageSimulation(long date, int[] robotLigne, int[] robotColonne, int[] precedentLigne,
+                    int[] precedentColonne, int[] intensites, int[] incendieLigne, int[] incendieColonne,
+                    int[] spritesRobots) {
+        this.date = date;
+        this.instantPublication = System.nanoTime();
+        this.robotLigne = robotLigne;
+        this.robotColonne = robotColonne;
+        this.precedentLigne = precedentLigne;
+        this.precedentColonne = precedentColonne;
+        this.intensites = intensites;
+        this.incendieLigne = incendieLigne;
+        this.incendieColonne = incendieColonne;
+        this.spritesRobots = spritesRobots;
+    }
+
+    long getDate() {
+        return date;
+    }
+
+    long getInstantPublication() {
+        return instantPublication;
+    }
+
+    int getNbRobots() {
+        return robotLigne.length;
+    }
+
+    int getNbIncendies() {
+        return intensites.length;
+    }
+
+    int getRobotLigne(int robot) {
+        return robotLigne[robot];
+    }
+
+    int getRobotColonne(int robot) {
+        return robotColonne[robot];
+    }
+
+    /**
+     * Retourne la ligne du robot interpolée entre l'image précédente et celle-ci.
+     *
+     * @param robot L'indice du robot.
+     * @param alpha L'avancement de l'animation, entre 0 (image précédente) et 1 (cette image).
+     * @return La ligne interpolée.
+     */
+    double getLigneInterpolee(int robot, double alpha) {
+        return precedentLigne[robot] + (robotLigne[robot] - precedentLigne[robot]) * alpha;
+    }
+
+    /**
+     * Retourne la colonne du robot interpolée entre l'image précédente et celle-ci.
+     *
+     * @param robot L'indice du robot.
+     * @param alpha L'avancement de l'animation, entre 0 (image précédente) et 1 (cette image).
+     * @return La colonne interpolée.
+     */
+    double getColonneInterpolee(int robot, double alpha) {
+        return precedentColonne[robot] + (robotColonne[robot] - precedentColonne[robot]) * alpha;
+    }
+
+    int getIntensite(int incendie) {
+        return intensites[incendie];
+    }
+
+    int getIncendieLigne(int incendie) {
+        return incendieLigne[incendie];
+    }
+
+    int getIncendieColonne(int incendie) {
+        return incendieColonne[incendie];
+    }
+
+    int getSpriteRobot(int robot) {
+        return spritesRobots[robot];
+    }
+}
@@ -0,0 +1,193 @@
+package simulateur;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Lecteur d'une trace écrite par {@link EnregistreurTrace}.
+ * À l'ouverture, le fichier est parcouru une fois pour indexer les images clés. Se positionner à une date
+ * revient alors à restaurer l'image clé la plus proche qui la précède, puis à rejouer uniquement les
+ * événements enregistrés après elle.
+ * Une trace interrompue (arrêt brutal pendant l'enregistrement) est lue jusqu'au dernier enregistrement complet.
+ */
+public final class LecteurTrace implements Closeable {
+
+    private final FileChannel canal;
+    private final Simulateur simulateur;
+    private long[] datesImagesCles;    // Dates des images clés, croissantes
+    private long[] positionsImagesCles; // Position dans le fichier de chaque image clé
+    private int nbImagesCles;
+    private long dateFin;               // Date du dernier événement enregistré
+
+    /**
+     * Ouvre une trace pour la rejouer dans un simulateur.
+     * Le simulateur doit avoir été créé à partir de la même carte, des mêmes robots et des mêmes incendies
+     * que la simulation enregistrée ; aucune stratégie n'a besoin d'y être planifiée.
+     *
+     * @param fichier    Le fichier de trace.
+     * @param simulateur Le simulateur dans lequel rejouer la trace.
+     * @throws IOException Si le fichier est illisible ou n'est pas une trace.
+     */
+    public LecteurTrace(Path fichier, Simulateur simulateur) throws IOException {
+        this.canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        this.simulateur = simulateur;
+        this.datesImagesCles = new long[16];
+        this.positionsImagesCles = new long[16];
+        try {
+            indexer();
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        if (nbImagesCles == 0) {
+            canal.close();
+            throw new IOException("La trace ne contient aucune image clé.");
+        }
+    }
+
+    /**
+     * @return La date de la première image clé de la trace.
+     */
+    public long getDateDebut() {
+        return datesImagesCles[0];
+    }
+
+    /**
+     * @return La date du dernier événement enregistré.
+     */
+    public long getDateFin() {
+        return dateFin;
+    }
+
+    /**
+     * @return Le nombre d'images clés de la trace.
+     */
+    public int getNbImagesCles() {
+        return nbImagesCles;
+    }
+
+    /**
+     * Positionne la simulation à la date donnée : restaure l'image clé la plus proche qui précède cette date,
+     * puis rejoue les événements enregistrés jusqu'à cette date incluse, et met à jour l'affichage.
+     * Après un positionnement, {@link Simulateur#restart()} revient à l'image clé restaurée ;
+     * {@code chercher(getDateDebut())} revient au début de la trace.
+     *
+     * @param date La date de simulation visée.
+     * @throws IOException Si la trace ne correspond pas à la simulation.
+     */
+    public void chercher(long date) throws IOException {
+        int k = Arrays.binarySearch(datesImagesCles, 0, nbImagesCles, date);
+        if (k < 0) {
+            k = Math.max(0, -k - 2); // Dernière image clé antérieure (ou la première si aucune)
+        } else {
+            while (k + 1 < nbImagesCles && datesImagesCles[k + 1] == date) {
+                k++;
+            }
+        }
+
+        DataInputStream in = flux(positionsImagesCles[k]);
+        in.readByte();
+        in.readLong();
+        in.readInt();
+        simulateur.restaurerPointDeReprise(in);
+
+        // Rejeu des événements qui suivent l'image clé, jusqu'à la date visée
+        try {
+            while (true) {
+                byte tag = in.readByte();
+                if (tag == EnregistreurTrace.IMAGE_CLE) {
+                    in.readLong();
+                    in.skipBytes(in.readInt());
+                    continue;
+                }
+                byte type = in.readByte();
+                long dateEvenement = in.readLong();
+                int robot = in.readInt();
+                int argument = in.readInt();
+                in.readInt();
+                in.readInt();
+                if (dateEvenement > date) {
+                    break;
+                }
+                simulateur.rejouer(type, dateEvenement, robot, argument);
+            }
+        } catch (EOFException e) {
+            // Fin de la trace
+        }
+        simulateur.terminerRejeu();
+    }
+
+    /**
+     * Ferme le fichier de trace.
+     *
+     * @throws IOException En cas d'erreur de fermeture.
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Parcourt la trace pour relever la position et la date de chaque image clé.
+     */
+    private void indexer() throws IOException {
+        DataInputStream in = flux(0);
+        if (in.readInt() != EnregistreurTrace.MAGIC) {
+            throw new IOException("Ce fichier n'est pas une trace de simulation.");
+        }
+        int version = in.readInt();
+        if (version != EnregistreurTrace.VERSION) {
+            throw new IOException("Version de trace non prise en charge : " + version);
+        }
+        long position = 8;
+        try {
+            while (true) {
+                byte tag = in.readByte();
+                if (tag == EnregistreurTrace.IMAGE_CLE) {
+                    long date = in.readLong();
+                    int taille = in.readInt();
+                    if (in.skipBytes(taille) < taille) {
+                        break; // Image clé incomplète
+                    }
+                    ajouterImageCle(date, position);
+                    dateFin = Math.max(dateFin, date);
+                    position += 1 + 8 + 4 + taille;
+                } else if (tag == EnregistreurTrace.EVENEMENT) {
+                    in.readByte();
+                    dateFin = Math.max(dateFin, in.readLong());
+                    in.skipBytes(16);
+                    position += 1 + 1 + 8 + 16;
+                } else {
+                    throw new IOException("Enregistrement de trace invalide à la position " + position);
+                }
+            }
+        } catch (EOFException e) {
+            // Fin de la trace, éventuellement tronquée
+        }
+    }
+
+    private void ajouterImageCle(long date, long position) {
+        if (nbImagesCles == datesImagesCles.length) {
+            datesImagesCles = Arrays.copyOf(datesImagesCles, nbImagesCles * 2);
+            positionsImagesCles = Arrays.copyOf(positionsImagesCles, nbImagesCles * 2);
+        }
+        datesImagesCles[nbImagesCles] = date;
+        positionsImagesCles[nbImagesCles] = position;
+        nbImagesCles++;
+    }
+
+    /**
+     * Ouvre un flux de lecture à partir d'une position du fichier.
+     */
+    private DataInputStream flux(long position) throws IOException {
+        canal.position(position);
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+    }
+}
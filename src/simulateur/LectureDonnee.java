@@ -11,7 +11,6 @@ import robot.*;
  * Classe LectureDonnee qui permet de lire les données de simulation à partir d'un fichier texte.
  */
 public class LectureDonnee {
-    private static final List<Case> casesEau = new ArrayList<>();
 
     /**
      * Lit un fichier de simulation et retourne un objet DonneeSimulation contenant les données lues.
@@ -23,7 +22,8 @@ public class LectureDonnee {
     public static DonneeSimulation lire(String fichier) throws FileNotFoundException {
         try {
             Scanner scanner = new Scanner(new File(fichier));
-            Carte carte = lireCarte(scanner);
+            List<Case> casesEau = new ArrayList<>(); // Propre à chaque fichier lu
+            Carte carte = lireCarte(scanner, casesEau);
             List<Incendie> incendies = lireIncendies(scanner);
             List<Robot> robots = lireRobots(scanner, carte);
             return new DonneeSimulation(carte, incendies, robots, casesEau);
@@ -36,10 +36,11 @@ public class LectureDonnee {
     /**
      * Lit la carte à partir du scanner.
      *
-     * @param scanner Le scanner utilisé pour lire le fichier.
+     * @param scanner  Le scanner utilisé pour lire le fichier.
+     * @param casesEau La liste à laquelle sont ajoutées les cases d'eau de la carte.
      * @return Un objet Carte représentant la carte lue.
      */
-    private static Carte lireCarte(Scanner scanner) {
+    private static Carte lireCarte(Scanner scanner, List<Case> casesEau) {
         ignorerCommentaires(scanner);
         int nbLignes = scanner.nextInt();
         int nbColonnes = scanner.nextInt();
@@ -0,0 +1,299 @@
+package simulateur;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import robot.*;
+
+/**
+ * Lot de simulations de Monte-Carlo : chaque stratégie enregistrée est simulée sur de nombreuses variantes
+ * aléatoires de chaque carte ({@link VariationScenario}), pour estimer la distribution de la date d'extinction
+ * du dernier incendie plutôt que sa seule valeur sur le scénario lu.
+ *
+ * <p>Chaque carte n'est lue qu'une fois : toutes ses variantes partagent la même grille de terrain, qui n'est
+ * plus modifiée, et ont leurs propres robots, incendies et simulateur. Les simulations sont réparties sur un
+ * groupe de fils à vol de tâches ({@link ForkJoinPool}), qui accueille aussi les calculs parallèles des
+ * stratégies. La variante {@code v} d'une carte ne dépend que de la graine du lot, de la carte et de {@code v} :
+ * toutes les stratégies sont évaluées sur les mêmes variantes, et un lot relancé avec la même graine donne les
+ * mêmes scénarios.</p>
+ *
+ * <p>Chaque résultat est écrit en CSV dès la fin de sa simulation, dans l'ordre où les simulations se terminent.
+ * Les distributions par carte et par stratégie sont retournées à la fin du lot.</p>
+ */
+public final class LotMonteCarlo {
+
+    /**
+     * En-tête des lignes CSV écrites par {@link #executer}.
+     */
+    public static final String ENTETE_CSV =
+        "carte,strategie,variante,graine,date_extinction,intensite_restante,eau_puisee,planification_ms";
+
+    private static final long MELANGE = 0x9E3779B97F4A7C15L; // Sépare les graines des variantes
+
+    private final List<Supplier<? extends StrategiePlanification>> fabriques = new ArrayList<>();
+    private final VariationScenario variation;
+    private final int nbVariantes;
+    private final long graine;
+    private final int parallelisme;
+
+    /**
+     * Distribution des dates d'extinction d'une stratégie sur les variantes d'une carte.
+     */
+    public static final class Distribution {
+        private final String carte;
+        private final String strategie;
+        private long[] dates = new long[16];
+        private int nbDates;
+        private int nbEchecs;
+        private boolean triees;
+
+        Distribution(String carte, String strategie) {
+            this.carte = carte;
+            this.strategie = strategie;
+        }
+
+        void ajouter(ComparaisonStrategies.Resultat resultat) {
+            if (resultat.getDateExtinction() < 0) {
+                nbEchecs++;
+                return;
+            }
+            if (nbDates == dates.length) {
+                dates = Arrays.copyOf(dates, 2 * nbDates);
+            }
+            dates[nbDates++] = resultat.getDateExtinction();
+            triees = false;
+        }
+
+        /**
+         * @return Le fichier de la carte.
+         */
+        public String getCarte() {
+            return carte;
+        }
+
+        /**
+         * @return Le nom de la stratégie.
+         */
+        public String getStrategie() {
+            return strategie;
+        }
+
+        /**
+         * @return Le nombre de variantes où tous les incendies ont été éteints.
+         */
+        public int getNbExtinctions() {
+            return nbDates;
+        }
+
+        /**
+         * @return Le nombre de variantes où des incendies brûlent encore à la fin de la simulation.
+         */
+        public int getNbEchecs() {
+            return nbEchecs;
+        }
+
+        /**
+         * @return La moyenne des dates d'extinction, ou -1 si aucune variante n'a été éteinte.
+         */
+        public double getMoyenne() {
+            if (nbDates == 0) {
+                return -1;
+            }
+            double somme = 0;
+            for (int i = 0; i < nbDates; i++) {
+                somme += dates[i];
+            }
+            return somme / nbDates;
+        }
+
+        /**
+         * Retourne un quantile des dates d'extinction (méthode du rang le plus proche).
+         *
+         * @param p L'ordre du quantile, entre 0 et 1.
+         * @return Le quantile, ou -1 si aucune variante n'a été éteinte.
+         */
+        public long getQuantile(double p) {
+            if (nbDates == 0) {
+                return -1;
+            }
+            if (!triees) {
+                Arrays.sort(dates, 0, nbDates);
+                triees = true;
+            }
+            int rang = (int) Math.ceil(p * nbDates) - 1;
+            return dates[Math.max(0, Math.min(nbDates - 1, rang))];
+        }
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param variation    La génération des variantes.
+     * @param nbVariantes  Le nombre de variantes simulées par carte.
+     * @param graine       La graine du lot.
+     * @param parallelisme Le nombre de fils de calcul.
+     */
+    public LotMonteCarlo(VariationScenario variation, int nbVariantes, long graine, int parallelisme) {
+        if (nbVariantes <= 0 || parallelisme <= 0) {
+            throw new IllegalArgumentException("Le nombre de variantes et le parallélisme doivent être strictement positifs.");
+        }
+        this.variation = variation;
+        this.nbVariantes = nbVariantes;
+        this.graine = graine;
+        this.parallelisme = parallelisme;
+    }
+
+    /**
+     * Enregistre une stratégie à évaluer. Une nouvelle instance est créée pour chaque simulation.
+     *
+     * @param fabrique La fabrique de la stratégie, par exemple {@code StrategieTournees::new}.
+     */
+    public void enregistrer(Supplier<? extends StrategiePlanification> fabrique) {
+        fabriques.add(fabrique);
+    }
+
+    /**
+     * Retourne la graine de la variante d'une carte.
+     *
+     * @param indiceCarte L'indice de la carte dans la liste du lot.
+     * @param variante    L'indice de la variante.
+     * @return La graine de la variante.
+     */
+    public long graineVariante(int indiceCarte, int variante) {
+        return graine + MELANGE * ((long) indiceCarte * nbVariantes + variante + 1);
+    }
+
+    /**
+     * Simule toutes les stratégies sur toutes les variantes des cartes, en écrivant les résultats en CSV
+     * au fil de l'eau (en-tête {@link #ENTETE_CSV}).
+     *
+     * @param cartes Les fichiers des cartes.
+     * @param csv    La sortie des résultats ; elle n'est pas fermée.
+     * @return Les distributions des dates d'extinction, par carte puis par stratégie.
+     * @throws FileNotFoundException si un fichier de carte est introuvable.
+     * @throws IOException           si l'écriture du CSV échoue.
+     * @throws InterruptedException  si le fil appelant est interrompu pendant le lot.
+     */
+    public List<Distribution> executer(List<String> cartes, Writer csv)
+            throws IOException, InterruptedException {
+        List<DonneeSimulation> donnees = new ArrayList<>();
+        for (String fichier : cartes) {
+            donnees.add(LectureDonnee.lire(fichier));
+        }
+
+        Map<String, Distribution> distributions = new LinkedHashMap<>();
+        ForkJoinPool groupe = new ForkJoinPool(parallelisme);
+        try {
+            CompletionService<Simulation> terminees = new ExecutorCompletionService<>(groupe);
+            int nbSimulations = 0;
+            for (int c = 0; c < cartes.size(); c++) {
+                for (int f = 0; f < fabriques.size(); f++) {
+                    for (int v = 0; v < nbVariantes; v++) {
+                        int indiceCarte = c;
+                        int indiceStrategie = f;
+                        int variante = v;
+                        terminees.submit(() -> simuler(cartes.get(indiceCarte), donnees.get(indiceCarte),
+                                                       indiceCarte, indiceStrategie, variante));
+                        nbSimulations++;
+                    }
+                }
+            }
+
+            csv.write(ENTETE_CSV);
+            csv.write('\n');
+            for (int n = 0; n < nbSimulations; n++) {
+                Simulation simulation;
+                try {
+                    simulation = terminees.take().get();
+                } catch (ExecutionException e) {
+                    // simuler rattrape déjà les erreurs des stratégies
+                    throw new IllegalStateException(e.getCause());
+                }
+                ComparaisonStrategies.Resultat r = simulation.resultat;
+                distribution(distributions, r.getCarte(), r.getStrategie()).ajouter(r);
+                csv.write(String.format(Locale.ROOT, "%s,%s,%d,%d,%d,%d,%d,%.3f%n", r.getCarte(), r.getStrategie(),
+                                        simulation.variante, simulation.graine, r.getDateExtinction(),
+                                        r.getIntensiteRestante(), r.getEauPuisee(), r.getDureePlanificationMs()));
+                csv.flush();
+            }
+        } finally {
+            groupe.shutdownNow();
+        }
+
+        // Les distributions sont reconstruites dans l'ordre des cartes et des stratégies
+        List<Distribution> resultat = new ArrayList<>();
+        for (String fichier : cartes) {
+            for (Supplier<? extends StrategiePlanification> fabrique : fabriques) {
+                resultat.add(distribution(distributions, fichier, fabrique.get().getNom()));
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Simulation d'une stratégie sur une variante.
+     */
+    private static final class Simulation {
+        final int variante;
+        final long graine;
+        final ComparaisonStrategies.Resultat resultat;
+
+        Simulation(int variante, long graine, ComparaisonStrategies.Resultat resultat) {
+            this.variante = variante;
+            this.graine = graine;
+            this.resultat = resultat;
+        }
+    }
+
+    /**
+     * Génère une variante d'une carte et y simule une stratégie, sur un fil du groupe.
+     */
+    private Simulation simuler(String fichier, DonneeSimulation donnes, int indiceCarte, int indiceStrategie,
+                               int variante) {
+        long graineVariante = graineVariante(indiceCarte, variante);
+        DonneeSimulation scenario = variation.generer(donnes, graineVariante);
+        StrategiePlanification strategie = fabriques.get(indiceStrategie).get();
+        return new Simulation(variante, graineVariante, ComparaisonStrategies.executer(fichier, strategie, scenario));
+    }
+
+    private static Distribution distribution(Map<String, Distribution> distributions, String carte, String strategie) {
+        return distributions.computeIfAbsent(carte + '\n' + strategie, cle -> new Distribution(carte, strategie));
+    }
+
+    /**
+     * Affiche les distributions côte à côte, sous forme d'un tableau par carte.
+     *
+     * @param distributions Les distributions retournées par {@link #executer}.
+     * @param sortie        Le flux sur lequel écrire le tableau.
+     */
+    public static void afficher(List<Distribution> distributions, PrintStream sortie) {
+        int largeur = "Stratégie".length();
+        for (Distribution d : distributions) {
+            largeur = Math.max(largeur, d.getStrategie().length());
+        }
+        String format = "%-" + largeur + "s  %8s  %8s  %10s  %8s  %8s  %8s  %8s%n";
+        String carte = null;
+        for (Distribution d : distributions) {
+            if (!d.getCarte().equals(carte)) {
+                carte = d.getCarte();
+                sortie.println();
+                sortie.println(carte);
+                sortie.printf(format, "Stratégie", "Éteintes", "Échecs", "Moyenne", "Min", "Médiane", "P90", "Max");
+            }
+            sortie.printf(format, d.getStrategie(), d.getNbExtinctions(), d.getNbEchecs(),
+                          String.format(Locale.ROOT, "%.0f", d.getMoyenne()), d.getQuantile(0),
+                          d.getQuantile(0.5), d.getQuantile(0.9), d.getQuantile(1));
+        }
+    }
+}
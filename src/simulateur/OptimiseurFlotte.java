@@ -0,0 +1,511 @@
+package simulateur;
+import carte.*;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import robot.*;
+
+/**
+ * Recherche de la composition d'une flotte de robots sur une carte : pour chaque coût de flotte, la date
+ * d'extinction la plus précoce. Une flotte est un ensemble de robots, chacun d'un type donné (avec son coût)
+ * et partant d'une caserne, c'est-à-dire d'une case de départ possible. Le résultat est le front de Pareto des
+ * flottes évaluées : aucune flotte du front n'est à la fois plus chère et plus lente qu'une autre.
+ *
+ * <p>Toutes les flottes d'au plus {@link #setNbRobotsMax} robots sont énumérées puis examinées par coût
+ * croissant. Une minoration de leur date d'extinction est calculée sans simulation, à partir des champs de
+ * distances de chaque type de robot depuis chaque caserne, calculés une seule fois : un incendie ne peut pas être
+ * éteint avant qu'un robot l'ait atteint. Une flotte dont la minoration atteint la meilleure date d'une flotte
+ * moins chère déjà évaluée ne peut pas entrer dans le front : elle est écartée sans être simulée. Les autres sont
+ * simulées sans interface, par lots en parallèle, avec la stratégie choisie ; les stratégies dérivées de
+ * {@link Strategie} partagent une même mémoire des coûts ({@link CacheCouts}), si bien que les chemins calculés
+ * pour une flotte servent aux suivantes.</p>
+ */
+public final class OptimiseurFlotte {
+
+    private static final int CAPACITE_CACHE = 100_000;
+    private static final int VOLUME_REFERENCE = 1000; // Volume servant à mesurer la durée des interventions
+    private static final int ITERATIONS_DICHOTOMIE = 40;
+
+    private final DonneeSimulation donnes;
+    private final int parallelisme;
+    private final List<Robot> modeles = new ArrayList<>();
+    private final List<Double> couts = new ArrayList<>();
+    private final List<Case> casernes = new ArrayList<>();
+    private double[] tempsParVolume;       // Durée d'intervention par unité de volume de chaque type
+    private double[] remplissageParVolume; // Durée de remplissage par unité de volume de chaque type
+    private Supplier<? extends StrategiePlanification> fabrique = Strategie::new;
+    private int nbRobotsMax = 3;
+    private long plafond = Long.MAX_VALUE;
+
+    // Statistiques de la dernière recherche
+    private int nbCandidates;
+    private int nbInaccessibles;
+    private int nbEcartees;
+    private int nbSimulations;
+
+    /**
+     * Une flotte évaluée : ses robots, son coût et sa date d'extinction simulée.
+     */
+    public static final class Flotte {
+        private final List<Robot> robots;
+        private final double cout;
+        private final long dateExtinction;
+
+        Flotte(List<Robot> robots, double cout, long dateExtinction) {
+            this.robots = robots;
+            this.cout = cout;
+            this.dateExtinction = dateExtinction;
+        }
+
+        /**
+         * @return Les robots de la flotte, à leur case de départ.
+         */
+        public List<Robot> getRobots() {
+            return robots;
+        }
+
+        /**
+         * @return Le coût de la flotte.
+         */
+        public double getCout() {
+            return cout;
+        }
+
+        /**
+         * @return La date d'extinction du dernier incendie, ou -1 si des incendies brûlent encore à la fin.
+         */
+        public long getDateExtinction() {
+            return dateExtinction;
+        }
+
+        /**
+         * @return La composition de la flotte, par exemple « Drone (0,8) + RobotARoues (6,5) ».
+         */
+        public String getComposition() {
+            StringBuilder texte = new StringBuilder();
+            for (Robot robot : robots) {
+                if (texte.length() > 0) {
+                    texte.append(" + ");
+                }
+                texte.append(robot.getType()).append(" (").append(robot.getPosition().getLigne())
+                     .append(',').append(robot.getPosition().getColonne()).append(')');
+            }
+            return texte.toString();
+        }
+    }
+
+    /**
+     * Flotte candidate : nombre de robots de chaque couple (type, caserne), coût et minoration de sa date
+     * d'extinction.
+     */
+    private static final class Candidate {
+        final int[] nombres;
+        final double cout;
+        final double borne;
+
+        Candidate(int[] nombres, double cout, double borne) {
+            this.nombres = nombres;
+            this.cout = cout;
+            this.borne = borne;
+        }
+    }
+
+    /**
+     * Constructeur.
+     *
+     * @param donnes       Les données de la carte : terrain, incendies et cases d'eau. Ses robots ne servent
+     *                     qu'à donner les casernes par défaut.
+     * @param parallelisme Le nombre de simulations exécutées simultanément.
+     */
+    public OptimiseurFlotte(DonneeSimulation donnes, int parallelisme) {
+        if (parallelisme <= 0) {
+            throw new IllegalArgumentException("Le parallélisme doit être strictement positif.");
+        }
+        this.donnes = donnes;
+        this.parallelisme = parallelisme;
+    }
+
+    /**
+     * Ajoute un type de robot disponible pour composer les flottes.
+     *
+     * @param modele Un robot du type voulu, avec sa vitesse ; sa position n'est pas utilisée.
+     * @param cout   Le coût d'un robot de ce type.
+     */
+    public void ajouterType(Robot modele, double cout) {
+        modeles.add(modele);
+        couts.add(cout);
+    }
+
+    /**
+     * Ajoute une caserne, d'où peuvent partir les robots capables de se déplacer sur son terrain.
+     * Sans caserne ajoutée, les casernes sont les cases de départ des robots de la carte.
+     *
+     * @param ligne   La ligne de la caserne.
+     * @param colonne La colonne de la caserne.
+     */
+    public void ajouterCaserne(int ligne, int colonne) {
+        Case caserne = donnes.getCarte().getCase(ligne, colonne);
+        if (!casernes.contains(caserne)) {
+            casernes.add(caserne);
+        }
+    }
+
+    /**
+     * Choisit la stratégie avec laquelle les flottes sont simulées (par défaut {@link Strategie}).
+     *
+     * @param fabrique La fabrique de la stratégie ; une instance est créée pour chaque simulation.
+     */
+    public void setStrategie(Supplier<? extends StrategiePlanification> fabrique) {
+        this.fabrique = fabrique;
+    }
+
+    /**
+     * Choisit le nombre maximal de robots d'une flotte (3 par défaut). Le nombre de flottes énumérées croît
+     * comme une puissance de ce nombre.
+     *
+     * @param nbRobotsMax Le nombre maximal de robots.
+     */
+    public void setNbRobotsMax(int nbRobotsMax) {
+        if (nbRobotsMax <= 0) {
+            throw new IllegalArgumentException("Le nombre de robots doit être strictement positif.");
+        }
+        this.nbRobotsMax = nbRobotsMax;
+    }
+
+    /**
+     * Choisit la date d'extinction au-delà de laquelle une flotte n'est pas retenue : les flottes dont la
+     * minoration la dépasse ne sont pas simulées.
+     *
+     * @param plafond La date d'extinction maximale.
+     */
+    public void setPlafond(long plafond) {
+        this.plafond = plafond;
+    }
+
+    /**
+     * Cherche le front de Pareto des flottes.
+     *
+     * @return Les flottes du front, par coût croissant (donc par date d'extinction décroissante).
+     * @throws InterruptedException si le fil appelant est interrompu pendant la recherche.
+     */
+    public List<Flotte> optimiser() throws InterruptedException {
+        if (modeles.isEmpty()) {
+            throw new IllegalStateException("Aucun type de robot n'a été ajouté.");
+        }
+        if (casernes.isEmpty()) {
+            for (Robot robot : donnes.getRobots()) {
+                ajouterCaserne(robot.getPosition().getLigne(), robot.getPosition().getColonne());
+            }
+        }
+
+        // Couples (type, caserne) possibles et temps d'arrivée de chacun sur chaque incendie
+        List<Integer> typeCouple = new ArrayList<>();
+        List<Case> caserneCouple = new ArrayList<>();
+        for (int t = 0; t < modeles.size(); t++) {
+            for (Case caserne : casernes) {
+                if (modeles.get(t).peutSeDeplacerSur(caserne.getNature())) {
+                    typeCouple.add(t);
+                    caserneCouple.add(caserne);
+                }
+            }
+        }
+        int nbCouples = typeCouple.size();
+        tempsParVolume = new double[modeles.size()];
+        remplissageParVolume = new double[modeles.size()];
+        Incendie reference = new Incendie(casernes.get(0), 0);
+        for (int t = 0; t < modeles.size(); t++) {
+            tempsParVolume[t] = reference.tempsIntervention(modeles.get(t), VOLUME_REFERENCE) / VOLUME_REFERENCE;
+            remplissageParVolume[t] = modeles.get(t).getTempsRemplissage(VOLUME_REFERENCE) / VOLUME_REFERENCE;
+        }
+        List<Incendie> incendies = donnes.getIncendies();
+        double[][] arrivee = new double[nbCouples][incendies.size()];
+        boolean[] eauAccessible = new boolean[nbCouples];
+        ForkJoinPool groupe = new ForkJoinPool(parallelisme);
+        try {
+            List<Callable<Void>> champs = new ArrayList<>();
+            for (int p = 0; p < nbCouples; p++) {
+                int couple = p;
+                champs.add(() -> {
+                    Robot robot = modeles.get(typeCouple.get(couple)).copie();
+                    ChampDistance champ = ChampDistance.enSecondesEntieres(donnes.getCarte(), robot, caserneCouple.get(couple));
+                    for (int j = 0; j < incendies.size(); j++) {
+                        Case position = incendies.get(j).getPosition();
+                        arrivee[couple][j] = champ.getTemps(donnes.getCarte().getCase(position.getLigne(), position.getColonne()));
+                    }
+                    eauAccessible[couple] = champ.getCaseEau(donnes.getCasesEau()) != null;
+                    return null;
+                });
+            }
+            attendre(groupe.invokeAll(champs));
+
+            // Énumération des flottes, examinées par coût croissant puis par minoration croissante
+            List<Candidate> candidates = new ArrayList<>();
+            enumerer(new int[nbCouples], 0, 0, typeCouple, arrivee, eauAccessible, candidates);
+            candidates.sort(Comparator.comparingDouble((Candidate c) -> c.cout).thenComparingDouble(c -> c.borne));
+            nbCandidates = candidates.size();
+            nbInaccessibles = 0;
+            nbEcartees = 0;
+            nbSimulations = 0;
+
+            CacheCouts cache = new CacheCouts(donnes.getCarte(), CAPACITE_CACHE);
+            List<Flotte> evaluees = new ArrayList<>();
+            long meilleure = Long.MAX_VALUE; // Meilleure date des flottes déjà évaluées, toutes moins chères
+            int suivante = 0;
+            while (suivante < candidates.size()) {
+                List<Callable<Flotte>> lot = new ArrayList<>();
+                while (lot.size() < 2 * parallelisme && suivante < candidates.size()) {
+                    Candidate candidate = candidates.get(suivante++);
+                    if (candidate.borne >= Double.MAX_VALUE) {
+                        nbInaccessibles++;
+                    } else if (candidate.borne > plafond || candidate.borne >= meilleure) {
+                        nbEcartees++;
+                    } else {
+                        lot.add(() -> simuler(candidate, typeCouple, caserneCouple, cache));
+                    }
+                }
+                for (Flotte flotte : attendre(groupe.invokeAll(lot))) {
+                    nbSimulations++;
+                    evaluees.add(flotte);
+                    if (flotte.getDateExtinction() >= 0) {
+                        meilleure = Math.min(meilleure, flotte.getDateExtinction());
+                    }
+                }
+            }
+            return frontDePareto(evaluees);
+        } finally {
+            groupe.shutdownNow();
+        }
+    }
+
+    /**
+     * Énumère les flottes de 1 à nbRobotsMax robots, sous forme de nombres de robots par couple,
+     * à partir du couple p.
+     */
+    private void enumerer(int[] nombres, int p, int nbRobots, List<Integer> typeCouple, double[][] arrivee,
+                          boolean[] eauAccessible, List<Candidate> candidates) {
+        if (p == nombres.length) {
+            if (nbRobots > 0) {
+                double cout = 0;
+                for (int q = 0; q < nombres.length; q++) {
+                    cout += nombres[q] * couts.get(typeCouple.get(q));
+                }
+                candidates.add(new Candidate(nombres.clone(), cout, borne(nombres, typeCouple, arrivee, eauAccessible)));
+            }
+            return;
+        }
+        for (int n = 0; nbRobots + n <= nbRobotsMax; n++) {
+            nombres[p] = n;
+            enumerer(nombres, p + 1, nbRobots + n, typeCouple, arrivee, eauAccessible, candidates);
+        }
+        nombres[p] = 0;
+    }
+
+    /**
+     * Minore la date d'extinction d'une flotte, en supposant que chaque intervention et chaque remplissage durent
+     * le temps prévu pour leur volume. Un incendie ne peut pas être éteint avant que le plus proche des robots
+     * l'ait atteint, puis que la flotte entière ait déversé toute son intensité ({@link #dureeMinimale}) ; de même
+     * pour l'intensité de tous les incendies à partir de la première arrivée. Les dates des événements étant
+     * arrondies à la seconde, deux secondes sont retirées par intervention possible. Vaut {@link Double#MAX_VALUE}
+     * si un incendie est inaccessible à toute la flotte, ou si aucun de ses robots ne peut se remplir et que leurs
+     * réservoirs ne suffisent pas.
+     */
+    private double borne(int[] nombres, List<Integer> typeCouple, double[][] arrivee, boolean[] eauAccessible) {
+        double volumeDisponible = 0; // Volume que la flotte peut déverser
+        for (int p = 0; p < nombres.length; p++) {
+            if (nombres[p] > 0) {
+                volumeDisponible += eauAccessible[p] ? Double.POSITIVE_INFINITY
+                    : (double) nombres[p] * modeles.get(typeCouple.get(p)).getNiveauReservoirEau();
+            }
+        }
+        double borne = 0;
+        double premiereArrivee = Double.MAX_VALUE;
+        double intensiteTotale = 0;
+        double arrondisTotal = 0;
+        for (int j = 0; j < donnes.getIncendies().size(); j++) {
+            int intensite = donnes.getIncendies().get(j).getIntensite();
+            if (intensite <= 0) {
+                continue;
+            }
+            double premier = Double.MAX_VALUE;
+            double arrondis = 0;
+            for (int p = 0; p < nombres.length; p++) {
+                if (nombres[p] > 0) {
+                    premier = Math.min(premier, arrivee[p][j]);
+                    int capacite = modeles.get(typeCouple.get(p)).getCapaciteMaxReservoir();
+                    arrondis += 2 * nombres[p] * (Math.ceil((double) intensite / capacite) + 1);
+                }
+            }
+            if (premier >= Double.MAX_VALUE) {
+                return Double.MAX_VALUE;
+            }
+            borne = Math.max(borne, premier + dureeMinimale(nombres, typeCouple, intensite) - arrondis);
+            premiereArrivee = Math.min(premiereArrivee, premier);
+            intensiteTotale += intensite;
+            arrondisTotal += arrondis;
+        }
+        if (intensiteTotale > volumeDisponible) {
+            return Double.MAX_VALUE;
+        }
+        if (intensiteTotale > 0) {
+            borne = Math.max(borne, premiereArrivee + dureeMinimale(nombres, typeCouple, intensiteTotale) - arrondisTotal);
+        }
+        return borne;
+    }
+
+    /**
+     * Minore la durée nécessaire à la flotte pour déverser un volume, par dichotomie sur la durée : pendant une
+     * durée d, un robot déverse au plus un réservoir plein au rythme de ses interventions, puis au plus ce qu'il
+     * peut remplir et déverser pendant le reste du temps, sans compter ses trajets.
+     */
+    private double dureeMinimale(int[] nombres, List<Integer> typeCouple, double volume) {
+        double min = 0;
+        double max = 1;
+        while (volumeDeverse(nombres, typeCouple, max) < volume) {
+            max *= 2;
+        }
+        for (int i = 0; i < ITERATIONS_DICHOTOMIE; i++) {
+            double milieu = (min + max) / 2;
+            if (volumeDeverse(nombres, typeCouple, milieu) < volume) {
+                min = milieu;
+            } else {
+                max = milieu;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Majore le volume que la flotte peut déverser pendant une durée.
+     */
+    private double volumeDeverse(int[] nombres, List<Integer> typeCouple, double duree) {
+        double volume = 0;
+        for (int p = 0; p < nombres.length; p++) {
+            if (nombres[p] > 0) {
+                int t = typeCouple.get(p);
+                double capacite = modeles.get(t).getCapaciteMaxReservoir();
+                double premierReservoir = Math.min(capacite, duree / tempsParVolume[t]);
+                double reste = duree - premierReservoir * tempsParVolume[t];
+                volume += nombres[p] * (premierReservoir + reste / (tempsParVolume[t] + remplissageParVolume[t]));
+            }
+        }
+        return volume;
+    }
+
+    /**
+     * Simule une flotte candidate sur ses propres robots et incendies.
+     */
+    private Flotte simuler(Candidate candidate, List<Integer> typeCouple, List<Case> caserneCouple, CacheCouts cache) {
+        List<Incendie> incendies = new ArrayList<>();
+        for (Incendie incendie : donnes.getIncendies()) {
+            incendies.add(new Incendie(incendie.getPosition(), incendie.getIntensite()));
+        }
+        DonneeSimulation flotte = new DonneeSimulation(donnes.getCarte(), incendies,
+                                                       robotsAuDepart(candidate, typeCouple, caserneCouple),
+                                                       donnes.getCasesEau());
+        StrategiePlanification strategie = fabrique.get();
+        if (strategie instanceof Strategie) {
+            ((Strategie) strategie).setCacheCoutsPartage(cache);
+        }
+        ComparaisonStrategies.Resultat resultat = ComparaisonStrategies.executer("flotte", strategie, flotte);
+        // Les robots simulés ont bougé : la flotte retournée est reconstruite à ses casernes
+        return new Flotte(robotsAuDepart(candidate, typeCouple, caserneCouple), candidate.cout,
+                          resultat.getDateExtinction());
+    }
+
+    /**
+     * Crée les robots d'une flotte candidate, chacun à sa caserne.
+     */
+    private List<Robot> robotsAuDepart(Candidate candidate, List<Integer> typeCouple, List<Case> caserneCouple) {
+        List<Robot> robots = new ArrayList<>();
+        for (int p = 0; p < candidate.nombres.length; p++) {
+            for (int n = 0; n < candidate.nombres[p]; n++) {
+                Robot robot = modeles.get(typeCouple.get(p)).copie();
+                robot.setPosition(caserneCouple.get(p));
+                robots.add(robot);
+            }
+        }
+        return robots;
+    }
+
+    /**
+     * Retient les flottes qui ont éteint tous les incendies dans le plafond et qu'aucune autre ne domine.
+     */
+    private List<Flotte> frontDePareto(List<Flotte> evaluees) {
+        List<Flotte> triees = new ArrayList<>();
+        for (Flotte flotte : evaluees) {
+            if (flotte.getDateExtinction() >= 0 && flotte.getDateExtinction() <= plafond) {
+                triees.add(flotte);
+            }
+        }
+        triees.sort(Comparator.comparingDouble(Flotte::getCout).thenComparingLong(Flotte::getDateExtinction));
+        List<Flotte> front = new ArrayList<>();
+        for (Flotte flotte : triees) {
+            if (front.isEmpty() || flotte.getDateExtinction() < front.get(front.size() - 1).getDateExtinction()) {
+                front.add(flotte);
+            }
+        }
+        return front;
+    }
+
+    private static <T> List<T> attendre(List<Future<T>> futurs) throws InterruptedException {
+        List<T> resultats = new ArrayList<>();
+        for (Future<T> futur : futurs) {
+            try {
+                resultats.add(futur.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return resultats;
+    }
+
+    /**
+     * @return Le nombre de flottes énumérées lors de la dernière recherche.
+     */
+    public int getNbCandidates() {
+        return nbCandidates;
+    }
+
+    /**
+     * @return Le nombre de flottes écartées lors de la dernière recherche parce qu'elles ne peuvent pas éteindre
+     *         tous les incendies (incendie ou eau inaccessible).
+     */
+    public int getNbInaccessibles() {
+        return nbInaccessibles;
+    }
+
+    /**
+     * @return Le nombre de flottes écartées sans simulation lors de la dernière recherche grâce à la minoration.
+     */
+    public int getNbEcartees() {
+        return nbEcartees;
+    }
+
+    /**
+     * @return Le nombre de flottes simulées lors de la dernière recherche.
+     */
+    public int getNbSimulations() {
+        return nbSimulations;
+    }
+
+    /**
+     * Affiche le front de Pareto, une flotte par ligne.
+     *
+     * @param front  Le front retourné par {@link #optimiser}.
+     * @param sortie Le flux sur lequel écrire le tableau.
+     */
+    public static void afficher(List<Flotte> front, PrintStream sortie) {
+        sortie.printf("%8s  %10s  %s%n", "Coût", "Extinction", "Flotte");
+        for (Flotte flotte : front) {
+            sortie.printf(Locale.ROOT, "%8.1f  %10d  %s%n", flotte.getCout(), flotte.getDateExtinction(),
+                          flotte.getComposition());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package simulateur;
+import carte.Carte;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import robot.Evenement;
+
+/**
+ * Format binaire d'un point de reprise de la simulation.
+ * Un point de reprise contient la date, l'état des robots, l'intensité des incendies et les événements
+ * en attente, rangés dans leur ordre d'exécution :
+ * <pre>
+ * MAGIC VERSION nbLignes nbColonnes date
+ * nbRobots   (ligne colonne vitesse reservoir eauPuisee)*
+ * nbIncendies (intensite)*
+ * nbEvenements (type date robot argument)*
+ * </pre>
+ */
+final class PointDeReprise {
+
+    static final int MAGIC = 0x52425043; // "RBPC"
+
+    private PointDeReprise() {
+    }
+
+    /**
+     * Encode un point de reprise dans un tableau d'octets.
+     *
+     * @param carte     La carte de la simulation (ses dimensions sont vérifiées à la relecture).
+     * @param etat      L'état de la simulation.
+     * @param enAttente Les événements en attente, dans leur ordre d'exécution.
+     * @param codec     Le codec des événements.
+     * @return Le point de reprise encodé.
+     */
+    static byte[] encoder(Carte carte, EtatSimulation etat, Evenement[] enAttente, CodecEvenement codec) {
+        ByteArrayOutputStream octets = new ByteArrayOutputStream(64 + 32 * enAttente.length);
+        try (DataOutputStream out = new DataOutputStream(octets)) {
+            ecrire(out, carte, etat, enAttente, codec);
+        } catch (IOException e) {
+            throw new IllegalStateException("Écriture en mémoire impossible", e);
+        }
+        return octets.toByteArray();
+    }
+
+    /**
+     * Écrit un point de reprise.
+     *
+     * @param out       Le flux de sortie.
+     * @param carte     La carte de la simulation.
+     * @param etat      L'état de la simulation.
+     * @param enAttente Les événements en attente, dans leur ordre d'exécution.
+     * @param codec     Le codec des événements.
+     * @throws IOException En cas d'erreur d'écriture.
+     */
+    static void ecrire(DataOutput out, Carte carte, EtatSimulation etat, Evenement[] enAttente,
+                       CodecEvenement codec) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(EtatSimulation.VERSION);
+        out.writeInt(carte.getNbLignes());
+        out.writeInt(carte.getNbColonnes());
+        out.writeLong(etat.getDate());
+
+        out.writeInt(etat.getNbRobots());
+        for (int i = 0; i < etat.getNbRobots(); i++) {
+            out.writeInt(etat.getRobotLigne()[i]);
+            out.writeInt(etat.getRobotColonne()[i]);
+            out.writeDouble(etat.getRobotVitesse()[i]);
+            out.writeInt(etat.getRobotReservoir()[i]);
+            out.writeLong(etat.getRobotEauPuisee()[i]);
+        }
+
+        out.writeInt(etat.getNbIncendies());
+        for (int intensite : etat.getIntensites()) {
+            out.writeInt(intensite);
+        }
+
+        out.writeInt(enAttente.length);
+        for (Evenement e : enAttente) {
+            codec.ecrire(out, e);
+        }
+    }
+
+    /**
+     * Lit un point de reprise.
+     * Les événements en attente sont ajoutés, dans leur ordre d'exécution, à la liste fournie ; l'état retourné
+     * référence ces événements par leur position dans cette liste.
+     *
+     * @param in        Le flux d'entrée.
+     * @param carte     La carte de la simulation.
+     * @param codec     Le codec des événements.
+     * @param enAttente La liste qui reçoit les événements en attente.
+     * @return L'état lu.
+     * @throws IOException Si le fichier est invalide ou ne correspond pas à la simulation.
+     */
+    static EtatSimulation lire(DataInput in, Carte carte, CodecEvenement codec, List<Evenement> enAttente)
+            throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Ce fichier n'est pas un point de reprise.");
+        }
+        int version = in.readInt();
+        if (version != EtatSimulation.VERSION) {
+            throw new IOException("Version de point de reprise non prise en charge : " + version);
+        }
+        if (in.readInt() != carte.getNbLignes() || in.readInt() != carte.getNbColonnes()) {
+            throw new IOException("Le point de reprise ne correspond pas à cette carte.");
+        }
+        long date = in.readLong();
+
+        int nbRobots = in.readInt();
+        int[] robotLigne = new int[nbRobots];
+        int[] robotColonne = new int[nbRobots];
+        double[] robotVitesse = new double[nbRobots];
+        int[] robotReservoir = new int[nbRobots];
+        long[] robotEauPuisee = new long[nbRobots];
+        for (int i = 0; i < nbRobots; i++) {
+            robotLigne[i] = in.readInt();
+            robotColonne[i] = in.readInt();
+            robotVitesse[i] = in.readDouble();
+            robotReservoir[i] = in.readInt();
+            robotEauPuisee[i] = in.readLong();
+        }
+
+        int[] intensites = new int[in.readInt()];
+        for (int i = 0; i < intensites.length; i++) {
+            intensites[i] = in.readInt();
+        }
+
+        // Des événements triés forment déjà un tas valide : le tas est la suite des indices
+        int nbEvenements = in.readInt();
+        int[] file = new int[nbEvenements];
+        for (int i = 0; i < nbEvenements; i++) {
+            enAttente.add(codec.lire(in));
+            file[i] = i;
+        }
+        // La génération du registre est fixée par le simulateur, une fois les événements ajoutés
+        return new EtatSimulation(date, robotLigne, robotColonne, robotVitesse, robotReservoir, robotEauPuisee,
+                                  intensites, file, nbEvenements, 0);
+    }
+}
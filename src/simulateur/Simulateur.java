@@ -1,143 +1,465 @@
 package simulateur;
-import java.util.PriorityQueue;
 import gui.GUISimulator;
 import robot.*;
 import carte.*;
 import java.awt.Color;
+import java.awt.Component;
+import java.awt.GraphicsEnvironment;
+import java.awt.KeyboardFocusManager;
+import java.awt.Window;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
 import gui.Simulable;
-import gui.ImageElement;
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 /**
  * Classe Simulateur pour gérer la simulation des robots et des incendies sur une carte.
  * Cette classe implémente l'interface {@link Simulable} pour permettre une interaction avec l'interface graphique.
  */
-public final class Simulateur implements Simulable {
+public final class Simulateur implements Simulable, Ordonnanceur {
 
     private final Carte carte;
     private final List<Incendie> incendies;
     private final List<Robot> robots;
-    private final List<Case> initialRobotPositions;
-    private final List<Double> initialRobotvitesse;
-    private final List<Integer> initialRobotReservoir;
-    private final List<Integer> initialFireintensite;
-    private final List<Evenement> initialEvents;
+    private int[] spritesRobots; // Indice dans l'atlas du sprite de chaque robot, dans l'ordre de robots
+    private EtatSimulation etatInitial;
+    private boolean etatInitialComplet;
     private long dateSimulation;
-    private final PriorityQueue<Evenement> evenements;
+    private final FileEvenements evenements;
     private GUISimulator gui;
 
+    // Taille de la fenêtre et cadence de l'affichage
+    private static final int LARGEUR_FENETRE = 800;
+    private static final int HAUTEUR_FENETRE = 600;
+    private static final int IMAGES_PAR_SECONDE = 30;
+    private static final int DUREE_ANIMATION_MS = 200;
+
+    // Déplacement de la vue (en fraction de la fenêtre) et facteur de zoom par appui sur une touche
+    private static final double PAS_DEPLACEMENT = 0.25;
+    private static final double FACTEUR_ZOOM = 2.0;
+
+    // Nombre de dates d'événements passées par la touche S
+    private static final int DATES_SAUTEES = 100;
+
+    // Nombre de pas pour parcourir toute une trace avec les touches Page précédente et Page suivante
+    private static final int PAS_TRACE = 50;
+
+    // Marques des incendies et des robots en détail réduit
+    static final Color COULEUR_INCENDIE = Color.RED;
+    static final Color COULEUR_ROBOT = Color.YELLOW;
+
+    // Fil de simulation et images publiées pour l'affichage
+    private final ExecutorService boucle;
+    private final AtomicReference<ImageSimulation> imagePubliee = new AtomicReference<>();
+    private volatile boolean enContinu;
+    private Timer minuterie;
+
+    // Éléments graphiques conservés entre deux affichages (fil de l'interface uniquement)
+    private VueCarte vue;
+    private AtlasSprites atlas;
+    private BufferedImage marqueIncendie;
+    private BufferedImage marqueRobot;
+    private FondCarte fond;
+    private ElementSprite[] elementsIncendies;
+    private ElementSprite[] elementsRobots;
+    private int[] xAffiches;
+    private int[] yAffiches;
+    private ImageSimulation imageAffichee;
+    private boolean animationTerminee;
+
+    // Points de reprise périodiques
+    private Path fichierReprise;
+    private long intervalleReprise;
+    private long prochaineReprise;
+    private ExecutorService ecrivainReprise;
+    private final AtomicReference<byte[]> repriseEnAttente = new AtomicReference<>();
+
+    private CodecEvenement codec;
+    private EnregistreurTrace enregistreur;
+    private volatile LecteurTrace lecteurTrace;
+    private volatile long dateTrace;           // Dernière date visée dans la trace
+    private volatile long dateApresTrace = -1; // Date de la simulation juste après ce positionnement
+
+    // Nombre d'événements en attente par robot, et observateurs prévenus lorsqu'il tombe à zéro
+    private int[] enAttenteParRobot;
+    private final List<ObservateurRobotLibre> observateurs = new ArrayList<>();
+
     /**
      * Constructeur du Simulateur. Initialise les données de simulation et configure l'interface graphique.
      *
      * @param donnes Les données nécessaires pour la simulation (carte, robots, incendies).
      */
     public Simulateur(DonneeSimulation donnes) {
+        this(donnes, true);
+    }
+
+    /**
+     * Constructeur du Simulateur, avec ou sans interface graphique.
+     * Sans interface, la simulation peut être avancée et exportée (voir {@link ExportImages}) sans écran.
+     *
+     * @param donnes        Les données nécessaires pour la simulation (carte, robots, incendies).
+     * @param avecInterface true pour ouvrir l'interface graphique.
+     */
+    public Simulateur(DonneeSimulation donnes, boolean avecInterface) {
         this.carte = donnes.getCarte();
         this.incendies = donnes.getIncendies();
         this.robots = donnes.getRobots();
+        this.spritesRobots = new int[robots.size()];
+        for (int i = 0; i < robots.size(); i++) {
+            spritesRobots[i] = Sprite.robot(robots.get(i)).ordinal();
+        }
         this.dateSimulation = 0;
-        this.evenements = new PriorityQueue<>();
+        this.evenements = new FileEvenements();
 
-        // Sauvegarde des états initiaux
-        this.initialRobotPositions = new ArrayList<>();
-        this.initialRobotReservoir = new ArrayList<>();
-        this.initialRobotvitesse = new ArrayList<>();
-        this.initialEvents = new ArrayList<>();
+        // Sauvegarde des états initiaux des robots et des incendies ; la file d'événements
+        // est ajoutée à l'instantané au premier pas de simulation, une fois la stratégie planifiée
+        this.etatInitial = capturerEtat();
+        this.etatInitialComplet = false;
 
-        for (Robot robot : robots) {
-            initialRobotPositions.add(robot.getPosition());
-            initialRobotReservoir.add(robot.getNiveauReservoirEau());
-            initialRobotvitesse.add(robot.getVitesse());
-        }
-
-        // Sauvegarder les états initiaux des incendies
-        this.initialFireintensite = new ArrayList<>();
-        for (Incendie incendie : incendies) {
-            initialFireintensite.add(incendie.getIntensite());
+        // Fil de simulation : toutes les avancées de la simulation y sont exécutées, dans l'ordre
+        this.boucle = Executors.newSingleThreadExecutor(r -> {
+            Thread fil = new Thread(r, "boucle-simulation");
+            fil.setDaemon(true);
+            return fil;
+        });
+        publierImage();
+        if (!avecInterface) {
+            return;
         }
 
-        // Sauvegarder les événements initiaux
-        initialEvents.addAll(evenements);
-
         // Configuration de l'interface graphique
-        int largeur = 800;
-        int hauteur = 600;
-        int largeurCase = largeur / carte.getNbColonnes();
-        int hauteurCase = hauteur / carte.getNbLignes();
-
-        this.gui = new GUISimulator(largeur, hauteur, Color.WHITE);
+        this.gui = new GUISimulator(LARGEUR_FENETRE, HAUTEUR_FENETRE, Color.WHITE);
         gui.setSimulable(this);
-        afficherSimulation(carte, largeurCase, hauteurCase);
+        this.vue = new VueCarte(LARGEUR_FENETRE, HAUTEUR_FENETRE, carte.getNbLignes(), carte.getNbColonnes());
+        rafraichirAffichage();
+        if (!GraphicsEnvironment.isHeadless()) {
+            KeyboardFocusManager.getCurrentKeyboardFocusManager().addKeyEventDispatcher(this::toucheClavier);
+        }
+
+        // L'affichage relit la dernière image publiée à sa propre cadence
+        this.minuterie = new Timer(1000 / IMAGES_PAR_SECONDE, e -> rafraichirAffichage());
+        minuterie.start();
     }
 
     /**
-     * Affiche la simulation dans l'interface graphique.
+     * Affiche la dernière image publiée de la simulation dans l'interface graphique.
+     * Seule la partie de la carte visible dans la vue est dessinée. Le terrain visible est dessiné une seule fois
+     * dans un fond hors écran ; les éléments des incendies et des robots sont conservés d'un affichage à l'autre
+     * et ne sont recréés que lorsque leur état ou la vue ont changé.
+     * Les images proviennent d'un atlas chargé une seule fois et déjà à l'échelle d'une case ; en détail réduit,
+     * les incendies et les robots sont représentés par des marques de couleur.
+     * La position des robots est interpolée entre les deux dernières images publiées.
      *
-     * @param carte        La carte à afficher.
-     * @param largeurCase  Largeur d'une case dans l'interface.
-     * @param hauteurCase  Hauteur d'une case dans l'interface.
+     * @param carte La carte à afficher.
+     * @param vue   La vue sur la carte.
      */
-    public void afficherSimulation(Carte carte, int largeurCase, int hauteurCase) {
+    public void afficherSimulation(Carte carte, VueCarte vue) {
+        ImageSimulation image = imagePubliee.get();
+        long ecoule = System.nanoTime() - image.getInstantPublication();
+        double alpha = Math.min(1.0, ecoule / (DUREE_ANIMATION_MS * 1_000_000.0));
+
         gui.reset();
 
         // Dessiner la carte avec les différents types de terrain
-        for (int i = 0; i < carte.getNbLignes(); i++) {
-            for (int j = 0; j < carte.getNbColonnes(); j++) {
-                int x = j * largeurCase;
-                int y = i * hauteurCase;
-
-                Case myCase = carte.getCase(i, j);
-                NatureTerrain nature = myCase.getNature();
-                String imagePath;
-
-                imagePath = switch (nature) {
-                    case EAU -> "ressources/sea.png";
-                    case FORET -> "ressources/forest.png";
-                    case ROCHE -> "ressources/rocks.png";
-                    case HABITAT -> "ressources/city.png";
-                    default -> "ressources/grass.png";
-                };
+        if (fond == null || !fond.correspondA(vue)
+                || elementsRobots.length != image.getNbRobots() || elementsIncendies.length != image.getNbIncendies()) {
+            int tailleCase = vue.getTailleCase();
+            if (!vue.detailReduit()) {
+                atlas = atlas == null ? new AtlasSprites(AtlasSprites.DOSSIER_RESSOURCES, tailleCase, tailleCase)
+                                      : atlas.aLaTaille(tailleCase, tailleCase);
+            }
+            fond = new FondCarte(carte, vue, atlas);
+            marqueIncendie = ElementSprite.marque(COULEUR_INCENDIE, tailleCase);
+            marqueRobot = ElementSprite.marque(COULEUR_ROBOT, tailleCase);
+            elementsIncendies = new ElementSprite[image.getNbIncendies()];
+            elementsRobots = new ElementSprite[image.getNbRobots()];
+            xAffiches = new int[image.getNbRobots()];
+            yAffiches = new int[image.getNbRobots()];
+        }
+        gui.addGraphicalElement(fond);
 
-                gui.addGraphicalElement(new ImageElement(x, y, imagePath, largeurCase, hauteurCase, null));
+        // Ajouter les incendies visibles
+        for (int i = 0; i < elementsIncendies.length; i++) {
+            if (image.getIntensite(i) > 0) {
+                int ligne = image.getIncendieLigne(i);
+                int colonne = image.getIncendieColonne(i);
+                if (!vue.estVisible(ligne, colonne)) {
+                    continue;
+                }
+                if (elementsIncendies[i] == null) {
+                    int x = vue.versX(colonne);
+                    int y = vue.versY(ligne);
+                    elementsIncendies[i] = new ElementSprite(x, y, vue.detailReduit() ? marqueIncendie
+                                                                  : atlas.getImage(Sprite.INCENDIE.ordinal()));
+                }
+                gui.addGraphicalElement(elementsIncendies[i]);
             }
         }
 
-        // Ajouter les incendies sur la carte
-        String fireImagePath = "ressources/fire.png";
-        for (Incendie incendie : incendies) {
-            if (incendie.getIntensite() > 0) {
-                int x = incendie.getPosition().getColonne() * largeurCase;
-                int y = incendie.getPosition().getLigne() * hauteurCase;
-                gui.addGraphicalElement(new ImageElement(x, y, fireImagePath, largeurCase, hauteurCase, null));
+        // Ajouter les robots visibles
+        for (int i = 0; i < elementsRobots.length; i++) {
+            double ligne = image.getLigneInterpolee(i, alpha);
+            double colonne = image.getColonneInterpolee(i, alpha);
+            if (!vue.estVisible(ligne, colonne)) {
+                continue;
             }
+            int x = vue.versX(colonne);
+            int y = vue.versY(ligne);
+            if (elementsRobots[i] == null || xAffiches[i] != x || yAffiches[i] != y) {
+                elementsRobots[i] = new ElementSprite(x, y, vue.detailReduit() ? marqueRobot
+                                                          : atlas.getImage(image.getSpriteRobot(i)));
+                xAffiches[i] = x;
+                yAffiches[i] = y;
+            }
+            gui.addGraphicalElement(elementsRobots[i]);
         }
+        imageAffichee = image;
+        animationTerminee = alpha >= 1.0;
+    }
 
-        // Ajouter les robots
-        for (Robot robot : robots) {
-            String robotImagePath = switch (robot.getType()) {
-                case "Drone" -> "ressources/drone.png";
-                case "RobotAPattes" -> "ressources/apattes.png";
-                case "RobotAChenilles" -> "ressources/achenilles.png";
-                default -> "ressources/firetruck.png";
-            };
-            int x = robot.getPosition().getColonne() * largeurCase;
-            int y = robot.getPosition().getLigne() * hauteurCase;
-            gui.addGraphicalElement(new ImageElement(x, y, robotImagePath, largeurCase, hauteurCase, null));
+    /**
+     * Réagit à une touche du clavier. Pour la vue : flèches pour se déplacer, + et - pour zoomer,
+     * 0 pour revenir à la carte entière. Pour la simulation : S pour sauter plusieurs dates d'événements,
+     * T pour avancer jusqu'à une date saisie, L pour lancer ou arrêter la simulation en continu.
+     * Seules les touches tapées dans la fenêtre du simulateur sont interceptées : celles des autres fenêtres,
+     * comme les boîtes de saisie d'une date, leur sont laissées.
+     *
+     * @param e L'événement clavier.
+     * @return true si la touche a été utilisée.
+     */
+    private boolean toucheClavier(KeyEvent e) {
+        if (e.getID() != KeyEvent.KEY_PRESSED || fenetreSource(e) != gui) {
+            return false;
         }
+        switch (e.getKeyCode()) {
+            case KeyEvent.VK_S -> sauterDates(DATES_SAUTEES);
+            case KeyEvent.VK_T -> {
+                String saisie = JOptionPane.showInputDialog("Avancer jusqu'à la date :", dateSimulation);
+                if (saisie != null) {
+                    try {
+                        avancerJusqua(Long.parseLong(saisie.trim()));
+                    } catch (NumberFormatException ex) {
+                        System.err.println("Date invalide : " + saisie);
+                    }
+                }
+            }
+            case KeyEvent.VK_L -> {
+                if (enContinu) {
+                    arreter();
+                } else {
+                    lancer();
+                }
+            }
+            case KeyEvent.VK_PAGE_UP, KeyEvent.VK_PAGE_DOWN, KeyEvent.VK_R -> {
+                LecteurTrace lecteur = lecteurTrace;
+                if (lecteur == null) {
+                    return false;
+                }
+                long pas = Math.max(1, (lecteur.getDateFin() - lecteur.getDateDebut()) / PAS_TRACE);
+                // La simulation s'arrête à la date du prochain événement : les pas partent de la date visée,
+                // tant que la simulation n'a pas été avancée autrement
+                long depart = dateSimulation == dateApresTrace ? dateTrace : dateSimulation;
+                if (e.getKeyCode() == KeyEvent.VK_PAGE_UP) {
+                    chercherDansTrace(lecteur, depart - pas);
+                } else if (e.getKeyCode() == KeyEvent.VK_PAGE_DOWN) {
+                    chercherDansTrace(lecteur, depart + pas);
+                } else {
+                    String saisie = JOptionPane.showInputDialog("Date de la trace (" + lecteur.getDateDebut() + " à "
+                                                                + lecteur.getDateFin() + ") :", dateSimulation);
+                    if (saisie != null) {
+                        try {
+                            chercherDansTrace(lecteur, Long.parseLong(saisie.trim()));
+                        } catch (NumberFormatException ex) {
+                            System.err.println("Date invalide : " + saisie);
+                        }
+                    }
+                }
+            }
+            case KeyEvent.VK_LEFT -> vue.deplacer(0, -PAS_DEPLACEMENT);
+            case KeyEvent.VK_RIGHT -> vue.deplacer(0, PAS_DEPLACEMENT);
+            case KeyEvent.VK_UP -> vue.deplacer(-PAS_DEPLACEMENT, 0);
+            case KeyEvent.VK_DOWN -> vue.deplacer(PAS_DEPLACEMENT, 0);
+            case KeyEvent.VK_PLUS, KeyEvent.VK_ADD, KeyEvent.VK_EQUALS -> vue.zoomer(FACTEUR_ZOOM);
+            case KeyEvent.VK_MINUS, KeyEvent.VK_SUBTRACT -> vue.zoomer(1 / FACTEUR_ZOOM);
+            case KeyEvent.VK_0, KeyEvent.VK_NUMPAD0 -> vue.ajuster();
+            default -> {
+                return false;
+            }
+        }
+        rafraichirAffichage();
+        return true;
+    }
+
+    /**
+     * Retourne la fenêtre dans laquelle une touche a été tapée.
+     *
+     * @param e L'événement clavier.
+     * @return La fenêtre de la source de l'événement, ou null si elle n'est dans aucune fenêtre.
+     */
+    private static Window fenetreSource(KeyEvent e) {
+        Component source = e.getComponent();
+        return source instanceof Window fenetre ? fenetre : SwingUtilities.getWindowAncestor(source);
     }
 
     /**
      * Méthode appelée à chaque étape de la simulation (suivant l'appui sur le bouton "Next").
+     * L'étape est exécutée sur le fil de simulation ; l'interface n'est jamais bloquée par la simulation.
      */
     @Override
     public void next() {
-        incrementeDate();
-        int largeur = 800;
-        int hauteur = 600;
-        int largeurCase = largeur / carte.getNbColonnes();
-        int hauteurCase = hauteur / carte.getNbLignes();
-        afficherSimulation(carte, largeurCase, hauteurCase);
+        boucle.execute(() -> {
+            incrementeDate();
+            publierImage();
+        });
+    }
+
+    /**
+     * Avance la simulation jusqu'à une date, en exécutant tous les événements dont la date est inférieure
+     * ou égale à celle-ci, sans affichage intermédiaire : une seule image est publiée à la fin.
+     * L'avance est exécutée sur le fil de simulation.
+     *
+     * @param date La date jusqu'à laquelle avancer.
+     */
+    public void avancerJusqua(long date) {
+        boucle.execute(() -> {
+            executerJusqua(date);
+            // Pas d'interpolation après un saut : les robots sont placés directement à leur position
+            imagePubliee.set(capturerImage(null));
+        });
+    }
+
+    /**
+     * Avance la simulation d'un nombre donné de dates d'événements, comme autant d'appels à {@link #next()},
+     * sans affichage intermédiaire : une seule image est publiée à la fin.
+     * L'avance est exécutée sur le fil de simulation.
+     *
+     * @param nbDates Le nombre de dates d'événements à passer.
+     */
+    public void sauterDates(int nbDates) {
+        boucle.execute(() -> {
+            for (int i = 0; i < nbDates && !evenements.estVide(); i++) {
+                incrementeDate();
+            }
+            imagePubliee.set(capturerImage(null));
+        });
+    }
+
+    /**
+     * Lance la simulation en continu, à pleine vitesse, sur le fil de simulation.
+     * L'affichage suit à sa propre cadence. La simulation s'arrête lorsque la file d'événements est vide,
+     * ou à l'appel de {@link #arreter()}.
+     */
+    public void lancer() {
+        enContinu = true;
+        boucle.execute(() -> {
+            while (enContinu && !evenements.estVide()) {
+                incrementeDate();
+                publierImage();
+            }
+            enContinu = false;
+        });
+    }
+
+    /**
+     * Arrête la simulation en continu lancée par {@link #lancer()}.
+     */
+    public void arreter() {
+        enContinu = false;
+    }
+
+    /**
+     * Attend que toutes les opérations soumises au fil de simulation soient terminées.
+     */
+    public void attendre() {
+        try {
+            boucle.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Redessine la simulation dans l'interface graphique si une nouvelle image a été publiée,
+     * si la vue a changé ou si l'animation des robots n'est pas terminée. À appeler depuis le fil de l'interface graphique.
+     */
+    private void rafraichirAffichage() {
+        if (gui == null) {
+            return;
+        }
+        if (imagePubliee.get() == imageAffichee && animationTerminee && fond != null && fond.correspondA(vue)) {
+            return;
+        }
+        afficherSimulation(carte, vue);
+        gui.repaint();
+    }
+
+    /**
+     * Publie une image de l'état visible de la simulation, à destination du fil d'affichage.
+     */
+    void publierImage() {
+        imagePubliee.set(capturerImage(imagePubliee.get()));
+    }
+
+    /**
+     * Capture une image de l'état visible de la simulation.
+     *
+     * @param precedente L'image précédente, point de départ de l'interpolation des robots, ou null.
+     * @return La nouvelle image.
+     */
+    ImageSimulation capturerImage(ImageSimulation precedente) {
+        int nbRobots = robots.size();
+        int[] robotLigne = new int[nbRobots];
+        int[] robotColonne = new int[nbRobots];
+        for (int i = 0; i < nbRobots; i++) {
+            robotLigne[i] = robots.get(i).getPosition().getLigne();
+            robotColonne[i] = robots.get(i).getPosition().getColonne();
+        }
+        int nbIncendies = incendies.size();
+        int[] intensites = new int[nbIncendies];
+        int[] incendieLigne = new int[nbIncendies];
+        int[] incendieColonne = new int[nbIncendies];
+        for (int i = 0; i < nbIncendies; i++) {
+            Incendie incendie = incendies.get(i);
+            intensites[i] = incendie.getIntensite();
+            incendieLigne[i] = incendie.getPosition().getLigne();
+            incendieColonne[i] = incendie.getPosition().getColonne();
+        }
+
+        // Les positions de l'image précédente servent de point de départ à l'interpolation
+        int[] precedentLigne = robotLigne;
+        int[] precedentColonne = robotColonne;
+        if (precedente != null && precedente.getNbRobots() == nbRobots) {
+            precedentLigne = new int[nbRobots];
+            precedentColonne = new int[nbRobots];
+            for (int i = 0; i < nbRobots; i++) {
+                precedentLigne[i] = precedente.getRobotLigne(i);
+                precedentColonne[i] = precedente.getRobotColonne(i);
+            }
+        }
+        return new ImageSimulation(dateSimulation, robotLigne, robotColonne,
+                                   precedentLigne, precedentColonne, intensites, incendieLigne, incendieColonne,
+                                   Arrays.copyOf(spritesRobots, nbRobots));
     }
 
     /**
@@ -145,49 +467,520 @@ public final class Simulateur implements Simulable {
      */
     @Override
     public void restart() {
-        this.dateSimulation = 0;
-        this.evenements.clear();
-        this.evenements.addAll(initialEvents);
+        enContinu = false;
+        boucle.execute(() -> {
+            completerEtatInitial();
+            restaurerEtat(etatInitial);
+        });
+    }
+
+    /**
+     * Ajoute un événement à la file des événements de la simulation.
+     *
+     * @param e L'événement à ajouter.
+     */
+    @Override
+    public void ajouteEvenement(Evenement e) {
+        // Le compteur est initialisé avant l'ajout : le recompter ensuite compterait l'événement deux fois
+        int[] enAttente = enAttente();
+        evenements.ajouter(e);
+        enAttente[codec().indiceRobot(CodecEvenement.robot(e))]++;
+    }
+
+    /**
+     * Retire de la file les événements en attente qui vérifient un filtre, par exemple ceux d'un robot dont
+     * le plan change en cours de simulation. Les observateurs ne sont pas prévenus des robots qui n'ont plus
+     * d'événement en attente : l'appelant est censé leur en planifier d'autres.
+     * Si la simulation tourne, cette méthode doit être appelée après {@link #attendre()}.
+     *
+     * @param filtre Le filtre des événements à retirer.
+     * @return Les événements retirés.
+     */
+    public List<Evenement> annulerEvenements(Predicate<Evenement> filtre) {
+        List<Evenement> retires = evenements.retirerSi(filtre);
+        for (Evenement e : retires) {
+            enAttente()[codec().indiceRobot(CodecEvenement.robot(e))]--;
+        }
+        return retires;
+    }
 
+    /**
+     * Ajoute un incendie à la simulation en cours, à la fin de la liste des incendies des données.
+     * L'état initial rétabli par {@link #restart()} le compte comme déjà éteint ; les instantanés capturés
+     * avant l'ajout ne peuvent plus être restaurés.
+     * Si la simulation tourne, cette méthode doit être appelée après {@link #attendre()}.
+     *
+     * @param incendie L'incendie à ajouter.
+     */
+    public void ajouterIncendie(Incendie incendie) {
+        incendies.add(incendie);
+        etatInitial = etatInitial.avecIncendie(0);
+        codec = null;
+        publierImage();
+    }
+
+    /**
+     * Ajoute un robot à la simulation en cours, à la fin de la liste des robots des données.
+     * L'état initial rétabli par {@link #restart()} le place, sans événement, dans son état au moment de l'ajout ;
+     * les instantanés capturés avant l'ajout ne peuvent plus être restaurés.
+     * Si la simulation tourne, cette méthode doit être appelée après {@link #attendre()}.
+     *
+     * @param robot Le robot à ajouter.
+     */
+    public void ajouterRobot(Robot robot) {
+        int[] enAttente = enAttente();
+        robots.add(robot);
+        spritesRobots = Arrays.copyOf(spritesRobots, robots.size());
+        spritesRobots[robots.size() - 1] = Sprite.robot(robot).ordinal();
+        robot.setCarte(carte);
+        robot.setSimulateur(this);
+        etatInitial = etatInitial.avecRobot(robot.getPosition().getLigne(), robot.getPosition().getColonne(),
+                                            robot.getVitesse(), robot.getNiveauReservoirEau(), robot.getEauPuisee());
+        codec = null;
+        enAttenteParRobot = Arrays.copyOf(enAttente, robots.size());
+        publierImage();
+    }
+
+    /**
+     * Ajoute un observateur prévenu chaque fois qu'un robot n'a plus d'événement en attente,
+     * ainsi qu'après chaque restauration d'un état de la simulation.
+     *
+     * @param observateur L'observateur à ajouter.
+     */
+    public void ajouterObservateur(ObservateurRobotLibre observateur) {
+        observateurs.add(observateur);
+    }
+
+    /**
+     * Retourne le nombre d'événements en attente d'un robot.
+     *
+     * @param robot Le robot.
+     * @return Le nombre d'événements du robot qui n'ont pas encore été exécutés.
+     */
+    public int getNbEvenementsEnAttente(Robot robot) {
+        return enAttente()[codec().indiceRobot(robot)];
+    }
+
+    /**
+     * Retourne les événements en attente, dans leur ordre d'exécution.
+     *
+     * @return Une nouvelle liste des événements qui n'ont pas encore été exécutés.
+     */
+    public List<Evenement> getEvenementsEnAttente() {
+        int[] indices = evenements.indicesOrdonnes();
+        List<Evenement> enAttente = new ArrayList<>(indices.length);
+        for (int i : indices) {
+            enAttente.add(evenements.getEvenement(i));
+        }
+        return enAttente;
+    }
+
+    /**
+     * Retourne le nombre d'événements en attente de chaque robot, indexé comme la liste des robots.
+     */
+    private int[] enAttente() {
+        if (enAttenteParRobot == null) {
+            recompterEnAttente();
+        }
+        return enAttenteParRobot;
+    }
+
+    /**
+     * Recompte le nombre d'événements en attente de chaque robot à partir de la file.
+     */
+    private void recompterEnAttente() {
+        enAttenteParRobot = new int[robots.size()];
+        for (int i : evenements.copieTas()) {
+            enAttenteParRobot[codec().indiceRobot(CodecEvenement.robot(evenements.getEvenement(i)))]++;
+        }
+    }
+
+    /**
+     * Capture l'état courant de la simulation (date, robots, incendies et événements en attente).
+     *
+     * @return Un instantané de l'état courant.
+     */
+    public EtatSimulation capturerEtat() {
+        int nbRobots = robots.size();
+        int[] robotLigne = new int[nbRobots];
+        int[] robotColonne = new int[nbRobots];
+        double[] robotVitesse = new double[nbRobots];
+        int[] robotReservoir = new int[nbRobots];
+        long[] robotEauPuisee = new long[nbRobots];
+        for (int i = 0; i < nbRobots; i++) {
+            Robot robot = robots.get(i);
+            robotLigne[i] = robot.getPosition().getLigne();
+            robotColonne[i] = robot.getPosition().getColonne();
+            robotVitesse[i] = robot.getVitesse();
+            robotReservoir[i] = robot.getNiveauReservoirEau();
+            robotEauPuisee[i] = robot.getEauPuisee();
+        }
+
+        int[] intensites = new int[incendies.size()];
+        for (int i = 0; i < intensites.length; i++) {
+            intensites[i] = incendies.get(i).getIntensite();
+        }
+        return new EtatSimulation(dateSimulation, robotLigne, robotColonne, robotVitesse, robotReservoir, robotEauPuisee,
+                                  intensites, evenements.copieTas(), evenements.nbEvenements(),
+                                  evenements.getGeneration());
+    }
+
+    /**
+     * Restaure un état précédemment capturé par {@link #capturerEtat()}.
+     * Les événements planifiés après la capture sont oubliés : ils sont retirés du registre des événements, qui ne
+     * grossit donc pas d'une restauration à l'autre. Les instantanés capturés après celui-ci ne peuvent plus
+     * être restaurés.
+     * L'instantané est entièrement vérifié avant toute modification : s'il est refusé, la simulation est inchangée.
+     * Si la simulation tourne, cette méthode doit être appelée après {@link #attendre()}.
+     *
+     * @param etat L'instantané à restaurer.
+     * @throws IllegalArgumentException Si l'instantané ne correspond pas aux robots, incendies et événements
+     *                                  de la simulation.
+     */
+    public void restaurerEtat(EtatSimulation etat) {
+        if (etat.getNbRobots() != robots.size() || etat.getNbIncendies() != incendies.size()
+                || !evenements.estRestaurable(etat.getFile(), etat.getNbEvenements(), etat.getGeneration())) {
+            throw new IllegalArgumentException("L'instantané ne correspond pas à cette simulation.");
+        }
+        this.dateSimulation = etat.getDate();
+        evenements.restaurer(etat.getFile(), etat.getNbEvenements());
+
+        int[] robotLigne = etat.getRobotLigne();
+        int[] robotColonne = etat.getRobotColonne();
+        double[] robotVitesse = etat.getRobotVitesse();
+        int[] robotReservoir = etat.getRobotReservoir();
+        long[] robotEauPuisee = etat.getRobotEauPuisee();
         for (int i = 0; i < robots.size(); i++) {
-            robots.get(i).setPosition(initialRobotPositions.get(i));
-            robots.get(i).setVitesse(initialRobotvitesse.get(i));
-            robots.get(i).setReservoirEau(initialRobotReservoir.get(i));
+            Robot robot = robots.get(i);
+            robot.setPosition(carte.getCase(robotLigne[i], robotColonne[i]));
+            robot.setVitesse(robotVitesse[i]);
+            robot.setReservoirEau(robotReservoir[i]);
+            robot.setEauPuisee(robotEauPuisee[i]);
         }
 
-        for (int i = 0; i < incendies.size(); i++) {
-            incendies.get(i).setIntensite(initialFireintensite.get(i));
+        int[] intensites = etat.getIntensites();
+        for (int i = 0; i < intensites.length; i++) {
+            incendies.get(i).setIntensite(intensites[i]);
         }
+        recompterEnAttente();
+        for (ObservateurRobotLibre observateur : observateurs) {
+            observateur.etatRestaure(dateSimulation);
+        }
+        publierImage();
+    }
 
-        int largeur = 800;
-        int hauteur = 600;
-        int largeurCase = largeur / carte.getNbColonnes();
-        int hauteurCase = hauteur / carte.getNbLignes();
-        afficherSimulation(carte, largeurCase, hauteurCase);
-        gui.repaint();
+    /**
+     * Active l'écriture périodique de points de reprise.
+     * Un point de reprise est écrit dès que la date de simulation a avancé d'au moins {@code intervalle}
+     * depuis le précédent. L'écriture sur disque se fait sur un fil dédié ; si un point de reprise n'a pas
+     * encore été écrit lorsque le suivant est produit, seul le plus récent est conservé.
+     *
+     * @param fichier    Le fichier du point de reprise (remplacé à chaque écriture).
+     * @param intervalle L'intervalle de temps simulé entre deux points de reprise.
+     */
+    public void activerPointsDeReprise(Path fichier, long intervalle) {
+        if (intervalle <= 0) {
+            throw new IllegalArgumentException("L'intervalle entre points de reprise doit être positif.");
+        }
+        this.fichierReprise = fichier;
+        this.intervalleReprise = intervalle;
+        this.prochaineReprise = dateSimulation + intervalle;
     }
 
     /**
-     * Ajoute un événement à la file des événements de la simulation.
+     * Désactive les points de reprise périodiques et attend la fin de l'écriture en cours.
+     */
+    public void arreterPointsDeReprise() {
+        this.fichierReprise = null;
+        if (ecrivainReprise != null) {
+            ecrivainReprise.shutdown();
+            try {
+                ecrivainReprise.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ecrivainReprise = null;
+        }
+    }
+
+    /**
+     * Écrit un point de reprise de l'état courant dans un fichier.
+     * L'état est encodé immédiatement ; l'écriture du fichier est effectuée de façon asynchrone,
+     * dans un fichier temporaire renommé ensuite, de sorte qu'un arrêt brutal ne laisse jamais
+     * de point de reprise partiel.
      *
-     * @param e L'événement à ajouter.
+     * @param fichier Le fichier du point de reprise.
      */
-    public void ajouteEvenement(Evenement e) {
-        evenements.add(e);
-        initialEvents.add(e);
+    public void ecrirePointDeReprise(Path fichier) {
+        byte[] donnees = encoderPointDeReprise();
+        if (ecrivainReprise == null) {
+            ecrivainReprise = Executors.newSingleThreadExecutor(r -> {
+                Thread fil = new Thread(r, "ecriture-point-de-reprise");
+                fil.setDaemon(true);
+                return fil;
+            });
+        }
+        if (repriseEnAttente.getAndSet(donnees) == null) {
+            ecrivainReprise.execute(() -> {
+                byte[] aEcrire = repriseEnAttente.getAndSet(null);
+                if (aEcrire == null) {
+                    return;
+                }
+                try {
+                    Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+                    Files.write(temporaire, aEcrire);
+                    Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    System.err.println("Échec de l'écriture du point de reprise " + fichier + " : " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Reprend la simulation à partir d'un point de reprise.
+     * Le simulateur doit avoir été créé à partir de la même carte et des mêmes robots et incendies ;
+     * aucune stratégie ne doit être planifiée, les événements en attente étant relus depuis le fichier.
+     * Après la reprise, {@link #restart()} revient à l'état du point de reprise.
+     *
+     * @param fichier Le fichier du point de reprise.
+     * @throws IOException Si le fichier est illisible ou ne correspond pas à la simulation.
+     */
+    public void reprendre(Path fichier) throws IOException {
+        try (InputStream flux = Files.newInputStream(fichier);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(flux))) {
+            restaurerPointDeReprise(in);
+        }
+    }
+
+    /**
+     * Restaure un point de reprise lu depuis un flux.
+     *
+     * @param in Le flux positionné au début du point de reprise.
+     * @throws IOException Si les données sont invalides ou ne correspondent pas à la simulation.
+     */
+    void restaurerPointDeReprise(DataInput in) throws IOException {
+        List<Evenement> enAttente = new ArrayList<>();
+        EtatSimulation etat = PointDeReprise.lire(in, carte, codec(), enAttente);
+        if (etat.getNbRobots() != robots.size() || etat.getNbIncendies() != incendies.size()) {
+            throw new IOException("Le point de reprise ne correspond pas à cette simulation.");
+        }
+
+        evenements.vider();
+        for (Evenement e : enAttente) {
+            evenements.ajouter(e);
+        }
+        // Le registre vient d'être rempli : l'instantané prend sa génération
+        etat = etat.avecFile(etat.getFile(), etat.getNbEvenements(), evenements.getGeneration());
+        restaurerEtat(etat);
+        for (Robot robot : robots) {
+            robot.initialiserRobot(carte, this);
+        }
+        this.etatInitial = etat;
+        this.etatInitialComplet = true;
+        if (fichierReprise != null) {
+            prochaineReprise = dateSimulation + intervalleReprise;
+        }
+    }
+
+    /**
+     * Encode l'état courant sous la forme d'un point de reprise.
+     */
+    private byte[] encoderPointDeReprise() {
+        Evenement[] enAttente = getEvenementsEnAttente().toArray(new Evenement[0]);
+        return PointDeReprise.encoder(carte, capturerEtat(), enAttente, codec());
+    }
+
+    /**
+     * Retourne le codec des événements de cette simulation.
+     */
+    private CodecEvenement codec() {
+        if (codec == null) {
+            codec = new CodecEvenement(carte, robots, incendies);
+        }
+        return codec;
+    }
+
+    /**
+     * Enregistre la trace d'exécution de la simulation : chaque événement exécuté et, périodiquement,
+     * une image clé de l'état complet. Passer null arrête l'enregistrement, sans fermer l'enregistreur.
+     *
+     * @param enregistreur L'enregistreur de trace, ou null.
+     */
+    public void setEnregistreur(EnregistreurTrace enregistreur) {
+        this.enregistreur = enregistreur;
+    }
+
+    /**
+     * Associe une trace à la simulation pour la parcourir au clavier dans l'interface graphique :
+     * Page précédente et Page suivante reculent ou avancent d'un cinquantième de la trace, R se positionne
+     * à une date saisie. Passer null détache la trace, sans la fermer.
+     *
+     * @param lecteur Le lecteur de la trace, ouvert sur ce simulateur, ou null.
+     */
+    public void setLecteurTrace(LecteurTrace lecteur) {
+        this.lecteurTrace = lecteur;
+    }
+
+    /**
+     * Positionne la simulation à une date de la trace, bornée à la durée de la trace, sur le fil de simulation.
+     */
+    private void chercherDansTrace(LecteurTrace lecteur, long date) {
+        long borne = Math.max(lecteur.getDateDebut(), Math.min(lecteur.getDateFin(), date));
+        enContinu = false;
+        boucle.execute(() -> {
+            try {
+                lecteur.chercher(borne);
+                dateTrace = borne;
+                dateApresTrace = dateSimulation;
+            } catch (IOException ex) {
+                System.err.println("Échec du positionnement dans la trace : " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Rejoue un événement enregistré dans une trace.
+     * L'événement doit être le prochain événement de la file : une trace est rejouée dans le simulateur
+     * qui l'a produite, dont l'exécution est déterministe.
+     *
+     * @param type     Le type de l'événement.
+     * @param date     La date de l'événement.
+     * @param robot    L'indice du robot.
+     * @param argument L'argument de l'événement.
+     * @throws IOException Si l'événement ne correspond pas au prochain événement de la file.
+     */
+    void rejouer(byte type, long date, int robot, int argument) throws IOException {
+        Evenement e = evenements.premier();
+        if (e == null || CodecEvenement.type(e) != type || e.getDate() != date
+                || codec().indiceRobot(CodecEvenement.robot(e)) != robot || codec().argument(e) != argument) {
+            throw new IOException("La trace ne correspond pas aux événements de la simulation (date " + date + ").");
+        }
+        evenements.retirer();
+        dateSimulation = date;
+        e.execute();
+        enAttente()[robot]--;
+    }
+
+    /**
+     * Termine un rejeu : avance la date au prochain événement en attente et publie l'état pour l'affichage.
+     */
+    void terminerRejeu() {
+        if (!evenements.estVide()) {
+            dateSimulation = evenements.premier().getDate();
+        }
+        publierImage();
+    }
+
+    /**
+     * Exécute un événement, l'ajoute à la trace si elle est enregistrée, et prévient les observateurs
+     * si c'était le dernier événement en attente de son robot.
+     */
+    private void executer(Evenement e) {
+        e.execute();
+        Robot robot = CodecEvenement.robot(e);
+        if (--enAttente()[codec().indiceRobot(robot)] == 0) {
+            for (ObservateurRobotLibre observateur : observateurs) {
+                observateur.robotLibre(robot, dateSimulation);
+            }
+        }
+        if (enregistreur != null) {
+            try {
+                enregistreur.ecrireEvenement(e, codec());
+            } catch (IOException ex) {
+                System.err.println("Échec de l'enregistrement de la trace : " + ex.getMessage());
+                enregistreur = null;
+            }
+        }
+    }
+
+    /**
+     * Crée une bifurcation de l'état courant de la simulation, dans laquelle on peut ajouter des événements
+     * et simuler la suite sans modifier cette simulation.
+     * Le coût de cette opération est proportionnel au nombre d'événements en attente ; bifurquer ensuite
+     * la bifurcation obtenue est en O(1).
+     *
+     * @return La bifurcation.
+     */
+    public Bifurcation bifurquer() {
+        int[] indices = evenements.indicesOrdonnes();
+        int n = indices.length;
+        byte[] type = new byte[n];
+        long[] date = new long[n];
+        int[] robot = new int[n];
+        int[] argument = new int[n];
+        CodecEvenement c = codec();
+        for (int i = 0; i < n; i++) {
+            Evenement e = evenements.getEvenement(indices[i]);
+            type[i] = CodecEvenement.type(e);
+            date[i] = e.getDate();
+            robot[i] = c.indiceRobot(CodecEvenement.robot(e));
+            argument[i] = c.argument(e);
+        }
+        return new Bifurcation(carte, robots.toArray(new Robot[0]), c, capturerEtat(), type, date, robot, argument);
+    }
+
+    /**
+     * Ajoute à l'instantané initial les événements planifiés avant le premier pas de simulation.
+     */
+    private void completerEtatInitial() {
+        if (!etatInitialComplet) {
+            etatInitial = etatInitial.avecFile(evenements.copieTas(), evenements.nbEvenements(),
+                                               evenements.getGeneration());
+            etatInitialComplet = true;
+        }
     }
 
     /**
      * Incrémente la date de la simulation et exécute les événements correspondants.
      */
     private void incrementeDate() {
-        while (!evenements.isEmpty() && evenements.peek().getDate() <= dateSimulation) {
-            Evenement e = evenements.poll();
-            e.execute();
+        completerEtatInitial();
+        if (enregistreur != null && enregistreur.imageCleAttendue(dateSimulation)) {
+            try {
+                enregistreur.ecrireImageCle(dateSimulation, encoderPointDeReprise());
+            } catch (IOException ex) {
+                System.err.println("Échec de l'enregistrement de la trace : " + ex.getMessage());
+                enregistreur = null;
+            }
         }
-        if (!evenements.isEmpty()) {
-            dateSimulation = evenements.peek().getDate();
+        while (!evenements.estVide() && evenements.premier().getDate() <= dateSimulation) {
+            Evenement e = evenements.retirer();
+            executer(e);
         }
+        if (!evenements.estVide()) {
+            dateSimulation = evenements.premier().getDate();
+        }
+        if (fichierReprise != null && dateSimulation >= prochaineReprise) {
+            ecrirePointDeReprise(fichierReprise);
+            prochaineReprise = dateSimulation + intervalleReprise;
+        }
+    }
+
+    /**
+     * Exécute, sur le fil appelant, tous les événements dont la date est inférieure ou égale à la date donnée.
+     * Aucune autre opération ne doit être en cours sur le fil de simulation.
+     *
+     * @param date La date jusqu'à laquelle avancer.
+     */
+    void executerJusqua(long date) {
+        while (!evenements.estVide() && evenements.premier().getDate() <= date) {
+            incrementeDate();
+        }
+    }
+
+    /**
+     * @return La date du prochain événement à exécuter, ou -1 s'il n'en reste aucun.
+     */
+    long dateProchainEvenement() {
+        return evenements.estVide() ? -1 : evenements.premier().getDate();
+    }
+
+    /**
+     * @return true s'il reste des événements à exécuter.
+     */
+    boolean resteEvenements() {
+        return !evenements.estVide();
     }
 
     /**
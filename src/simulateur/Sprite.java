@@ -0,0 +1,66 @@
+package simulateur;
+import carte.NatureTerrain;
+import robot.Robot;
+
+/**
+ * Énumération des images utilisées pour représenter la simulation.
+ * L'ordinal de chaque constante sert d'indice dans l'{@link AtlasSprites}.
+ */
+public enum Sprite {
+
+    EAU("sea.png"),
+    FORET("forest.png"),
+    ROCHE("rocks.png"),
+    HABITAT("city.png"),
+    TERRAIN_LIBRE("grass.png"),
+    INCENDIE("fire.png"),
+    DRONE("drone.png"),
+    ROBOT_A_ROUES("firetruck.png"),
+    ROBOT_A_CHENILLES("achenilles.png"),
+    ROBOT_A_PATTES("apattes.png");
+
+    private final String fichier;
+
+    Sprite(String fichier) {
+        this.fichier = fichier;
+    }
+
+    /**
+     * @return Le nom du fichier image, relatif au dossier des ressources.
+     */
+    public String getFichier() {
+        return fichier;
+    }
+
+    /**
+     * Retourne l'image représentant un type de terrain.
+     *
+     * @param nature Le type de terrain.
+     * @return L'image correspondante.
+     */
+    public static Sprite terrain(NatureTerrain nature) {
+        return switch (nature) {
+            case EAU -> EAU;
+            case FORET -> FORET;
+            case ROCHE -> ROCHE;
+            case HABITAT -> HABITAT;
+            default -> TERRAIN_LIBRE;
+        };
+    }
+
+    /**
+     * Retourne l'image représentant un robot. À appeler une fois par robot, le résultat étant conservé
+     * par l'appelant.
+     *
+     * @param robot Le robot.
+     * @return L'image correspondante.
+     */
+    public static Sprite robot(Robot robot) {
+        return switch (robot.getType()) {
+            case "Drone" -> DRONE;
+            case "RobotAPattes" -> ROBOT_A_PATTES;
+            case "RobotAChenilles" -> ROBOT_A_CHENILLES;
+            default -> ROBOT_A_ROUES;
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package simulateur;
+import carte.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import robot.*;
+
+/**
+ * Génération de variantes aléatoires d'une simulation, pour évaluer une stratégie sur des scénarios voisins
+ * de celui d'une carte : intensités des incendies, positions de départ et vitesses des robots sont tirées
+ * autour des valeurs lues. Une variante ne dépend que des données de départ et de sa graine.
+ *
+ * <p>Les variantes partagent la carte et les cases d'eau des données de départ, qui ne doivent donc plus
+ * être modifiées ; seuls les robots et les incendies sont propres à chaque variante.</p>
+ */
+public final class VariationScenario {
+
+    private double amplitudeIntensite = 0.5;
+    private double reductionVitesse = 0.3;
+    private int rayonDepart = 3;
+
+    /**
+     * Choisit la variation des intensités : chaque intensité est multipliée par un facteur tiré
+     * uniformément dans [1 - amplitude, 1 + amplitude], sans descendre en dessous de 1.
+     *
+     * @param amplitude L'amplitude relative, entre 0 et 1.
+     */
+    public void setAmplitudeIntensite(double amplitude) {
+        if (amplitude < 0 || amplitude > 1) {
+            throw new IllegalArgumentException("L'amplitude des intensités doit être comprise entre 0 et 1.");
+        }
+        this.amplitudeIntensite = amplitude;
+    }
+
+    /**
+     * Choisit la variation des vitesses : la vitesse de base de chaque robot est multipliée par un facteur
+     * tiré uniformément dans [1 - reduction, 1]. Les vitesses ne sont que réduites, car chaque type de
+     * robot a sa propre vitesse limite.
+     *
+     * @param reduction La réduction relative maximale, entre 0 et 1 exclu.
+     */
+    public void setReductionVitesse(double reduction) {
+        if (reduction < 0 || reduction >= 1) {
+            throw new IllegalArgumentException("La réduction des vitesses doit être comprise entre 0 et 1 exclu.");
+        }
+        this.reductionVitesse = reduction;
+    }
+
+    /**
+     * Choisit la variation des positions de départ : chaque robot part d'une case tirée uniformément
+     * parmi celles où il peut se déplacer, à au plus ce nombre de lignes et de colonnes de sa case de départ.
+     *
+     * @param rayon Le rayon en cases ; 0 conserve les positions de départ.
+     */
+    public void setRayonDepart(int rayon) {
+        if (rayon < 0) {
+            throw new IllegalArgumentException("Le rayon des positions de départ doit être positif.");
+        }
+        this.rayonDepart = rayon;
+    }
+
+    /**
+     * Crée une variante des données.
+     *
+     * @param donnes Les données de départ, lues dans un fichier de carte.
+     * @param graine La graine de la variante.
+     * @return La variante, indépendante des données de départ sauf pour la carte et les cases d'eau.
+     */
+    public DonneeSimulation generer(DonneeSimulation donnes, long graine) {
+        SplittableRandom aleatoire = new SplittableRandom(graine);
+        Carte carte = donnes.getCarte();
+
+        List<Incendie> incendies = new ArrayList<>();
+        for (Incendie incendie : donnes.getIncendies()) {
+            double facteur = 1 + amplitudeIntensite * (2 * aleatoire.nextDouble() - 1);
+            int intensite = (int) Math.max(1, Math.round(incendie.getIntensite() * facteur));
+            incendies.add(new Incendie(incendie.getPosition(), intensite));
+        }
+
+        List<Robot> robots = new ArrayList<>();
+        for (Robot modele : donnes.getRobots()) {
+            Robot robot = modele.copie();
+            robot.setPosition(tirerDepart(carte, robot, aleatoire));
+            robot.setVitesseBase(robot.getVitesseBase() * (1 - reductionVitesse * aleatoire.nextDouble()));
+            robots.add(robot);
+        }
+        return new DonneeSimulation(carte, incendies, robots, donnes.getCasesEau());
+    }
+
+    /**
+     * Tire une case de départ autour de la position du robot, parmi celles où il peut se déplacer.
+     */
+    private Case tirerDepart(Carte carte, Robot robot, SplittableRandom aleatoire) {
+        Case depart = robot.getPosition();
+        List<Case> candidates = new ArrayList<>();
+        for (int i = Math.max(0, depart.getLigne() - rayonDepart);
+             i <= Math.min(carte.getNbLignes() - 1, depart.getLigne() + rayonDepart); i++) {
+            for (int j = Math.max(0, depart.getColonne() - rayonDepart);
+                 j <= Math.min(carte.getNbColonnes() - 1, depart.getColonne() + rayonDepart); j++) {
+                if (robot.peutSeDeplacerSur(carte.getCase(i, j).getNature())) {
+                    candidates.add(carte.getCase(i, j));
+                }
+            }
+        }
+        return candidates.isEmpty() ? depart : candidates.get(aleatoire.nextInt(candidates.size()));
+    }
+}
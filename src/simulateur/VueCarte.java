@@ -0,0 +1,187 @@
+package simulateur;
+
+/**
+ * Fenêtre de visualisation sur la carte : facteur de zoom et position de la zone visible.
+ * Seules les cases visibles sont dessinées, ce qui permet d'afficher des cartes bien plus grandes que la
+ * fenêtre. En dessous d'une certaine taille de case, le terrain est dessiné en blocs de couleur agrégeant
+ * plusieurs cases (niveau de détail réduit) plutôt qu'avec les images de l'atlas.
+ *
+ * <p>La vue n'est pas protégée contre les accès concurrents : elle est modifiée et lue par le fil de
+ * l'interface graphique uniquement.</p>
+ */
+public final class VueCarte {
+
+    /**
+     * Taille minimale d'une case, en pixels, pour que le terrain soit dessiné avec les images de l'atlas.
+     */
+    public static final double SEUIL_DETAIL = 8.0;
+
+    private static final double ZOOM_MAX = 128.0;
+
+    private final int largeur;
+    private final int hauteur;
+    private final int nbLignes;
+    private final int nbColonnes;
+    private final double zoomMin;
+
+    private double pixelsParCase;
+    private double ligneOrigine;   // Ligne de la carte affichée en haut de la fenêtre
+    private double colonneOrigine; // Colonne de la carte affichée à gauche de la fenêtre
+    private int version;           // Incrémentée à chaque changement de la vue
+
+    /**
+     * Constructeur de la vue. La vue initiale montre la carte entière.
+     *
+     * @param largeur    Largeur de la fenêtre en pixels.
+     * @param hauteur    Hauteur de la fenêtre en pixels.
+     * @param nbLignes   Nombre de lignes de la carte.
+     * @param nbColonnes Nombre de colonnes de la carte.
+     */
+    public VueCarte(int largeur, int hauteur, int nbLignes, int nbColonnes) {
+        this.largeur = largeur;
+        this.hauteur = hauteur;
+        this.nbLignes = nbLignes;
+        this.nbColonnes = nbColonnes;
+        this.zoomMin = Math.min((double) largeur / nbColonnes, (double) hauteur / nbLignes);
+        ajuster();
+    }
+
+    /**
+     * Ajuste la vue pour montrer la carte entière.
+     */
+    public void ajuster() {
+        pixelsParCase = zoomMin;
+        ligneOrigine = 0;
+        colonneOrigine = 0;
+        version++;
+    }
+
+    /**
+     * Multiplie le zoom par un facteur, en gardant fixe le centre de la fenêtre.
+     *
+     * @param facteur Le facteur de zoom (supérieur à 1 pour agrandir).
+     */
+    public void zoomer(double facteur) {
+        double centreLigne = ligneOrigine + hauteur / (2 * pixelsParCase);
+        double centreColonne = colonneOrigine + largeur / (2 * pixelsParCase);
+        pixelsParCase = Math.max(zoomMin, Math.min(ZOOM_MAX, pixelsParCase * facteur));
+        ligneOrigine = centreLigne - hauteur / (2 * pixelsParCase);
+        colonneOrigine = centreColonne - largeur / (2 * pixelsParCase);
+        borner();
+        version++;
+    }
+
+    /**
+     * Déplace la vue d'une fraction de la fenêtre.
+     *
+     * @param fractionLignes   Déplacement vertical, en fraction de la hauteur de la fenêtre.
+     * @param fractionColonnes Déplacement horizontal, en fraction de la largeur de la fenêtre.
+     */
+    public void deplacer(double fractionLignes, double fractionColonnes) {
+        ligneOrigine += fractionLignes * hauteur / pixelsParCase;
+        colonneOrigine += fractionColonnes * largeur / pixelsParCase;
+        borner();
+        version++;
+    }
+
+    /**
+     * Empêche la vue de sortir de la carte.
+     */
+    private void borner() {
+        double maxLigne = Math.max(0, nbLignes - hauteur / pixelsParCase);
+        double maxColonne = Math.max(0, nbColonnes - largeur / pixelsParCase);
+        ligneOrigine = Math.max(0, Math.min(maxLigne, ligneOrigine));
+        colonneOrigine = Math.max(0, Math.min(maxColonne, colonneOrigine));
+    }
+
+    /**
+     * @return true si le terrain doit être dessiné en blocs de couleur plutôt qu'avec les images.
+     */
+    public boolean detailReduit() {
+        return pixelsParCase < SEUIL_DETAIL;
+    }
+
+    /**
+     * @return Le nombre de cases agrégées dans chaque dimension d'un bloc de couleur, pour qu'un bloc fasse
+     *         au moins un pixel.
+     */
+    public int casesParBloc() {
+        return Math.max(1, (int) Math.ceil(1.0 / pixelsParCase));
+    }
+
+    /**
+     * @return La taille d'une case en pixels, arrondie à l'entier supérieur (au moins 1).
+     */
+    public int getTailleCase() {
+        return Math.max(1, (int) Math.ceil(pixelsParCase));
+    }
+
+    public double getPixelsParCase() {
+        return pixelsParCase;
+    }
+
+    public int getPremiereLigne() {
+        return (int) Math.floor(ligneOrigine);
+    }
+
+    public int getPremiereColonne() {
+        return (int) Math.floor(colonneOrigine);
+    }
+
+    /**
+     * @return L'indice de la dernière ligne visible, même partiellement.
+     */
+    public int getDerniereLigne() {
+        return Math.min(nbLignes - 1, (int) Math.ceil(ligneOrigine + hauteur / pixelsParCase) - 1);
+    }
+
+    /**
+     * @return L'indice de la dernière colonne visible, même partiellement.
+     */
+    public int getDerniereColonne() {
+        return Math.min(nbColonnes - 1, (int) Math.ceil(colonneOrigine + largeur / pixelsParCase) - 1);
+    }
+
+    /**
+     * Indique si une position de la carte est visible dans la fenêtre.
+     *
+     * @param ligne   La ligne, éventuellement fractionnaire.
+     * @param colonne La colonne, éventuellement fractionnaire.
+     * @return true si la case contenant la position est au moins partiellement visible.
+     */
+    public boolean estVisible(double ligne, double colonne) {
+        return ligne + 1 > ligneOrigine && colonne + 1 > colonneOrigine
+                && ligne < ligneOrigine + hauteur / pixelsParCase && colonne < colonneOrigine + largeur / pixelsParCase;
+    }
+
+    /**
+     * @param colonne Une colonne de la carte, éventuellement fractionnaire.
+     * @return L'abscisse en pixels du bord gauche de la colonne dans la fenêtre.
+     */
+    public int versX(double colonne) {
+        return (int) Math.floor((colonne - colonneOrigine) * pixelsParCase);
+    }
+
+    /**
+     * @param ligne Une ligne de la carte, éventuellement fractionnaire.
+     * @return L'ordonnée en pixels du bord supérieur de la ligne dans la fenêtre.
+     */
+    public int versY(double ligne) {
+        return (int) Math.floor((ligne - ligneOrigine) * pixelsParCase);
+    }
+
+    public int getLargeur() {
+        return largeur;
+    }
+
+    public int getHauteur() {
+        return hauteur;
+    }
+
+    /**
+     * @return Un numéro qui change à chaque modification de la vue, pour invalider les éléments conservés.
+     */
+    public int getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,65 @@
+package tests;
+
+import java.io.FileNotFoundException;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Vérification du budget de calcul de {@link StrategieRechercheLocale}, sans interface graphique.
+ * Pour chaque budget, la planification complète (recherche locale et construction des événements) est chronométrée
+ * et doit durer le budget, à une tolérance près. Un budget plus court que la construction du modèle et du plan
+ * initial (une centaine de millisecondes sur les grandes cartes) est dépassé de ce qu'il faut pour les construire.
+ */
+public class TestBudgetRechercheLocale {
+    // Budgets essayés par défaut, en millisecondes
+    private static final long[] BUDGETS = {300, 1000};
+    // Écart toléré entre la durée de la planification et le budget : une part du budget plus une marge fixe
+    private static final double TOLERANCE_RELATIVE = 0.1;
+    private static final long TOLERANCE_MS = 50;
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichier de la carte, puis budgets facultatifs en millisecondes)
+        if (args.length == 0) {
+            System.err.println("Erreur : Veuillez fournir le fichier de la carte en argument.");
+            return;
+        }
+        String nomFichierCarte = args[0];
+        long[] budgets = BUDGETS;
+        if (args.length > 1) {
+            budgets = new long[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                budgets[i - 1] = Long.parseLong(args[i]);
+            }
+        }
+
+        try {
+            int echecs = 0;
+            for (long budget : budgets) {
+                DonneeSimulation donnes = LectureDonnee.lire(nomFichierCarte);
+                Simulateur simulateur = new Simulateur(donnes, false);
+                StrategieRechercheLocale strategie = new StrategieRechercheLocale(budget);
+                long debut = System.nanoTime();
+                strategie.chefPompier(donnes, simulateur);
+                long duree = (System.nanoTime() - debut) / 1_000_000;
+
+                long tolerance = (long) (budget * TOLERANCE_RELATIVE) + TOLERANCE_MS;
+                boolean respecte = Math.abs(duree - budget) <= tolerance;
+                if (!respecte) {
+                    echecs++;
+                }
+                System.out.printf("Budget %5d ms : planification en %5d ms (%s), date de fin estimée %.0f -> %.0f, "
+                                  + "%d mouvements dont %d conservés%n", budget, duree, respecte ? "respecté" : "dépassé",
+                                  strategie.getMakespanInitial(), strategie.getMakespanFinal(),
+                                  strategie.getNbMouvements(), strategie.getNbAmeliorations());
+            }
+            System.out.println(echecs == 0 ? "Tous les budgets sont respectés."
+                                           : echecs + " budget(s) non respecté(s).");
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Le fichier de carte '" + nomFichierCarte + "' est introuvable.");
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
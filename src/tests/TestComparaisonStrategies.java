@@ -0,0 +1,47 @@
+package tests;
+
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.List;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Comparaison des stratégies du chef pompier sur une ou plusieurs cartes, sans interface graphique.
+ */
+public class TestComparaisonStrategies {
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichiers des cartes)
+        if (args.length == 0) {
+            System.err.println("Erreur : Veuillez fournir au moins un fichier de carte en argument.");
+            return;
+        }
+        List<String> cartes = Arrays.asList(args);
+
+        ComparaisonStrategies comparaison = new ComparaisonStrategies(Runtime.getRuntime().availableProcessors());
+        comparaison.enregistrer(Strategie::new);
+        comparaison.enregistrer(() -> {
+            Strategie strategie = new Strategie();
+            strategie.setOrdreParTemps(true);
+            return strategie;
+        });
+        comparaison.enregistrer(StrategieAffectation::new);
+        comparaison.enregistrer(StrategieEnchere::new);
+        comparaison.enregistrer(StrategieEnLigne::new);
+        comparaison.enregistrer(StrategieRechercheLocale::new);
+        comparaison.enregistrer(StrategieTournees::new);
+        comparaison.enregistrer(StrategieCooperative::new);
+
+        try {
+            List<ComparaisonStrategies.Resultat> resultats = comparaison.comparer(cartes);
+            ComparaisonStrategies.afficher(resultats, System.out);
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Un fichier de carte est introuvable : " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package tests;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Export d'une simulation en suite d'images PNG, sans interface graphique.
+ */
+public class TestExportImages {
+    // Valeurs par défaut : temps simulé entre deux images et taille des images
+    private static final long INTERVALLE_IMAGES = 100;
+    private static final int LARGEUR = 800;
+    private static final int HAUTEUR = 600;
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichier de la carte et dossier des images)
+        if (args.length < 2) {
+            System.err.println("Erreur : Veuillez fournir le fichier de la carte et le dossier des images en argument.");
+            return;
+        }
+
+        String nomFichierCarte = args[0];
+        Path dossier = Path.of(args[1]);
+        long intervalle = args.length > 2 ? Long.parseLong(args[2]) : INTERVALLE_IMAGES;
+
+        try {
+            DonneeSimulation donnes = LectureDonnee.lire(nomFichierCarte);
+            if (donnes == null) {
+                System.err.println("Erreur : Les données de la carte n'ont pas pu être lues correctement.");
+                return;
+            }
+
+            // Simulateur sans interface graphique, planifié par la stratégie habituelle
+            Simulateur simulateur = new Simulateur(donnes, false);
+            new Strategie().chefPompier(donnes, simulateur);
+
+            long debut = System.nanoTime();
+            ExportImages export = new ExportImages(simulateur, donnes, dossier, intervalle, LARGEUR, HAUTEUR);
+            int nbImages = export.exporter(Runtime.getRuntime().availableProcessors());
+            System.out.println(nbImages + " images écrites dans " + dossier + " en "
+                               + (System.nanoTime() - debut) / 1_000_000 + " ms.");
+
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Le fichier de carte '" + nomFichierCarte + "' est introuvable.");
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
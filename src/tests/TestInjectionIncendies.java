@@ -0,0 +1,107 @@
+package tests;
+
+import carte.*;
+import java.io.FileNotFoundException;
+import java.util.Random;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Ajout d'incendies, puis d'un drone, à une simulation en cours, sans interface graphique.
+ * La simulation est planifiée par la stratégie habituelle ; des incendies tirés au hasard sont ajoutés à des dates
+ * régulières du plan initial et insérés dans le plan par {@link PlanificateurIncremental}.
+ */
+public class TestInjectionIncendies {
+    // Valeurs par défaut : nombre d'incendies ajoutés et graine du tirage
+    private static final int NB_INCENDIES = 10;
+    private static final long GRAINE = 0;
+    private static final int INTENSITE_MIN = 1000;
+    private static final int INTENSITE_MAX = 8000;
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichier de la carte, puis nombre d'incendies et graine facultatifs)
+        if (args.length == 0) {
+            System.err.println("Erreur : Veuillez fournir le fichier de la carte en argument.");
+            return;
+        }
+        String nomFichierCarte = args[0];
+        int nbIncendies = args.length > 1 ? Integer.parseInt(args[1]) : NB_INCENDIES;
+        Random aleatoire = new Random(args.length > 2 ? Long.parseLong(args[2]) : GRAINE);
+
+        try {
+            DonneeSimulation donnes = LectureDonnee.lire(nomFichierCarte);
+            Simulateur simulateur = new Simulateur(donnes, false);
+            Strategie strategie = new Strategie();
+            strategie.chefPompier(donnes, simulateur);
+            PlanificateurIncremental planificateur = new PlanificateurIncremental(strategie, donnes, simulateur);
+
+            // Les incendies sont ajoutés à intervalles réguliers jusqu'à la fin du plan initial
+            long horizon = 0;
+            for (Robot robot : donnes.getRobots()) {
+                ChronologieRobot chronologie = strategie.getChronologie(robot);
+                if (chronologie != null) {
+                    horizon = Math.max(horizon, chronologie.getFin());
+                }
+            }
+
+            System.out.printf("%8s  %6s  %7s  %9s  %-16s  %-17s  %12s%n",
+                              "Date", "Ligne", "Colonne", "Intensité", "Robot", "Insertion", "Latence (ms)");
+            double latenceMax = 0;
+            for (int k = 1; k <= nbIncendies; k++) {
+                simulateur.avancerJusqua(horizon * k / (nbIncendies + 1));
+                simulateur.attendre();
+                if (k == (nbIncendies + 1) / 2) {
+                    Robot drone = new Drone(donnes.getRobots().get(0).getPosition());
+                    planificateur.ajouterRobot(drone);
+                    System.out.println("Drone ajouté en " + drone.getPosition().getLigne() + ", "
+                                       + drone.getPosition().getColonne() + " à la date " + simulateur.getDateSimulation());
+                }
+
+                Case position = caseLibre(donnes, aleatoire);
+                Incendie incendie = new Incendie(position, INTENSITE_MIN + aleatoire.nextInt(INTENSITE_MAX - INTENSITE_MIN + 1));
+                long debut = System.nanoTime();
+                PlanificateurIncremental.Insertion insertion = planificateur.ajouterIncendie(incendie);
+                double latence = (System.nanoTime() - debut) / 1e6;
+                latenceMax = Math.max(latenceMax, latence);
+                String mode = insertion.estReplanification() ? "replanification"
+                            : insertion.getRobot() == null ? "aucun robot"
+                            : insertion.estEntreTaches() ? "entre deux tâches" : "fin du plan";
+                System.out.printf("%8d  %6d  %7d  %9d  %-16s  %-17s  %12.2f%n", simulateur.getDateSimulation(),
+                                  position.getLigne(), position.getColonne(), incendie.getIntensite(),
+                                  insertion.getRobot() == null ? "-" : insertion.getRobot().getType(), mode, latence);
+            }
+
+            simulateur.avancerJusqua(Long.MAX_VALUE);
+            simulateur.attendre();
+            int restant = 0;
+            for (Incendie incendie : donnes.getIncendies()) {
+                restant += incendie.getIntensite();
+            }
+            System.out.println("\n" + planificateur.getNbInsertionsEntreTaches() + " insertions entre deux tâches, "
+                               + planificateur.getNbAjoutsFin() + " en fin de plan, "
+                               + planificateur.getNbReplanifications() + " replanifications ; latence maximale "
+                               + String.format("%.2f", latenceMax) + " ms.");
+            System.out.println("Fin de la simulation à la date " + simulateur.getDateSimulation()
+                               + ", intensité restante " + restant + ".");
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Le fichier de carte '" + nomFichierCarte + "' est introuvable.");
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Tire au hasard une case hors de l'eau sans incendie.
+     */
+    private static Case caseLibre(DonneeSimulation donnes, Random aleatoire) {
+        Carte carte = donnes.getCarte();
+        while (true) {
+            Case c = carte.getCase(aleatoire.nextInt(carte.getNbLignes()), aleatoire.nextInt(carte.getNbColonnes()));
+            if (c.getNature() != NatureTerrain.EAU && donnes.getIncendie(c) == null) {
+                return c;
+            }
+        }
+    }
+}
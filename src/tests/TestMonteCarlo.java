@@ -0,0 +1,55 @@
+package tests;
+
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Lot de simulations de Monte-Carlo des stratégies du chef pompier sur une ou plusieurs cartes,
+ * sans interface graphique. Les résultats de chaque simulation sont écrits dans un fichier CSV,
+ * et les distributions des dates d'extinction sont affichées à la fin.
+ */
+public class TestMonteCarlo {
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichier CSV, nombre de variantes, graine et fichiers des cartes)
+        if (args.length < 4) {
+            System.err.println("Erreur : Veuillez fournir le fichier CSV, le nombre de variantes, la graine "
+                               + "et au moins un fichier de carte en argument.");
+            return;
+        }
+        Path fichierCsv = Path.of(args[0]);
+        int nbVariantes = Integer.parseInt(args[1]);
+        long graine = Long.parseLong(args[2]);
+        List<String> cartes = Arrays.asList(args).subList(3, args.length);
+
+        LotMonteCarlo lot = new LotMonteCarlo(new VariationScenario(), nbVariantes, graine,
+                                              Runtime.getRuntime().availableProcessors());
+        // La recherche locale n'est pas retenue : son résultat dépend du temps de calcul disponible
+        lot.enregistrer(Strategie::new);
+        lot.enregistrer(StrategieAffectation::new);
+        lot.enregistrer(StrategieEnchere::new);
+        lot.enregistrer(StrategieEnLigne::new);
+        lot.enregistrer(StrategieTournees::new);
+        lot.enregistrer(StrategieCooperative::new);
+
+        long debut = System.nanoTime();
+        try (BufferedWriter csv = Files.newBufferedWriter(fichierCsv)) {
+            List<LotMonteCarlo.Distribution> distributions = lot.executer(cartes, csv);
+            LotMonteCarlo.afficher(distributions, System.out);
+            System.out.println("\nRésultats écrits dans " + fichierCsv + " en "
+                               + (System.nanoTime() - debut) / 1_000_000 + " ms.");
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Un fichier de carte est introuvable : " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package tests;
+
+import java.io.FileNotFoundException;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Recherche des flottes de robots les moins chères pour éteindre les incendies d'une carte au plus tôt,
+ * sans interface graphique. Les robots partent des cases de départ des robots de la carte.
+ */
+public class TestOptimiseurFlotte {
+    // Coûts relatifs d'un robot de chaque type
+    private static final double COUT_DRONE = 10;
+    private static final double COUT_ROUES = 3;
+    private static final double COUT_CHENILLES = 4;
+    private static final double COUT_PATTES = 5;
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichier de la carte, puis nombre maximal de robots et plafond facultatifs)
+        if (args.length == 0) {
+            System.err.println("Erreur : Veuillez fournir le fichier de la carte en argument.");
+            return;
+        }
+        String nomFichierCarte = args[0];
+
+        try {
+            DonneeSimulation donnes = LectureDonnee.lire(nomFichierCarte);
+            OptimiseurFlotte optimiseur = new OptimiseurFlotte(donnes, Runtime.getRuntime().availableProcessors());
+            optimiseur.ajouterType(new Drone(null), COUT_DRONE);
+            optimiseur.ajouterType(new RobotARoues(null), COUT_ROUES);
+            optimiseur.ajouterType(new RobotAChenilles(null), COUT_CHENILLES);
+            optimiseur.ajouterType(new RobotAPattes(null), COUT_PATTES);
+            if (args.length > 1) {
+                optimiseur.setNbRobotsMax(Integer.parseInt(args[1]));
+            }
+            if (args.length > 2) {
+                optimiseur.setPlafond(Long.parseLong(args[2]));
+            }
+
+            long debut = System.nanoTime();
+            OptimiseurFlotte.afficher(optimiseur.optimiser(), System.out);
+            System.out.println("\n" + optimiseur.getNbCandidates() + " flottes, " + optimiseur.getNbSimulations()
+                               + " simulées, " + optimiseur.getNbEcartees() + " écartées par la minoration, "
+                               + optimiseur.getNbInaccessibles() + " sans accès à un incendie, en "
+                               + (System.nanoTime() - debut) / 1_000_000 + " ms.");
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Le fichier de carte '" + nomFichierCarte + "' est introuvable.");
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
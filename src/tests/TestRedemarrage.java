@@ -0,0 +1,89 @@
+package tests;
+
+import carte.*;
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Vérification du redémarrage de la simulation, sans interface graphique.
+ * Pour chaque stratégie, la simulation est menée jusqu'au bout, redémarrée deux fois et rejouée :
+ * chaque exécution doit aboutir à la même date de fin, aux mêmes intensités et aux mêmes positions des robots.
+ */
+public class TestRedemarrage {
+    private static final int NB_REDEMARRAGES = 2;
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichier de la carte)
+        if (args.length == 0) {
+            System.err.println("Erreur : Veuillez fournir le fichier de la carte en argument.");
+            return;
+        }
+        String nomFichierCarte = args[0];
+
+        List<Supplier<Strategie>> strategies = Arrays.asList(
+                Strategie::new, StrategieAffectation::new, StrategieEnchere::new, StrategieEnLigne::new,
+                StrategieRechercheLocale::new, StrategieTournees::new, StrategieCooperative::new);
+        try {
+            int echecs = 0;
+            for (Supplier<Strategie> fabrique : strategies) {
+                DonneeSimulation donnes = LectureDonnee.lire(nomFichierCarte);
+                Simulateur simulateur = new Simulateur(donnes, false);
+                Strategie strategie = fabrique.get();
+                strategie.chefPompier(donnes, simulateur);
+
+                String reference = executer(simulateur, donnes);
+                boolean identique = true;
+                for (int k = 0; k < NB_REDEMARRAGES; k++) {
+                    simulateur.restart();
+                    simulateur.attendre();
+                    String resultat = executer(simulateur, donnes);
+                    if (!resultat.equals(reference)) {
+                        identique = false;
+                        System.out.println(strategie.getClass().getSimpleName() + " : le redémarrage " + (k + 1)
+                                           + " diffère de la première exécution\n  " + reference + "\n  " + resultat);
+                    }
+                }
+                if (identique) {
+                    System.out.println(strategie.getClass().getSimpleName() + " : " + NB_REDEMARRAGES
+                                       + " redémarrages identiques (" + reference + ")");
+                } else {
+                    echecs++;
+                }
+            }
+            System.out.println(echecs == 0 ? "Tous les redémarrages sont identiques."
+                                           : echecs + " stratégie(s) ne redémarrent pas à l'identique.");
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Le fichier de carte '" + nomFichierCarte + "' est introuvable.");
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Mène la simulation jusqu'au bout et résume son état final : date, intensité restante,
+     * intensité de chaque incendie et position de chaque robot.
+     */
+    private static String executer(Simulateur simulateur, DonneeSimulation donnes) {
+        simulateur.avancerJusqua(Long.MAX_VALUE);
+        simulateur.attendre();
+        int restant = 0;
+        StringBuilder intensites = new StringBuilder();
+        for (Incendie incendie : donnes.getIncendies()) {
+            restant += incendie.getIntensite();
+            intensites.append(' ').append(incendie.getIntensite());
+        }
+        StringBuilder positions = new StringBuilder();
+        for (Robot robot : donnes.getRobots()) {
+            positions.append(" (").append(robot.getPosition().getLigne()).append(", ")
+                     .append(robot.getPosition().getColonne()).append(')');
+        }
+        return "fin " + simulateur.getDateSimulation() + ", intensité restante " + restant
+               + ", incendies" + intensites + ", robots" + positions;
+    }
+}
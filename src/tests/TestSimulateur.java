@@ -1,6 +1,8 @@
 package tests;
 
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import robot.*;
 import simulateur.*;
 
@@ -8,6 +10,9 @@ import simulateur.*;
  * Test du simulateur avec le fichier de carte.
  */
 public class TestSimulateur {
+    // Intervalle de temps simulé entre deux points de reprise
+    private static final long INTERVALLE_REPRISE = 1000;
+
     @SuppressWarnings("CallToPrintStackTrace")
     public static void main(String[] args) {
         // Vérification si un argument (nom du fichier de la carte) a été fourni
@@ -31,9 +36,19 @@ public class TestSimulateur {
             // Création du simulateur
             Simulateur simulateur = new Simulateur(donnes);
 
-            // Utilisation de la stratégie
-            Strategie strat = new Strategie();
-            strat.chefPompier(donnes, simulateur);  // Assurez-vous que cette méthode existe et fonctionne correctement
+            // Un second argument facultatif désigne un fichier de point de reprise : s'il existe, la simulation
+            // reprend à partir de celui-ci ; dans tous les cas, il est ensuite réécrit périodiquement
+            Path reprise = args.length > 1 ? Path.of(args[1]) : null;
+            if (reprise != null && Files.exists(reprise)) {
+                simulateur.reprendre(reprise);
+            } else {
+                // Utilisation de la stratégie
+                StrategiePlanification strat = new Strategie();
+                strat.planifier(donnes, simulateur);
+            }
+            if (reprise != null) {
+                simulateur.activerPointsDeReprise(reprise, INTERVALLE_REPRISE);
+            }
 
         } catch (FileNotFoundException e) {
             System.err.println("Erreur : Le fichier de carte '" + nomFichierCarte + "' est introuvable.");
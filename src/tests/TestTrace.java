@@ -0,0 +1,59 @@
+package tests;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import robot.*;
+import simulateur.*;
+
+/**
+ * Enregistrement et parcours d'une trace d'exécution.
+ * Si le fichier de trace n'existe pas, la simulation est d'abord menée jusqu'au bout sans interface graphique,
+ * avec la stratégie habituelle, et sa trace enregistrée. La trace est ensuite ouverte dans l'interface graphique :
+ * Page précédente et Page suivante reculent ou avancent dans la trace, R se positionne à une date saisie.
+ */
+public class TestTrace {
+    // Intervalle de temps simulé par défaut entre deux images clés
+    private static final long INTERVALLE_IMAGES_CLES = 1000;
+
+    @SuppressWarnings("CallToPrintStackTrace")
+    public static void main(String[] args) {
+        // Vérification des arguments (fichier de la carte, fichier de trace, puis intervalle facultatif)
+        if (args.length < 2) {
+            System.err.println("Erreur : Veuillez fournir le fichier de la carte et le fichier de trace en argument.");
+            return;
+        }
+        String nomFichierCarte = args[0];
+        Path trace = Path.of(args[1]);
+        long intervalle = args.length > 2 ? Long.parseLong(args[2]) : INTERVALLE_IMAGES_CLES;
+
+        try {
+            if (!Files.exists(trace)) {
+                DonneeSimulation donnes = LectureDonnee.lire(nomFichierCarte);
+                Simulateur simulateur = new Simulateur(donnes, false);
+                new Strategie().planifier(donnes, simulateur);
+                try (EnregistreurTrace enregistreur = new EnregistreurTrace(trace, intervalle)) {
+                    simulateur.setEnregistreur(enregistreur);
+                    simulateur.avancerJusqua(Long.MAX_VALUE);
+                    simulateur.attendre();
+                    simulateur.setEnregistreur(null);
+                }
+                System.out.println("Trace enregistrée dans " + trace + " jusqu'à la date " + simulateur.getDateSimulation() + ".");
+            }
+
+            // La trace est rejouée dans un simulateur créé à partir de la même carte, sans stratégie
+            DonneeSimulation donnes = LectureDonnee.lire(nomFichierCarte);
+            Simulateur simulateur = new Simulateur(donnes);
+            LecteurTrace lecteur = new LecteurTrace(trace, simulateur);
+            simulateur.setLecteurTrace(lecteur);
+            lecteur.chercher(lecteur.getDateDebut());
+            System.out.println("Trace de " + lecteur.getDateDebut() + " à " + lecteur.getDateFin() + ", "
+                               + lecteur.getNbImagesCles() + " images clés.");
+        } catch (FileNotFoundException e) {
+            System.err.println("Erreur : Le fichier de carte '" + nomFichierCarte + "' est introuvable.");
+        } catch (Exception e) {
+            System.err.println("Une erreur est survenue : " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}